@@ -0,0 +1,64 @@
+package com.filereader.app.benchmark;
+
+import com.filereader.app.processor.CustomLineMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LineMapperBenchmark class is used to measure the tokenizing and mapping of a line to a MyTest object, against
+ * the DelimitedLineTokenizer as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LineMapperBenchmark {
+
+    private static final int LINES = 10000;
+
+    @Param({"8"})
+    private int nameWidth;
+
+    @Param({"12", "64"})
+    private int cityWidth;
+
+    @Param({"0", "20"})
+    private int quotedPercent;
+
+    private String[] lines;
+    private CustomLineMapper lineMapper;
+    private DelimitedLineTokenizer tokenizer;
+
+    @Setup
+    public void setUp() {
+        lines = SyntheticInput.lines(LINES, nameWidth, cityWidth, quotedPercent);
+        lineMapper = SyntheticInput.lineMapper();
+        tokenizer = new DelimitedLineTokenizer(SyntheticInput.DELIMITER);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void customLineMapper(Blackhole blackhole) {
+        for (int i = 0; i < lines.length; i++) {
+            blackhole.consume(lineMapper.mapLine(lines[i], i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void delimitedLineTokenizer(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(tokenizer.tokenize(line));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.filereader.app.benchmark;
+
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.processor.ByteRangeItemReader;
+import com.filereader.app.processor.MappedFileItemReader;
+import com.filereader.app.processor.ValidatingItemProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReadPipelineBenchmark class is used to measure reading a generated file with each reader and validating every
+ * record with the ValidatingItemProcessor. The file size and field widths are set with the rows, nameWidth and
+ * cityWidth parameters, e.g. -p rows=1000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadPipelineBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"8"})
+    private int nameWidth;
+
+    @Param({"24"})
+    private int cityWidth;
+
+    @Param({"10"})
+    private int quotedPercent;
+
+    @Param({"MAPPED", "FLAT", "BYTE_RANGE"})
+    private String reader;
+
+    private Path file;
+    private final ValidatingItemProcessor processor = new ValidatingItemProcessor();
+
+    @Setup
+    public void setUp() throws Exception {
+        file = SyntheticInput.writeFile(rows, nameWidth, cityWidth, quotedPercent);
+    }
+
+    @Benchmark
+    public void readAndValidate(Blackhole blackhole) throws Exception {
+        ItemStreamReader<MyTest> itemReader = newReader();
+        itemReader.open(new ExecutionContext());
+        try {
+            MyTest record;
+            while ((record = itemReader.read()) != null) {
+                blackhole.consume(processor.process(record));
+            }
+        } finally {
+            itemReader.close();
+        }
+    }
+
+    private ItemStreamReader<MyTest> newReader() throws Exception {
+        return switch (reader) {
+            case "MAPPED" -> new MappedFileItemReader(file.toString(), SyntheticInput.DELIMITER, 64 * 1024 * 1024);
+            case "BYTE_RANGE" -> new ByteRangeItemReader<>(file.toString(), 0, Files.size(file), SyntheticInput.lineMapper());
+            default -> new FlatFileItemReaderBuilder<MyTest>()
+                    .name("benchmarkReader")
+                    .resource(new FileSystemResource(file))
+                    .lineMapper(SyntheticInput.lineMapper())
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.filereader.app.benchmark;
+
+import com.filereader.app.processor.CustomLineMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticInput class is used to generate the input of the benchmarks: lines of a name and a city field of the
+ * given widths, a share of them quoted, from a fixed seed so every run reads the same data.
+ */
+final class SyntheticInput {
+
+    static final String DELIMITER = ",";
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final long SEED = 42;
+
+    private SyntheticInput() {
+    }
+
+    /**
+     * The lines method is used to generate the lines, without line separators.
+     * @param rows an {@link int} value.
+     * @param nameWidth an {@link int} value, the number of characters of the name.
+     * @param cityWidth an {@link int} value, the number of characters of the city.
+     * @param quotedPercent an {@link int} value, the share of the lines whose city is quoted and contains the delimiter.
+     * @return a {@link String} array.
+     */
+    static String[] lines(int rows, int nameWidth, int cityWidth, int quotedPercent) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] lines = new String[rows];
+        StringBuilder line = new StringBuilder(nameWidth + cityWidth + 8);
+        for (int i = 0; i < rows; i++) {
+            line.setLength(0);
+            append(line, random, nameWidth);
+            line.append(DELIMITER);
+            if (random.nextInt(100) < quotedPercent) {
+                line.append('"');
+                append(line, random, Math.max(cityWidth - 2, 1) / 2);
+                line.append(DELIMITER).append(' ');
+                append(line, random, Math.max(cityWidth - 2, 1) / 2);
+                line.append('"');
+            } else {
+                append(line, random, cityWidth);
+            }
+            lines[i] = line.toString();
+        }
+        return lines;
+    }
+
+    /**
+     * The writeFile method is used to write the generated lines to a temporary file.
+     * @param rows an {@link int} value.
+     * @param nameWidth an {@link int} value.
+     * @param cityWidth an {@link int} value.
+     * @param quotedPercent an {@link int} value.
+     * @return a {@link Path} object, deleted on exit.
+     * @throws IOException an {@link IOException} object.
+     */
+    static Path writeFile(int rows, int nameWidth, int cityWidth, int quotedPercent) throws IOException {
+        Path file = Files.createTempFile("benchmark-", ".csv");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String line : lines(rows, nameWidth, cityWidth, quotedPercent)) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * The lineMapper method is used to create the CustomLineMapper outside the Spring context.
+     * @return a {@link CustomLineMapper} object.
+     */
+    static CustomLineMapper lineMapper() {
+        CustomLineMapper lineMapper = new CustomLineMapper();
+        ReflectionTestUtils.setField(lineMapper, "delimiter", DELIMITER);
+        lineMapper.init();
+        return lineMapper;
+    }
+
+    private static void append(StringBuilder line, SplittableRandom random, int width) {
+        for (int i = 0; i < width; i++) {
+            line.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+    }
+}
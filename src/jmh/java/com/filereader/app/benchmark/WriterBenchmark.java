@@ -0,0 +1,152 @@
+package com.filereader.app.benchmark;
+
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.processor.DataTransformer;
+import com.filereader.app.processor.JdbcBatchWriter;
+import com.filereader.app.repository.MyTestRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriterBenchmark class is used to measure writing one chunk with the JPA and the JDBC writer against an embedded
+ * H2 database in MySQL mode, created with the same SQL files as the Liquibase changelog: the natural key index of
+ * changeSet 3 and the binary ids of changeSet 4 are selected with the naturalKeyIndex and binaryIds params, like the
+ * upsert and binaryIds changelog properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriterBenchmark {
+
+    /** The default naturalKey of the changelog. **/
+    private static final String NATURAL_KEY = "name, city";
+
+    @Param({"JPA", "JDBC"})
+    private String writer;
+
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    @Param({"8"})
+    private int nameWidth;
+
+    @Param({"24"})
+    private int cityWidth;
+
+    @Param({"true"})
+    private boolean naturalKeyIndex;
+
+    @Param({"false", "true"})
+    private boolean binaryIds;
+
+    private String[] lines;
+    private DriverManagerDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private ItemWriter<MyTest> itemWriter;
+    private TransactionTemplate transactionTemplate;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        lines = SyntheticInput.lines(chunkSize * 10, nameWidth, cityWidth, 0);
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("liquibase/sql/2_Create_Table_MyTest.sql"));
+            if (naturalKeyIndex) {
+                String sql = new ClassPathResource("liquibase/sql/3_Add_Unique_Index_MyTest.sql")
+                        .getContentAsString(StandardCharsets.UTF_8).replace("${naturalKey}", NATURAL_KEY);
+                ScriptUtils.executeSqlScript(connection, new ByteArrayResource(sql.getBytes(StandardCharsets.UTF_8)));
+            }
+            if (binaryIds) {
+                // The H2 equivalent of changeSet 4 on the empty table, which has no UUID_TO_BIN or CHANGE COLUMN.
+                connection.createStatement().execute("ALTER TABLE MyTest ALTER COLUMN id SET DATA TYPE BINARY(16)");
+            }
+        }
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        databaseProperties.setBinaryIds(binaryIds);
+        if ("JDBC".equals(writer)) {
+            itemWriter = new JdbcBatchWriter(new JdbcTemplate(dataSource), databaseProperties);
+            transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        } else {
+            entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+            entityManagerFactoryBean.setDataSource(dataSource);
+            entityManagerFactoryBean.setPackagesToScan("com.filereader.app.entity");
+            entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            entityManagerFactoryBean.getJpaPropertyMap().put("hibernate.jdbc.batch_size", chunkSize);
+            entityManagerFactoryBean.getJpaPropertyMap().put(AvailableSettings.PREFERRED_UUID_JDBC_TYPE,
+                    binaryIds ? "BINARY" : "CHAR");
+            entityManagerFactoryBean.afterPropertiesSet();
+            EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+            MyTestRepository repository = new JpaRepositoryFactory(
+                    SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory))
+                    .getRepository(MyTestRepository.class);
+            itemWriter = new DataTransformer(repository);
+            transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        new JdbcTemplate(dataSource).execute("TRUNCATE TABLE mytest");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (entityManagerFactoryBean != null) {
+            entityManagerFactoryBean.destroy();
+        }
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Benchmark
+    public void writeChunk() {
+        List<MyTest> items = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            int pass = next / lines.length;
+            String[] fields = lines[next++ % lines.length].split(SyntheticInput.DELIMITER);
+            MyTest item = new MyTest();
+            item.setName(fields[0]);
+            // Keeps the natural key unique once the lines wrap around within an iteration.
+            item.setCity(pass == 0 ? fields[1] : fields[1] + pass);
+            items.add(item);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                itemWriter.write(new Chunk<>(items));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
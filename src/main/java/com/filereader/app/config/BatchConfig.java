@@ -1,17 +1,41 @@
 package com.filereader.app.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filereader.app.config.props.JobProperties;
 import com.filereader.app.entity.MyTest;
+import com.filereader.app.processor.AdaptiveCompletionPolicy;
+import com.filereader.app.processor.BisectingItemWriter;
+import com.filereader.app.processor.ByteRangeItemReader;
 import com.filereader.app.processor.CustomLineMapper;
 import com.filereader.app.processor.CustomSkipPolicy;
 import com.filereader.app.processor.CustomStepListener;
 import com.filereader.app.processor.DataTransformer;
+import com.filereader.app.processor.DecompressingResource;
+import com.filereader.app.processor.DuplicateFileDecider;
+import com.filereader.app.processor.FileRangePartitioner;
+import com.filereader.app.processor.JdbcBatchWriter;
 import com.filereader.app.processor.JobCompletionNotificationListener;
+import com.filereader.app.processor.JobMetricsListener;
+import com.filereader.app.processor.LoadDataWriter;
+import com.filereader.app.processor.MappedFileItemReader;
+import com.filereader.app.processor.MultiFileItemReader;
+import com.filereader.app.processor.PrefetchingItemReader;
+import com.filereader.app.processor.QuarantineWriter;
+import com.filereader.app.processor.S3ItemReader;
 import com.filereader.app.processor.S3Resource;
+import com.filereader.app.processor.UpsertWriter;
 import com.filereader.app.processor.ValidatingItemProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -20,9 +44,12 @@ import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -30,9 +57,18 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
 /**
  * BatchConfig class is used to configure the Spring Batch job and step.
  */
@@ -47,19 +83,46 @@ public class BatchConfig {
     /** The DataTransformer class is used to write the data to database table. **/
     private final DataTransformer writer;
 
+    /** The JdbcBatchWriter class is used to write the data to database table with batched JDBC statements. **/
+    private final JdbcBatchWriter jdbcWriter;
+
+    /** The LoadDataWriter class is used to load the data to database table with LOAD DATA LOCAL INFILE. **/
+    private final LoadDataWriter loadDataWriter;
+
+    /** The UpsertWriter class is used to insert or update the data by natural key, created only if selected. **/
+    private final ObjectProvider<UpsertWriter> upsertWriter;
+
     /** The ValidatingItemProcessor class is used to validate the data. **/
     private final ValidatingItemProcessor processor;
 
     private final ApplicationContext context;
 
+    /** The JobProperties class is used to read the job related properties. **/
+    private final JobProperties jobProperties;
+
+    /** The MeterRegistry class is used to publish the step metrics. **/
+    private final MeterRegistry meterRegistry;
+
+    /** The QuarantineWriter class is used to write the skipped records to the quarantine file. **/
+    private final QuarantineWriter quarantineWriter;
+
+    /** The DataSource is used by the BisectingItemWriter to set the savepoints of the chunk transaction. **/
+    private final DataSource dataSource;
+
     /**
-     * The jobRepository method is used to create the InMemoryJobRepository object.
+     * The jobRepository method is used to create the InMemoryJobRepository object, persisted to the
+     * JobRepositoryLog if a log file is configured.
      * @return {@link JobRepository} of {@link InMemoryJobRepository} object.
      */
     @Bean
     @Primary
     public JobRepository jobRepository() {
-        return new InMemoryJobRepository();
+        JobProperties.Repository repository = jobProperties.getRepository();
+        if (StringUtils.isBlank(repository.getLogFile())) {
+            return new InMemoryJobRepository(repository.getMaxJobInstances());
+        }
+        return new InMemoryJobRepository(repository.getMaxJobInstances(),
+                new JobRepositoryLog(repository.getLogFile(), repository.getCompactThreshold()));
     }
 
     /**
@@ -72,53 +135,293 @@ public class BatchConfig {
     }
 
     /**
-     * The fileItemReader method is used to create the FlatFileItemReader object.
+     * The fileItemReader method is used to create the reader of the local file, the MappedFileItemReader, the
+     * ByteRangeItemReader over the whole file or the FlatFileItemReader object based on the configured reader type.
+     * The first two save the byte offset of the next line, so a restart seeks to it. All of them skip the '#'
+     * comment lines. A compressed file is always read by the FlatFileItemReader,
+     * decompressing it while reading, and so is a quarantine file, ignoring its comment lines.
+     * The job of a followed file reads the byte range given by its job parameters only, which a compressed or
+     * quarantine file is rejected for, and a coalesced job reads its files one after the other with the
+     * MultiFileItemReader.
+     * The reader reads ahead of the step if prefetch is enabled.
      * @param filePath - The input file path.
-     * @return {@link FlatFileItemReader} object.
+     * @param filePaths - The files of a coalesced job left to read by the DuplicateFileDecider, null otherwise.
+     * @param startOffset - The offset of the first line to read, null for the start of the file.
+     * @param endOffset - The offset right after the last line to read, null for the end of the file.
+     * @param delimiter - The file content separator.
+     * @return {@link ItemStreamReader} object.
      */
     @Profile("filesystem")
     @StepScope
-    @Bean
-    public FlatFileItemReader<MyTest> fileItemReaderFile(@Value("#{jobParameters['filePath']}") String filePath) {
+    @Bean("fileItemReader")
+    public ItemStreamReader<MyTest> fileItemReaderFile(@Value("#{jobParameters['filePath']}") String filePath,
+                                                       @Value("#{jobExecutionContext['filePaths']}") String filePaths,
+                                                       @Value("#{jobParameters['startOffset']}") Long startOffset,
+                                                       @Value("#{jobParameters['endOffset']}") Long endOffset,
+                                                       @Value("${com.file.separator}") String delimiter) {
+        if (filePaths != null) {
+            return prefetching(new MultiFileItemReader<>(MultiFileItemReader.split(filePaths),
+                    file -> localFileReader(file, null, null, delimiter)));
+        }
+        return prefetching(localFileReader(filePath, startOffset, endOffset, delimiter));
+    }
+
+    /**
+     * The localFileReader method is used to create the reader of the local file, or of a byte range of it.
+     * @param filePath - The input file path.
+     * @param startOffset - The offset of the first line to read, null for the start of the file.
+     * @param endOffset - The offset right after the last line to read, null for the end of the file.
+     * @param delimiter - The file content separator.
+     * @return {@link ItemStreamReader} object.
+     */
+    private ItemStreamReader<MyTest> localFileReader(String filePath, Long startOffset, Long endOffset, String delimiter) {
+        JobProperties.ReaderType readerType = jobProperties.getReader().getType();
+        boolean range = startOffset != null || endOffset != null;
+        boolean whole = isCompressed(filePath) || QuarantineWriter.isQuarantineFile(filePath);
+        if (whole && range) {
+            throw new IllegalStateException("A compressed or quarantine file cannot be read from a byte range: "
+                    + filePath);
+        }
+        if (!whole && (readerType != JobProperties.ReaderType.FLAT || range)) {
+            long start = startOffset != null ? startOffset : 0;
+            if (readerType == JobProperties.ReaderType.MAPPED) {
+                return new MappedFileItemReader(filePath, start, endOffset != null ? endOffset : -1,
+                        delimiter, jobProperties.getReader().getMapSize());
+            }
+            return new ByteRangeItemReader<>(filePath, start, endOffset != null ? endOffset : Long.MAX_VALUE, lineMapper);
+        }
         return new FlatFileItemReaderBuilder<MyTest>()
                 .name("fileItemReader")
-                .resource(new FileSystemResource(filePath))
+                .resource(decompressing(new FileSystemResource(filePath)))
                 .lineMapper(lineMapper)
                 .build();
     }
 
     /**
-     * The fileItemReader method is used to create the FlatFileItemReader object.
+     * The fileItemReader method is used to create the reader of the S3 object, reading ahead of the step if
+     * prefetch is enabled. An uncompressed object is read by the S3ItemReader, which saves the byte offset of the
+     * next line, so a restart requests the object from it with a ranged GET. A compressed object is read by the
+     * FlatFileItemReader, decompressing it while reading. A coalesced job reads its objects one after the other
+     * with the MultiFileItemReader.
      * @param s3Client - The {@link S3Client} object.
      * @param bucketName - The bucket name.
      * @param fileName - The input file path.
-     * @return {@link FlatFileItemReader} object.
+     * @param filePaths - The objects of a coalesced job left to read by the DuplicateFileDecider, null otherwise.
+     * @return {@link ItemStreamReader} object.
      */
     @Profile("aws")
     @StepScope
-    @Bean
-    public FlatFileItemReader<MyTest> fileItemReaderS3(S3Client s3Client, @Value("#{jobParameters['bucketName']}") String bucketName,
-                                                       @Value("#{jobParameters['fileName']}") String fileName) {
+    @Bean("fileItemReader")
+    public ItemStreamReader<MyTest> fileItemReaderS3(S3Client s3Client, @Value("#{jobParameters['bucketName']}") String bucketName,
+                                                     @Value("#{jobParameters['fileName']}") String fileName,
+                                                     @Value("#{jobExecutionContext['filePaths']}") String filePaths) {
+        if (filePaths != null) {
+            return prefetching(new MultiFileItemReader<>(MultiFileItemReader.split(filePaths),
+                    key -> s3ObjectReader(s3Client, bucketName, key)));
+        }
+        return prefetching(s3ObjectReader(s3Client, bucketName, fileName));
+    }
+
+    /**
+     * The s3ObjectReader method is used to create the reader of the S3 object.
+     * @param s3Client - The {@link S3Client} object.
+     * @param bucketName - The bucket name.
+     * @param fileName - The object key.
+     * @return {@link ItemStreamReader} object.
+     */
+    private ItemStreamReader<MyTest> s3ObjectReader(S3Client s3Client, String bucketName, String fileName) {
+        S3Resource resource = s3Resource(s3Client, bucketName, fileName);
+        if (!isCompressed(resource)) {
+            return new S3ItemReader<>(resource, lineMapper);
+        }
         return new FlatFileItemReaderBuilder<MyTest>()
                 .name("fileItemReaderS3")
-                .resource(new S3Resource(s3Client, bucketName, fileName))
+                .resource(decompressing(resource))
                 .lineMapper(lineMapper)
                 .build();
     }
 
     /**
-     * The job method is used to create the Job object.
+     * The prefetching method is used to wrap the reader so that it is read on a separate thread, ahead of the step,
+     * while the previous chunk is processed and written.
+     * @param reader - The {@link ItemStreamReader} object.
+     * @return {@link ItemStreamReader} object, the reader itself if prefetch is disabled.
+     */
+    private ItemStreamReader<MyTest> prefetching(ItemStreamReader<MyTest> reader) {
+        int prefetch = jobProperties.getReader().getPrefetch();
+        return prefetch > 0 ? new PrefetchingItemReader<>(reader, prefetch) : reader;
+    }
+
+    /**
+     * The s3Resource method is used to create the S3Resource object, read with byte-range GETs if enabled.
+     * @param s3Client - The {@link S3Client} object.
+     * @param bucketName - The bucket name.
+     * @param fileName - The file name.
+     * @return {@link S3Resource} object.
+     */
+    private S3Resource s3Resource(S3Client s3Client, String bucketName, String fileName) {
+        JobProperties.S3 s3 = jobProperties.getReader().getS3();
+        if (!s3.isRanged()) {
+            return new S3Resource(s3Client, bucketName, fileName);
+        }
+        return new S3Resource(s3Client, bucketName, fileName, s3.getPartSize(), s3.getConcurrency(), s3.getMaxRetries());
+    }
+
+    /**
+     * The decompressing method is used to wrap the resource so that compressed content is decompressed while read.
+     * @param resource - The {@link Resource} object.
+     * @return {@link DecompressingResource} object.
+     */
+    private DecompressingResource decompressing(Resource resource) {
+        JobProperties.Decompression decompression = jobProperties.getReader().getDecompression();
+        return new DecompressingResource(resource, decompression.getBufferSize(), decompression.getReadAheadBuffers());
+    }
+
+    /**
+     * The isCompressed method is used to check whether the local file is compressed.
+     * @param filePath - The input file path.
+     * @return a {@link boolean} value.
+     */
+    private boolean isCompressed(String filePath) {
+        try {
+            return DecompressingResource.detect(Paths.get(filePath)) != DecompressingResource.Compression.NONE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file: " + filePath, e);
+        }
+    }
+
+    /**
+     * The isCompressed method is used to check whether the S3 object is compressed, reading its first bytes only.
+     * @param resource - The {@link S3Resource} object.
+     * @return a {@link boolean} value.
+     */
+    private boolean isCompressed(S3Resource resource) {
+        try (InputStream in = resource.getInputStream(0, Math.min(resource.contentLength(), 4))) {
+            return DecompressingResource.detect(in.readAllBytes()) != DecompressingResource.Compression.NONE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + resource.getDescription(), e);
+        }
+    }
+
+    /**
+     * The chunkCompletionPolicy method is used to create the AdaptiveCompletionPolicy object of the step execution.
+     * @param chunkSize - The chunk size of this job, the configured chunk size if not given.
+     * @return {@link AdaptiveCompletionPolicy} object.
+     */
+    @StepScope
+    @Bean
+    public AdaptiveCompletionPolicy chunkCompletionPolicy(@Value("#{jobParameters['chunkSize']}") Long chunkSize) {
+        JobProperties.Chunk chunk = jobProperties.getChunk();
+        int size = chunkSize != null ? chunkSize.intValue() : chunk.getSize();
+        return new AdaptiveCompletionPolicy(size, chunk.isAdaptive(), chunk.getMinSize(), chunk.getMaxSize(),
+                chunk.getMaxCommitMillis());
+    }
+
+    /**
+     * The fileRangePartitioner method is used to create the FileRangePartitioner object, splitting the byte range
+     * given by the job parameters for the job of a followed file, or grouping the files of a coalesced job.
+     * @param filePath - The input file path.
+     * @param filePaths - The files of a coalesced job left to read by the DuplicateFileDecider, null otherwise.
+     * @param startOffset - The offset of the first line to read, null for the start of the file.
+     * @param endOffset - The offset right after the last line to read, null for the end of the file.
+     * @return {@link FileRangePartitioner} object.
+     */
+    @Profile("filesystem")
+    @StepScope
+    @Bean
+    public FileRangePartitioner fileRangePartitioner(@Value("#{jobParameters['filePath']}") String filePath,
+                                                     @Value("#{jobExecutionContext['filePaths']}") String filePaths,
+                                                     @Value("#{jobParameters['startOffset']}") Long startOffset,
+                                                     @Value("#{jobParameters['endOffset']}") Long endOffset) {
+        if (filePaths != null) {
+            return new FileRangePartitioner(MultiFileItemReader.split(filePaths));
+        }
+        return new FileRangePartitioner(filePath, startOffset != null ? startOffset : 0, endOffset != null ? endOffset : -1);
+    }
+
+    /**
+     * The partitionItemReader method is used to create the reader of one partition, either the MappedFileItemReader
+     * or, for the other reader types, the ByteRangeItemReader object. A compressed file, which the
+     * partitioner leaves in a single partition, is read by the decompressing FlatFileItemReader, and so is a
+     * quarantine file. The partition of a coalesced job reads its group of files with the MultiFileItemReader.
+     * The reader reads ahead of the step if prefetch is enabled.
+     * @param filePath - The input file path.
+     * @param filePaths - The group of files of the partition of a coalesced job, null otherwise.
+     * @param startOffset - The offset of the first line of the partition.
+     * @param endOffset - The offset right after the last line of the partition.
+     * @param delimiter - The file content separator.
+     * @return {@link ItemStreamReader} object.
+     */
+    @Profile("filesystem")
+    @StepScope
+    @Bean
+    public ItemStreamReader<MyTest> partitionItemReader(@Value("#{stepExecutionContext['filePath']}") String filePath,
+                                                        @Value("#{stepExecutionContext['filePaths']}") String filePaths,
+                                                        @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+                                                        @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+                                                        @Value("${com.file.separator}") String delimiter) {
+        if (filePaths != null) {
+            return prefetching(new MultiFileItemReader<>(MultiFileItemReader.split(filePaths),
+                    file -> localFileReader(file, null, null, delimiter)));
+        }
+        if (isCompressed(filePath) || QuarantineWriter.isQuarantineFile(filePath)) {
+            return prefetching(new FlatFileItemReaderBuilder<MyTest>()
+                    .name("partitionItemReader")
+                    .resource(decompressing(new FileSystemResource(filePath)))
+                    .lineMapper(lineMapper)
+                    .build());
+        }
+        if (jobProperties.getReader().getType() == JobProperties.ReaderType.MAPPED) {
+            return prefetching(new MappedFileItemReader(filePath, startOffset, endOffset, delimiter,
+                    jobProperties.getReader().getMapSize()));
+        }
+        return prefetching(new ByteRangeItemReader<>(filePath, startOffset, endOffset, lineMapper));
+    }
+
+    /**
+     * The partitionTaskExecutor method is used to create the thread pool which runs the partitions.
+     * @return {@link TaskExecutor} object.
+     */
+    @Profile("filesystem")
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobProperties.getPartition().getThreadPoolSize());
+        executor.setMaxPoolSize(jobProperties.getPartition().getThreadPoolSize());
+        executor.setThreadNamePrefix("partition-");
+        return executor;
+    }
+
+    /**
+     * The job method is used to create the Job object. The file is first checked by the DuplicateFileDecider and
+     * the job ends without reading it if it was already loaded. The partitioned step only exists with the
+     * filesystem profile, so the job falls back to the single step when it is not defined.
      * @param jobRepository - The {@link JobRepository} object.
      * @param listener - The {@link JobCompletionNotificationListener} object.
-     * @param step - The {@link Step} object.
+     * @param duplicateFileDecider - The {@link DuplicateFileDecider} object.
+     * @param step - The {@link Step} object processing the whole file.
+     * @param partitionedStep - The {@link ObjectProvider} of the partitioned {@link Step}, if defined.
      * @return {@link Job} object.
      */
     @Bean
-    public Job job(JobRepository jobRepository, JobCompletionNotificationListener listener, Step step) {
+    public Job job(JobRepository jobRepository, JobCompletionNotificationListener listener,
+                   DuplicateFileDecider duplicateFileDecider, @Qualifier("step") Step step,
+                   @Qualifier("partitionedStep") ObjectProvider<Step> partitionedStep) {
+        Step firstStep = step;
+        if (jobProperties.getPartition().isEnabled()) {
+            firstStep = partitionedStep.getIfAvailable();
+            if (firstStep == null) {
+                System.err.println("Partitioning is only supported with the filesystem profile, running the job in a single step");
+                firstStep = step;
+            }
+        }
         return new JobBuilder("fileProcessingJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
-                .start(step)
+                .start(duplicateFileDecider)
+                .on(DuplicateFileDecider.DUPLICATE.getName()).end()
+                .from(duplicateFileDecider).on("*").to(firstStep)
+                .end()
                 .build();
     }
 
@@ -130,18 +433,109 @@ public class BatchConfig {
      */
     @Bean
     public Step step(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
-        FlatFileItemReader<MyTest> fileItemReader = context.getBean(FlatFileItemReader.class);
-        return new StepBuilder("fileProcessingStep", jobRepository)
-                .<MyTest, MyTest>chunk(10, transactionManager)
+        ItemStreamReader<MyTest> fileItemReader = context.getBean("fileItemReader", ItemStreamReader.class);
+        AdaptiveCompletionPolicy completionPolicy = context.getBean(AdaptiveCompletionPolicy.class);
+        JobMetricsListener metricsListener = new JobMetricsListener(meterRegistry, jobProperties.getMetrics().isFileTag());
+        return BisectingItemWriter.exposeContribution(new StepBuilder("fileProcessingStep", jobRepository)
+                .<MyTest, MyTest>chunk(completionPolicy, transactionManager)
                 .reader(fileItemReader)
                 .processor(processor)
-                .writer(writer)
+                .writer(itemWriter())
                 .faultTolerant()
-                .skipPolicy(new CustomSkipPolicy())
+                .skipPolicy(skipPolicy())
+                .listener((SkipListener<MyTest, MyTest>) metricsListener)
+                .listener((SkipListener<MyTest, MyTest>) quarantineWriter)
+                .listener((StepExecutionListener) quarantineWriter)
                 .listener(new CustomStepListener())
+                .listener(completionPolicy)
+                .listener((StepExecutionListener) metricsListener)
+                .listener((ChunkListener) metricsListener)
+                .listener((ItemReadListener<MyTest>) metricsListener)
+                .listener((ItemProcessListener<MyTest, MyTest>) metricsListener)
+                .listener((ItemWriteListener<MyTest>) metricsListener)
+                .build());
+    }
+
+    /**
+     * The partitionedStep method is used to create the manager Step which splits the input file into byte ranges
+     * and runs the workerStep for each of them on the partition thread pool.
+     * @param jobRepository - The {@link JobRepository} object.
+     * @param partitioner - The {@link FileRangePartitioner} object.
+     * @param workerStep - The {@link Step} object which processes one partition.
+     * @param partitionTaskExecutor - The {@link TaskExecutor} object.
+     * @return {@link Step} object.
+     */
+    @Profile("filesystem")
+    @Bean
+    public Step partitionedStep(JobRepository jobRepository, FileRangePartitioner partitioner, Step workerStep,
+                                TaskExecutor partitionTaskExecutor) {
+        return new StepBuilder("partitionedStep", jobRepository)
+                .partitioner("workerStep", partitioner)
+                .step(workerStep)
+                .gridSize(jobProperties.getPartition().getGridSize())
+                .taskExecutor(partitionTaskExecutor)
                 .build();
     }
 
+    /**
+     * The workerStep method is used to create the Step object which processes one byte range of the input file.
+     * @param jobRepository - The {@link JobRepository} object.
+     * @param transactionManager - The {@link PlatformTransactionManager} object.
+     * @return {@link Step} object.
+     */
+    @Profile("filesystem")
+    @Bean
+    public Step workerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
+        ItemStreamReader<MyTest> partitionItemReader = context.getBean("partitionItemReader", ItemStreamReader.class);
+        AdaptiveCompletionPolicy completionPolicy = context.getBean(AdaptiveCompletionPolicy.class);
+        JobMetricsListener metricsListener = new JobMetricsListener(meterRegistry, jobProperties.getMetrics().isFileTag());
+        return BisectingItemWriter.exposeContribution(new StepBuilder("workerStep", jobRepository)
+                .<MyTest, MyTest>chunk(completionPolicy, transactionManager)
+                .reader(partitionItemReader)
+                .processor(processor)
+                .writer(itemWriter())
+                .faultTolerant()
+                .skipPolicy(skipPolicy())
+                .listener((SkipListener<MyTest, MyTest>) metricsListener)
+                .listener((SkipListener<MyTest, MyTest>) quarantineWriter)
+                .listener((StepExecutionListener) quarantineWriter)
+                .listener(new CustomStepListener())
+                .listener(completionPolicy)
+                .listener((StepExecutionListener) metricsListener)
+                .listener((ChunkListener) metricsListener)
+                .listener((ItemReadListener<MyTest>) metricsListener)
+                .listener((ItemProcessListener<MyTest, MyTest>) metricsListener)
+                .listener((ItemWriteListener<MyTest>) metricsListener)
+                .build());
+    }
+
+    /**
+     * The skipPolicy method is used to create the CustomSkipPolicy object from the skip properties.
+     * @return {@link CustomSkipPolicy} object.
+     */
+    private CustomSkipPolicy skipPolicy() {
+        JobProperties.Skip skip = jobProperties.getSkip();
+        return new CustomSkipPolicy(skip.getLimit(), skip.getSkippable());
+    }
+
+    /**
+     * The itemWriter method is used to select the writer of the records based on the configured writer type.
+     * The JDBC writers are wrapped in the BisectingItemWriter if bisect is enabled.
+     * @return {@link ItemWriter} object.
+     */
+    private ItemWriter<MyTest> itemWriter() {
+        ItemWriter<MyTest> itemWriter = switch (jobProperties.getWriter().getType()) {
+            case JDBC -> jdbcWriter;
+            case LOAD_DATA -> loadDataWriter;
+            case UPSERT -> upsertWriter.getObject();
+            default -> writer;
+        };
+        if (itemWriter == writer || !jobProperties.getWriter().isBisect()) {
+            return itemWriter;
+        }
+        return new BisectingItemWriter(itemWriter, dataSource, skipPolicy());
+    }
+
     /**
      * The simpleJobLauncher method is used to create the TaskExecutorJobLauncher object.
      * @param jobRepository - The {@link JobRepository} object.
@@ -4,6 +4,7 @@ import com.filereader.app.config.props.DatabaseProperties;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +17,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 /**
  * DatabaseConfiguration class is used to configure the MySQL database connection.
@@ -26,9 +28,14 @@ import javax.sql.DataSource;
 @EnableJpaRepositories(entityManagerFactoryRef = "fileReaderEM", transactionManagerRef = "fileReaderTM", basePackages = {"com.filereader.app.repository"})
 public class DatabaseConfiguration {
 
+    /** The name of the transaction manager of the bisected writers. **/
+    public static final String WRITER_TM = "fileReaderWriterTM";
+
     private static final String ENTITY_PKG = "com.filereader.app.entity";
     private static final String PERSISTENCE_UNIT = "file-reader-batch";
     private static final String POOL_NAME = PERSISTENCE_UNIT;
+    private static final String REWRITE_BATCHED_STATEMENTS = "rewriteBatchedStatements";
+    private static final String ALLOW_LOAD_LOCAL_INFILE = "allowLoadLocalInfile";
 
     /** The DatabaseProperties class is used to read the properties from the application.yml file or from environment variables. **/
     private final DatabaseProperties databaseProperties;
@@ -42,7 +49,7 @@ public class DatabaseConfiguration {
     public DataSource dataSource() {
         DataSource source = DataSourceBuilder.create()
                 .driverClassName(databaseProperties.getDriverClassName())
-                .url(databaseProperties.getConnectionUrl())
+                .url(connectionUrl())
                 .username(databaseProperties.getUsername())
                 .password(databaseProperties.getPassword())
                 .type(HikariDataSource.class)
@@ -57,15 +64,43 @@ public class DatabaseConfiguration {
         return new HikariDataSource(config);
     }
 
+    /**
+     * The connectionUrl method is used to add the enabled MySQL connector options to the connection URL:
+     * rewriteBatchedStatements sends a batch of inserts as multi-row statements and allowLoadLocalInfile
+     * permits the LOAD DATA LOCAL INFILE statements of the load-data writer.
+     * @return a {@link String} object.
+     */
+    private String connectionUrl() {
+        String url = databaseProperties.getConnectionUrl();
+        if (databaseProperties.isRewriteBatchedStatements()) {
+            url = withOption(url, REWRITE_BATCHED_STATEMENTS);
+        }
+        if (databaseProperties.isAllowLoadLocalInfile()) {
+            url = withOption(url, ALLOW_LOAD_LOCAL_INFILE);
+        }
+        return url;
+    }
+
+    private String withOption(String url, String option) {
+        if (url == null || url.contains(option)) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + option + "=true";
+    }
+
     /**
      * The fileReaderEM method is used to create the LocalContainerEntityManagerFactoryBean object.
+     * The UUID ids are mapped to BINARY(16) or CHAR columns depending on the binaryIds property.
      * @param builder {@link EntityManagerFactoryBuilder} object.
      * @return {@link LocalContainerEntityManagerFactoryBean} object.
      */
     @Bean
     @Primary
     public LocalContainerEntityManagerFactoryBean fileReaderEM(EntityManagerFactoryBuilder builder) {
-        return builder.dataSource(dataSource()).packages(ENTITY_PKG).persistenceUnit(PERSISTENCE_UNIT).build();
+        return builder.dataSource(dataSource()).packages(ENTITY_PKG).persistenceUnit(PERSISTENCE_UNIT)
+                .properties(Map.of(AvailableSettings.PREFERRED_UUID_JDBC_TYPE,
+                        databaseProperties.isBinaryIds() ? "BINARY" : "CHAR"))
+                .build();
     }
 
     /**
@@ -80,4 +115,20 @@ public class DatabaseConfiguration {
         transactionManager.setEntityManagerFactory(fileReaderEM(builder).getObject());
         return transactionManager;
     }
+
+    /**
+     * The fileReaderWriterTM method is used to create the JpaTransactionManager object of the writers which the
+     * BisectingItemWriter wraps. They only join the chunk transaction, and a failed write does not mark it
+     * rollback-only, so the BisectingItemWriter can roll back to a savepoint and go on; the step still rolls back
+     * the chunk when the exception reaches it.
+     * @param builder {@link EntityManagerFactoryBuilder} object.
+     * @return {@link PlatformTransactionManager} object.
+     */
+    @Bean(WRITER_TM)
+    public PlatformTransactionManager fileReaderWriterTM(EntityManagerFactoryBuilder builder) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        transactionManager.setEntityManagerFactory(fileReaderEM(builder).getObject());
+        transactionManager.setGlobalRollbackOnParticipationFailure(false);
+        return transactionManager;
+    }
 }
@@ -1,36 +1,98 @@
 package com.filereader.app.config;
 
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.DefaultJobKeyGenerator;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobKeyGenerator;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
-import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.batch.item.ExecutionContext;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 /**
  * InMemoryJobRepository class is used to store the job execution details in memory.
+ * Job instances are indexed by job name and identifying parameters, step executions and execution contexts are
+ * kept per job execution so a failed job can be restarted from its last committed chunk, and only the most recent
+ * job instances are retained. With a {@link JobRepositoryLog} every change is also appended to a file, which is
+ * replayed at startup so a job interrupted by a shutdown can be restarted as well.
  */
 public class InMemoryJobRepository implements JobRepository {
 
-    /** The jobInstanceMap is used to store the job instance details. **/
-    private final Map<Long, JobInstance> jobInstanceMap = new ConcurrentHashMap<>();
+    private static final String TYPE = "type";
+    private static final String INSTANCE = "instance";
+    private static final String JOB_EXECUTION = "jobExecution";
+    private static final String STEP_EXECUTION = "stepExecution";
+    private static final String DELETED_INSTANCE = "deletedInstance";
 
-    /** The jobExecutionMap is used to store the job execution details. **/
-    private final Map<Long, JobExecution> jobExecutionMap = new ConcurrentHashMap<>();
+    /** The jobInstanceMap is used to store the job instance details, oldest first. **/
+    private final Map<Long, JobInstance> jobInstanceMap = new LinkedHashMap<>();
 
-    /** The transactionManager is used to manage the transaction. **/
-    private final PlatformTransactionManager transactionManager = new ResourcelessTransactionManager();
+    /** The jobInstanceIndex is used to find the job instance by job name and identifying parameters. **/
+    private final Map<String, JobInstance> jobInstanceIndex = new HashMap<>();
 
-    /** The transactionTemplate is used to execute the transaction. **/
-    private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    /** The jobInstanceKeys is used to find the index key of a job instance. **/
+    private final Map<Long, String> jobInstanceKeys = new HashMap<>();
+
+    /** The jobExecutionMap is used to store the job executions of each job instance, oldest first. **/
+    private final Map<Long, List<JobExecution>> jobExecutionMap = new HashMap<>();
+
+    /** The jobExecutionIndex is used to find the job execution by id. **/
+    private final Map<Long, JobExecution> jobExecutionIndex = new HashMap<>();
+
+    /** The executionContextMap is used to store the committed execution context of each job and step execution. **/
+    private final Map<String, ExecutionContext> executionContextMap = new HashMap<>();
+
+    private final JobKeyGenerator<JobParameters> jobKeyGenerator = new DefaultJobKeyGenerator();
+    private final AtomicLong jobInstanceId = new AtomicLong();
+    private final AtomicLong jobExecutionId = new AtomicLong();
+    private final AtomicLong stepExecutionId = new AtomicLong();
+
+    /** The maximum number of job instances to retain. **/
+    private final int maxJobInstances;
+
+    /** The log is used to persist the changes, null if disabled. **/
+    private final JobRepositoryLog log;
+
+    /**
+     * The InMemoryJobRepository constructor is used to create a repository which is not persisted.
+     * @param maxJobInstances an {@link int} value.
+     */
+    public InMemoryJobRepository(int maxJobInstances) {
+        this(maxJobInstances, null);
+    }
+
+    /**
+     * The InMemoryJobRepository constructor is used to create a repository which replays and appends to the log.
+     * @param maxJobInstances an {@link int} value.
+     * @param log a {@link JobRepositoryLog} object, null to keep the details in memory only.
+     */
+    public InMemoryJobRepository(int maxJobInstances, JobRepositoryLog log) {
+        this.maxJobInstances = maxJobInstances;
+        this.log = log;
+        if (log != null) {
+            log.replay(this::apply);
+            abandonInterruptedExecutions();
+            evict(maxJobInstances);
+            log.rewrite(snapshot());
+        }
+    }
 
     /**
      * The isJobInstanceExists method is used to check whether the job instance exists or not.
@@ -39,9 +101,19 @@ public class InMemoryJobRepository implements JobRepository {
      * @return a {@link boolean} value.
      */
     @Override
-    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
-        return this.jobInstanceMap.values().stream()
-                .anyMatch(jobInstance -> jobInstance.getJobName().equals(jobName));
+    public synchronized boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return jobInstanceIndex.containsKey(key(jobName, jobParameters));
+    }
+
+    /**
+     * The getJobInstance method is used to find the job instance by job name and identifying parameters.
+     * @param jobName a {@link String} object.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link JobInstance} object, null if not found.
+     */
+    @Override
+    public synchronized JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return jobInstanceIndex.get(key(jobName, jobParameters));
     }
 
     /**
@@ -51,14 +123,21 @@ public class InMemoryJobRepository implements JobRepository {
      * @return a {@link JobInstance} object.
      */
     @Override
-    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
-        JobInstance jobInstance = new JobInstance(System.currentTimeMillis(), jobName);
-        jobInstanceMap.put(jobInstance.getId(), jobInstance);
+    public synchronized JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        String key = key(jobName, jobParameters);
+        if (jobInstanceIndex.containsKey(key)) {
+            throw new IllegalStateException("JobInstance must not already exist for job: " + jobName);
+        }
+        evict(maxJobInstances - 1);
+        JobInstance jobInstance = new JobInstance(jobInstanceId.incrementAndGet(), jobName);
+        addJobInstance(jobInstance, key);
+        append(record(jobInstance, key));
         return jobInstance;
     }
 
     /**
-     * The createJobExecution method is used to create the job execution.
+     * The createJobExecution method is used to create the job execution, creating the job instance if it does not
+     * exist yet. The execution of an existing job instance starts with the execution context of the last one.
      * @param jobName a {@link String} object.
      * @param jobParameters a {@link JobParameters} object.
      * @return a {@link JobExecution} object.
@@ -67,14 +146,39 @@ public class InMemoryJobRepository implements JobRepository {
      * @throws JobInstanceAlreadyCompleteException if the job instance is already completed.
      */
     @Override
-    public JobExecution createJobExecution(String jobName, JobParameters jobParameters) throws JobExecutionAlreadyRunningException,
+    public synchronized JobExecution createJobExecution(String jobName, JobParameters jobParameters) throws JobExecutionAlreadyRunningException,
             JobRestartException, JobInstanceAlreadyCompleteException {
-        JobInstance jobInstance = jobInstanceMap.values().stream()
-                .filter(ji -> ji.getJobName().equals(jobName))
-                .findFirst()
-                .orElse(createJobInstance(jobName, jobParameters));
-        JobExecution jobExecution = new JobExecution(jobInstance, System.currentTimeMillis(), jobParameters);
-        jobExecutionMap.put(jobExecution.getId(), jobExecution);
+        JobInstance jobInstance = getJobInstance(jobName, jobParameters);
+        ExecutionContext executionContext;
+        if (jobInstance != null) {
+            List<JobExecution> executions = jobExecutionMap.getOrDefault(jobInstance.getId(), List.of());
+            for (JobExecution execution : executions) {
+                if (execution.isRunning()) {
+                    throw new JobExecutionAlreadyRunningException("A job execution for this job is already running: " + jobInstance);
+                }
+                BatchStatus status = execution.getStatus();
+                if (status == BatchStatus.UNKNOWN) {
+                    throw new JobRestartException("Cannot restart job from UNKNOWN status: " + jobInstance);
+                }
+                if (!execution.getJobParameters().getIdentifyingParameters().isEmpty()
+                        && (status == BatchStatus.COMPLETED || status == BatchStatus.ABANDONED)) {
+                    throw new JobInstanceAlreadyCompleteException("A job instance already exists and is complete for "
+                            + "identifying parameters=" + jobParameters + ". If you want to run this job again, change the parameters.");
+                }
+            }
+            executionContext = executions.isEmpty() ? new ExecutionContext()
+                    : copyContext(jobContextKey(executions.get(executions.size() - 1).getId()));
+        } else {
+            jobInstance = createJobInstance(jobName, jobParameters);
+            executionContext = new ExecutionContext();
+        }
+        JobExecution jobExecution = new JobExecution(jobInstance, jobExecutionId.incrementAndGet(), jobParameters);
+        jobExecution.setExecutionContext(executionContext);
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecutionMap.computeIfAbsent(jobInstance.getId(), id -> new ArrayList<>()).add(jobExecution);
+        jobExecutionIndex.put(jobExecution.getId(), jobExecution);
+        executionContextMap.put(jobContextKey(jobExecution.getId()), new ExecutionContext(executionContext));
+        append(record(jobExecution));
         return jobExecution;
     }
 
@@ -83,38 +187,88 @@ public class InMemoryJobRepository implements JobRepository {
      * @param jobExecution a {@link JobExecution} object.
      */
     @Override
-    public void update(JobExecution jobExecution) {
-        jobExecutionMap.putIfAbsent(jobExecution.getId(), jobExecution);
+    public synchronized void update(JobExecution jobExecution) {
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecution.incrementVersion();
+        append(record(jobExecution));
     }
 
+    /**
+     * The add method is used to store a new step execution.
+     * @param stepExecution a {@link StepExecution} object.
+     */
     @Override
-    public void add(StepExecution stepExecution) {
+    public synchronized void add(StepExecution stepExecution) {
+        stepExecution.setId(stepExecutionId.incrementAndGet());
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        executionContextMap.put(stepContextKey(stepExecution.getId()), new ExecutionContext(stepExecution.getExecutionContext()));
+        append(record(stepExecution));
     }
 
+    /**
+     * The addAll method is used to store new step executions.
+     * @param stepExecutions a {@link Collection} of {@link StepExecution} objects.
+     */
     @Override
-    public void addAll(Collection<StepExecution> stepExecutions) {
+    public synchronized void addAll(Collection<StepExecution> stepExecutions) {
+        stepExecutions.forEach(this::add);
     }
 
+    /**
+     * The update method is used to update the step execution.
+     * @param stepExecution a {@link StepExecution} object.
+     */
     @Override
-    public void update(StepExecution stepExecution) {
+    public synchronized void update(StepExecution stepExecution) {
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        stepExecution.incrementVersion();
+        append(record(stepExecution));
     }
 
+    /**
+     * The updateExecutionContext method is used to store the execution context committed with the last chunk.
+     * @param stepExecution a {@link StepExecution} object.
+     */
     @Override
-    public void updateExecutionContext(StepExecution stepExecution) {
+    public synchronized void updateExecutionContext(StepExecution stepExecution) {
+        executionContextMap.put(stepContextKey(stepExecution.getId()), new ExecutionContext(stepExecution.getExecutionContext()));
+        append(record(stepExecution));
     }
 
+    /**
+     * The updateExecutionContext method is used to store the execution context of the job execution.
+     * @param jobExecution a {@link JobExecution} object.
+     */
     @Override
-    public void updateExecutionContext(JobExecution jobExecution) {
+    public synchronized void updateExecutionContext(JobExecution jobExecution) {
+        executionContextMap.put(jobContextKey(jobExecution.getId()), new ExecutionContext(jobExecution.getExecutionContext()));
+        append(record(jobExecution));
     }
 
+    /**
+     * The getLastStepExecution method is used to get a copy of the last step execution of the job instance,
+     * holding the execution context of its last committed chunk.
+     * @param jobInstance a {@link JobInstance} object.
+     * @param stepName a {@link String} object.
+     * @return a {@link StepExecution} object, null if the step was never executed.
+     */
     @Override
-    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
-        return null;
+    public synchronized StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return stepExecutions(jobInstance, stepName).stream()
+                .max(Comparator.comparing(StepExecution::getCreateTime).thenComparing(StepExecution::getId))
+                .map(this::copy)
+                .orElse(null);
     }
 
+    /**
+     * The getStepExecutionCount method is used to count the executions of the step in the job instance.
+     * @param jobInstance a {@link JobInstance} object.
+     * @param stepName a {@link String} object.
+     * @return a {@link long} value.
+     */
     @Override
-    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
-        return 0;
+    public synchronized long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return stepExecutions(jobInstance, stepName).size();
     }
 
     /**
@@ -124,14 +278,351 @@ public class InMemoryJobRepository implements JobRepository {
      * @return a {@link JobExecution} object.
      */
     @Override
-    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
-        JobInstance jobInstance = jobInstanceMap.values().stream()
+    public synchronized JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        JobInstance jobInstance = getJobInstance(jobName, jobParameters);
+        if (jobInstance == null) {
+            return null;
+        }
+        List<JobExecution> executions = jobExecutionMap.getOrDefault(jobInstance.getId(), List.of());
+        return executions.isEmpty() ? null : executions.get(executions.size() - 1);
+    }
+
+    /**
+     * The getJobNames method is used to get the names of the retained job instances.
+     * @return a {@link List} of {@link String} objects.
+     */
+    @Override
+    public synchronized List<String> getJobNames() {
+        return jobInstanceMap.values().stream().map(JobInstance::getJobName).distinct().sorted().toList();
+    }
+
+    /**
+     * The findJobInstancesByName method is used to get a page of the job instances of the job, newest first.
+     * @param jobName a {@link String} object.
+     * @param start an {@link int} value.
+     * @param count an {@link int} value.
+     * @return a {@link List} of {@link JobInstance} objects.
+     */
+    @Override
+    public synchronized List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        List<JobInstance> instances = new ArrayList<>(jobInstanceMap.values().stream()
                 .filter(instance -> instance.getJobName().equals(jobName))
-                .findFirst()
-                .orElse(null);
-        return jobExecutionMap.values().stream()
-                .filter(execution -> execution.getJobInstance().equals(jobInstance))
-                .reduce((first, second) -> second)
-                .orElse(null);
+                .toList());
+        Collections.reverse(instances);
+        return instances.stream().skip(start).limit(count).toList();
+    }
+
+    /**
+     * The findJobExecutions method is used to get the job executions of the job instance, newest first.
+     * @param jobInstance a {@link JobInstance} object.
+     * @return a {@link List} of {@link JobExecution} objects.
+     */
+    @Override
+    public synchronized List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        List<JobExecution> executions = new ArrayList<>(jobExecutionMap.getOrDefault(jobInstance.getId(), List.of()));
+        Collections.reverse(executions);
+        return executions;
+    }
+
+    /**
+     * The deleteJobInstance method is used to remove the job instance with its executions. The deletion is logged,
+     * so the job instance does not come back when the log is replayed.
+     * @param jobInstance a {@link JobInstance} object.
+     */
+    @Override
+    public synchronized void deleteJobInstance(JobInstance jobInstance) {
+        removeJobInstance(jobInstance.getId());
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put(TYPE, DELETED_INSTANCE);
+        record.put("id", jobInstance.getId());
+        append(record);
+    }
+
+    private void removeJobInstance(long jobInstanceId) {
+        jobInstanceMap.remove(jobInstanceId);
+        String key = jobInstanceKeys.remove(jobInstanceId);
+        if (key != null) {
+            jobInstanceIndex.remove(key);
+        }
+        List<JobExecution> executions = jobExecutionMap.remove(jobInstanceId);
+        if (executions != null) {
+            for (JobExecution execution : executions) {
+                jobExecutionIndex.remove(execution.getId());
+                executionContextMap.remove(jobContextKey(execution.getId()));
+                execution.getStepExecutions().forEach(step -> executionContextMap.remove(stepContextKey(step.getId())));
+            }
+        }
+    }
+
+    private List<StepExecution> stepExecutions(JobInstance jobInstance, String stepName) {
+        List<StepExecution> stepExecutions = new ArrayList<>();
+        for (JobExecution execution : jobExecutionMap.getOrDefault(jobInstance.getId(), List.of())) {
+            for (StepExecution stepExecution : execution.getStepExecutions()) {
+                if (stepExecution.getStepName().equals(stepName) && stepExecution.getId() != null) {
+                    stepExecutions.add(stepExecution);
+                }
+            }
+        }
+        return stepExecutions;
+    }
+
+    /**
+     * The copy method is used to detach a step execution from the running one, so a restarted step does not share
+     * its execution context.
+     * @param stepExecution a {@link StepExecution} object.
+     * @return a {@link StepExecution} object.
+     */
+    private StepExecution copy(StepExecution stepExecution) {
+        StepExecution copy = new StepExecution(stepExecution.getStepName(), stepExecution.getJobExecution(), stepExecution.getId());
+        copy.setVersion(stepExecution.getVersion());
+        copy.setStatus(stepExecution.getStatus());
+        copy.setExitStatus(stepExecution.getExitStatus());
+        copy.setReadCount(stepExecution.getReadCount());
+        copy.setWriteCount(stepExecution.getWriteCount());
+        copy.setCommitCount(stepExecution.getCommitCount());
+        copy.setRollbackCount(stepExecution.getRollbackCount());
+        copy.setFilterCount(stepExecution.getFilterCount());
+        copy.setReadSkipCount(stepExecution.getReadSkipCount());
+        copy.setWriteSkipCount(stepExecution.getWriteSkipCount());
+        copy.setProcessSkipCount(stepExecution.getProcessSkipCount());
+        copy.setCreateTime(stepExecution.getCreateTime());
+        copy.setStartTime(stepExecution.getStartTime());
+        copy.setEndTime(stepExecution.getEndTime());
+        copy.setLastUpdated(stepExecution.getLastUpdated());
+        copy.setExecutionContext(copyContext(stepContextKey(stepExecution.getId())));
+        return copy;
+    }
+
+    private ExecutionContext copyContext(String key) {
+        ExecutionContext context = executionContextMap.get(key);
+        return context == null ? new ExecutionContext() : new ExecutionContext(context);
+    }
+
+    private void addJobInstance(JobInstance jobInstance, String key) {
+        jobInstanceMap.put(jobInstance.getId(), jobInstance);
+        jobInstanceIndex.put(key, jobInstance);
+        jobInstanceKeys.put(jobInstance.getId(), key);
+    }
+
+    /**
+     * The evict method is used to remove the oldest job instances which are not running, above the limit.
+     * @param limit an {@link int} value.
+     */
+    private void evict(int limit) {
+        Iterator<JobInstance> iterator = new ArrayList<>(jobInstanceMap.values()).iterator();
+        int excess = jobInstanceMap.size() - limit;
+        while (excess > 0 && iterator.hasNext()) {
+            JobInstance jobInstance = iterator.next();
+            boolean running = jobExecutionMap.getOrDefault(jobInstance.getId(), List.of()).stream().anyMatch(JobExecution::isRunning);
+            if (!running) {
+                deleteJobInstance(jobInstance);
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * The abandonInterruptedExecutions method is used to fail the executions which were running when the process
+     * stopped, so they can be restarted.
+     */
+    private void abandonInterruptedExecutions() {
+        LocalDateTime now = LocalDateTime.now();
+        for (List<JobExecution> executions : jobExecutionMap.values()) {
+            for (JobExecution execution : executions) {
+                for (StepExecution stepExecution : execution.getStepExecutions()) {
+                    if (stepExecution.getStatus().isRunning()) {
+                        stepExecution.setStatus(BatchStatus.FAILED);
+                        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted by shutdown"));
+                        stepExecution.setEndTime(now);
+                    }
+                }
+                if (execution.isRunning()) {
+                    execution.setStatus(BatchStatus.FAILED);
+                    execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted by shutdown"));
+                    execution.setEndTime(now);
+                }
+            }
+        }
+    }
+
+    private String key(String jobName, JobParameters jobParameters) {
+        return jobName + "|" + jobKeyGenerator.generateKey(jobParameters);
+    }
+
+    private static String jobContextKey(Long jobExecutionId) {
+        return "job#" + jobExecutionId;
+    }
+
+    private static String stepContextKey(Long stepExecutionId) {
+        return "step#" + stepExecutionId;
+    }
+
+    private void append(Map<String, Object> record) {
+        if (log != null && log.append(record)) {
+            log.rewrite(snapshot());
+        }
+    }
+
+    /**
+     * The snapshot method is used to build the records of the retained entities, which replace the log on compaction.
+     * @return a {@link List} of records.
+     */
+    private List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (JobInstance jobInstance : jobInstanceMap.values()) {
+            records.add(record(jobInstance, jobInstanceKeys.get(jobInstance.getId())));
+            for (JobExecution execution : jobExecutionMap.getOrDefault(jobInstance.getId(), List.of())) {
+                records.add(record(execution));
+                for (StepExecution stepExecution : execution.getStepExecutions()) {
+                    if (stepExecution.getId() != null) {
+                        records.add(record(stepExecution));
+                    }
+                }
+            }
+        }
+        return records;
+    }
+
+    private Map<String, Object> record(JobInstance jobInstance, String key) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put(TYPE, INSTANCE);
+        record.put("id", jobInstance.getId());
+        record.put("jobName", jobInstance.getJobName());
+        record.put("key", key);
+        return record;
+    }
+
+    private Map<String, Object> record(JobExecution jobExecution) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put(TYPE, JOB_EXECUTION);
+        record.put("id", jobExecution.getId());
+        record.put("instanceId", jobExecution.getJobId());
+        record.put("parameters", log != null ? log.encode(jobExecution.getJobParameters()) : null);
+        putStatus(record, jobExecution.getStatus(), jobExecution.getExitStatus());
+        record.put("createTime", toString(jobExecution.getCreateTime()));
+        record.put("startTime", toString(jobExecution.getStartTime()));
+        record.put("endTime", toString(jobExecution.getEndTime()));
+        record.put("context", log != null ? log.encode(copyContext(jobContextKey(jobExecution.getId()))) : null);
+        return record;
+    }
+
+    private Map<String, Object> record(StepExecution stepExecution) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put(TYPE, STEP_EXECUTION);
+        record.put("id", stepExecution.getId());
+        record.put("jobExecutionId", stepExecution.getJobExecutionId());
+        record.put("stepName", stepExecution.getStepName());
+        putStatus(record, stepExecution.getStatus(), stepExecution.getExitStatus());
+        record.put("readCount", stepExecution.getReadCount());
+        record.put("writeCount", stepExecution.getWriteCount());
+        record.put("commitCount", stepExecution.getCommitCount());
+        record.put("rollbackCount", stepExecution.getRollbackCount());
+        record.put("filterCount", stepExecution.getFilterCount());
+        record.put("readSkipCount", stepExecution.getReadSkipCount());
+        record.put("writeSkipCount", stepExecution.getWriteSkipCount());
+        record.put("processSkipCount", stepExecution.getProcessSkipCount());
+        record.put("createTime", toString(stepExecution.getCreateTime()));
+        record.put("startTime", toString(stepExecution.getStartTime()));
+        record.put("endTime", toString(stepExecution.getEndTime()));
+        record.put("context", log != null ? log.encode(copyContext(stepContextKey(stepExecution.getId()))) : null);
+        return record;
+    }
+
+    private void putStatus(Map<String, Object> record, BatchStatus status, ExitStatus exitStatus) {
+        record.put("status", status.name());
+        record.put("exitCode", exitStatus.getExitCode());
+        record.put("exitDescription", exitStatus.getExitDescription());
+    }
+
+    /**
+     * The apply method is used to rebuild the entities from a record of the log, the latest record winning.
+     * @param record a {@link Map} object.
+     */
+    private void apply(Map<String, Object> record) {
+        long id = ((Number) record.get("id")).longValue();
+        switch (String.valueOf(record.get(TYPE))) {
+            case INSTANCE -> {
+                addJobInstance(new JobInstance(id, (String) record.get("jobName")), (String) record.get("key"));
+                jobInstanceId.accumulateAndGet(id, Math::max);
+            }
+            case JOB_EXECUTION -> applyJobExecution(id, record);
+            case STEP_EXECUTION -> applyStepExecution(id, record);
+            case DELETED_INSTANCE -> removeJobInstance(id);
+            default -> System.err.println("Skipping unknown job repository record: " + record.get(TYPE));
+        }
+    }
+
+    private void applyJobExecution(long id, Map<String, Object> record) {
+        JobInstance jobInstance = jobInstanceMap.get(((Number) record.get("instanceId")).longValue());
+        if (jobInstance == null) {
+            return;
+        }
+        JobExecution execution = jobExecutionIndex.get(id);
+        if (execution == null) {
+            execution = new JobExecution(jobInstance, id, log.decodeParameters((Map<?, ?>) record.get("parameters")));
+            jobExecutionMap.computeIfAbsent(jobInstance.getId(), key -> new ArrayList<>()).add(execution);
+            jobExecutionIndex.put(id, execution);
+        }
+        execution.setStatus(BatchStatus.valueOf((String) record.get("status")));
+        execution.setExitStatus(new ExitStatus((String) record.get("exitCode"), (String) record.get("exitDescription")));
+        execution.setCreateTime(toTime(record.get("createTime")));
+        execution.setStartTime(toTime(record.get("startTime")));
+        execution.setEndTime(toTime(record.get("endTime")));
+        ExecutionContext context = log.decodeContext((String) record.get("context"));
+        execution.setExecutionContext(context);
+        executionContextMap.put(jobContextKey(id), new ExecutionContext(context));
+        jobExecutionId.accumulateAndGet(id, Math::max);
+    }
+
+    private void applyStepExecution(long id, Map<String, Object> record) {
+        JobExecution execution = jobExecutionIndex.get(((Number) record.get("jobExecutionId")).longValue());
+        if (execution == null) {
+            return;
+        }
+        StepExecution stepExecution = execution.getStepExecutions().stream()
+                .filter(step -> step.getId() == id).findFirst().orElse(null);
+        if (stepExecution == null) {
+            stepExecution = new StepExecution((String) record.get("stepName"), execution, id);
+            execution.addStepExecutions(List.of(stepExecution));
+        }
+        stepExecution.setStatus(BatchStatus.valueOf((String) record.get("status")));
+        stepExecution.setExitStatus(new ExitStatus((String) record.get("exitCode"), (String) record.get("exitDescription")));
+        stepExecution.setReadCount(toLong(record.get("readCount")));
+        stepExecution.setWriteCount(toLong(record.get("writeCount")));
+        stepExecution.setCommitCount(toLong(record.get("commitCount")));
+        stepExecution.setRollbackCount(toLong(record.get("rollbackCount")));
+        stepExecution.setFilterCount(toLong(record.get("filterCount")));
+        stepExecution.setReadSkipCount(toLong(record.get("readSkipCount")));
+        stepExecution.setWriteSkipCount(toLong(record.get("writeSkipCount")));
+        stepExecution.setProcessSkipCount(toLong(record.get("processSkipCount")));
+        stepExecution.setCreateTime(toTime(record.get("createTime")));
+        stepExecution.setStartTime(toTime(record.get("startTime")));
+        stepExecution.setEndTime(toTime(record.get("endTime")));
+        ExecutionContext context = log.decodeContext((String) record.get("context"));
+        stepExecution.setExecutionContext(context);
+        executionContextMap.put(stepContextKey(id), new ExecutionContext(context));
+        stepExecutionId.accumulateAndGet(id, Math::max);
+    }
+
+    private static String toString(LocalDateTime time) {
+        return time == null ? null : time.toString();
+    }
+
+    private static LocalDateTime toTime(Object value) {
+        return value == null ? null : LocalDateTime.parse((String) value);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    /**
+     * The close method is used to close the log, if any.
+     * @throws IOException an {@link IOException} object.
+     */
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
     }
 }
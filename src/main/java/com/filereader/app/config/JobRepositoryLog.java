@@ -0,0 +1,194 @@
+package com.filereader.app.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.converter.DefaultJobParametersConverter;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * JobRepositoryLog class is used to persist the records of the {@link InMemoryJobRepository} in an append-only
+ * file with one JSON record per line. The latest record of an entity wins on replay, a deleted job instance is
+ * recorded too so it is dropped on replay, and the file is rewritten with the live records only once it grows past
+ * the compaction threshold.
+ */
+public class JobRepositoryLog {
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+
+    private final Path path;
+    private final int compactThreshold;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Jackson2ExecutionContextStringSerializer contextSerializer = new Jackson2ExecutionContextStringSerializer();
+    private final DefaultJobParametersConverter parametersConverter = new DefaultJobParametersConverter();
+
+    private BufferedWriter writer;
+
+    /** The number of records appended since the file was last rewritten. **/
+    private long appended;
+
+    /**
+     * The JobRepositoryLog constructor is used to initialize the JobRepositoryLog object.
+     * @param path a {@link String} object, the log file.
+     * @param compactThreshold an {@link int} value, the number of appended records after which the log is compacted.
+     */
+    public JobRepositoryLog(String path, int compactThreshold) {
+        this.path = Paths.get(path);
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * The replay method is used to pass every record of the log file, in order, to the consumer.
+     * @param consumer a {@link Consumer} object.
+     */
+    public synchronized void replay(Consumer<Map<String, Object>> consumer) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    consumer.accept(objectMapper.readValue(line, RECORD_TYPE));
+                } catch (IOException e) {
+                    // A record which was partially written when the process died is ignored.
+                    System.err.println("Skipping unreadable job repository record: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay job repository log: " + path, e);
+        }
+    }
+
+    /**
+     * The append method is used to append a record to the log file.
+     * @param record a {@link Map} object.
+     * @return a {@link boolean} value, true when the log should be compacted.
+     */
+    public synchronized boolean append(Map<String, Object> record) {
+        try {
+            if (writer == null) {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write job repository log: " + path, e);
+        }
+        return ++appended >= compactThreshold;
+    }
+
+    /**
+     * The rewrite method is used to replace the log file with the given live records.
+     * @param records a {@link Collection} of records.
+     */
+    public synchronized void rewrite(Collection<Map<String, Object>> records) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            close();
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map<String, Object> record : records) {
+                    out.write(objectMapper.writeValueAsString(record));
+                    out.newLine();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appended = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact job repository log: " + path, e);
+        }
+    }
+
+    /**
+     * The close method is used to close the log file.
+     * @throws IOException an {@link IOException} object.
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * The encode method is used to serialize an execution context.
+     * @param context a {@link ExecutionContext} object.
+     * @return a {@link String} object.
+     */
+    public String encode(ExecutionContext context) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            contextSerializer.serialize(new HashMap<>(context.toMap()), out);
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize execution context", e);
+        }
+    }
+
+    /**
+     * The decodeContext method is used to deserialize an execution context.
+     * @param value a {@link String} object.
+     * @return a {@link ExecutionContext} object.
+     */
+    public ExecutionContext decodeContext(String value) {
+        if (value == null || value.isEmpty()) {
+            return new ExecutionContext();
+        }
+        try {
+            return new ExecutionContext(contextSerializer.deserialize(new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize execution context", e);
+        }
+    }
+
+    /**
+     * The encode method is used to convert job parameters to strings.
+     * @param parameters a {@link JobParameters} object.
+     * @return a {@link Properties} object.
+     */
+    public Properties encode(JobParameters parameters) {
+        return parametersConverter.getProperties(parameters);
+    }
+
+    /**
+     * The decodeParameters method is used to convert strings back to job parameters.
+     * @param properties a {@link Map} object.
+     * @return a {@link JobParameters} object.
+     */
+    public JobParameters decodeParameters(Map<?, ?> properties) {
+        Properties values = new Properties();
+        if (properties != null) {
+            properties.forEach((key, value) -> values.setProperty(String.valueOf(key), String.valueOf(value)));
+        }
+        return parametersConverter.getJobParameters(values);
+    }
+}
@@ -0,0 +1,38 @@
+package com.filereader.app.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ArchiveProperties class is used to read the properties from the application.yml file or from environment variables
+ * which are related to the archiving of the processed S3 objects.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.aws.s3.archive")
+public class ArchiveProperties {
+
+    /** The file holding the pending archive moves, empty keeps them in memory only. **/
+    private String queueFile;
+
+    /** The number of objects archived in parallel. **/
+    private int workers = 2;
+
+    /** The objects larger than this are copied with a multipart upload. **/
+    private long multipartThreshold = 100L * 1024 * 1024;
+
+    /** The size of a copied part, at least 5 MB. **/
+    private long partSize = 64L * 1024 * 1024;
+
+    /** The number of parts copied in parallel. **/
+    private int partConcurrency = 8;
+
+    /** The number of attempts of an archive move before it is left in the queue until the next start. **/
+    private int maxAttempts = 10;
+
+    /** The delay before the first retry, doubled on every following retry up to maxRetryDelayMillis. **/
+    private long retryDelayMillis = 1000;
+
+    private long maxRetryDelayMillis = 60000;
+}
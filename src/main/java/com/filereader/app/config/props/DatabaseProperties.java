@@ -20,4 +20,7 @@ public class DatabaseProperties {
     private int maxActive;
     private String validationQuery;
     private int minIdle;
+    private boolean rewriteBatchedStatements = true;
+    private boolean allowLoadLocalInfile;
+    private boolean binaryIds;
 }
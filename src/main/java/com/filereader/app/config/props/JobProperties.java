@@ -0,0 +1,196 @@
+package com.filereader.app.config.props;
+
+import lombok.Data;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * JobProperties class is used to read the properties from the application.yml file or from environment variables
+ * which are related to the file processing job.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.file.job")
+public class JobProperties {
+
+    /** The partition properties are used to configure the partitioned file processing step. **/
+    private Partition partition = new Partition();
+
+    /** The reader properties are used to select the reader of local files. **/
+    private Reader reader = new Reader();
+
+    /** The writer properties are used to select the writer of the records. **/
+    private Writer writer = new Writer();
+
+    /** The chunk properties are used to configure the commit interval of the step. **/
+    private Chunk chunk = new Chunk();
+
+    /** The repository properties are used to configure the retention and the log of the job repository. **/
+    private Repository repository = new Repository();
+
+    /** The metrics properties are used to configure the meters published for every step. **/
+    private Metrics metrics = new Metrics();
+
+    /** The registry properties are used to configure the registry of the loaded files. **/
+    private Registry registry = new Registry();
+
+    /** The skip properties are used to configure which records are skipped instead of failing the step. **/
+    private Skip skip = new Skip();
+
+    /** The coalesce properties are used to load many small files with a single job. **/
+    private Coalesce coalesce = new Coalesce();
+
+    /**
+     * Coalesce class holds the properties of the coalesced jobs. The files up to maxFileBytes which are queued, or
+     * which arrive within windowMillis, are loaded by one job, up to maxFiles files and maxBytes bytes per job.
+     */
+    @Data
+    public static class Coalesce {
+        private boolean enabled;
+        private int maxFiles = 500;
+        private long maxBytes = 64 * 1024 * 1024;
+        private long maxFileBytes = 1024 * 1024;
+        private long windowMillis = 1000;
+    }
+
+    /**
+     * Skip class holds the properties of the skip policy. Up to limit records failing with one of the skippable
+     * exceptions, or a subclass, are skipped and written to the quarantine file, 0 to fail on the first one. The
+     * default keeps the step failing fast; rows rejected by the database are skippable once their exception is added.
+     */
+    @Data
+    public static class Skip {
+        private long limit = 0;
+        private List<Class<? extends Throwable>> skippable = List.of(FlatFileParseException.class,
+                IllegalArgumentException.class);
+    }
+
+    /**
+     * Partition class holds the properties of the partitioned step, which splits the input file into byte ranges.
+     */
+    @Data
+    public static class Partition {
+        private boolean enabled;
+        private int gridSize = Runtime.getRuntime().availableProcessors();
+        private int threadPoolSize = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Chunk class holds the properties of the commit interval, which can be overridden per job with the
+     * chunkSize job parameter.
+     */
+    @Data
+    public static class Chunk {
+        private int size = 10;
+        private boolean adaptive;
+        private int minSize = 10;
+        private int maxSize = 10000;
+        private long maxCommitMillis = 2000;
+    }
+
+    /**
+     * Repository class holds the properties of the job repository. The log is disabled when no log file is set.
+     */
+    @Data
+    public static class Repository {
+        private int maxJobInstances = 1000;
+        private String logFile;
+        private int compactThreshold = 100000;
+    }
+
+    /**
+     * Registry class holds the properties of the registry of the loaded files. The registry is kept in memory
+     * only when no store file is set.
+     */
+    @Data
+    public static class Registry {
+        private boolean enabled = true;
+        private String storeFile;
+    }
+
+    /**
+     * Metrics class holds the properties of the step meters. Tagging with the file gives meters per file, which
+     * may be too many for some monitoring systems.
+     */
+    @Data
+    public static class Metrics {
+        private boolean fileTag = true;
+    }
+
+    /**
+     * Reader class holds the properties of the reader used for local files and of the S3 object reads. The prefetch
+     * is the number of items read ahead of the step on a separate thread, 0 to read on the step thread. It is off by
+     * default as the read-ahead captures the state of the reader after every item.
+     */
+    @Data
+    public static class Reader {
+        private ReaderType type = ReaderType.MAPPED;
+        private int mapSize = 64 * 1024 * 1024;
+        private int prefetch = 0;
+        private S3 s3 = new S3();
+        private Decompression decompression = new Decompression();
+    }
+
+    /**
+     * Decompression class holds the properties of the read-ahead of compressed input. The input is decompressed
+     * on its own thread into the given number of buffers, 0 to decompress on the step thread.
+     */
+    @Data
+    public static class Decompression {
+        private int readAheadBuffers = 4;
+        private int bufferSize = 1024 * 1024;
+    }
+
+    /**
+     * S3 class holds the properties of the ranged reads of S3 objects. An object larger than one part is read
+     * with concurrent byte-range GETs when ranged reads are enabled.
+     */
+    @Data
+    public static class S3 {
+        private boolean ranged;
+        private int partSize = 8 * 1024 * 1024;
+        private int concurrency = 8;
+        private int maxRetries = 3;
+    }
+
+    /**
+     * ReaderType enum lists the readers available for local files.
+     */
+    public enum ReaderType {
+        /** FlatFileItemReader with the CustomLineMapper, a restart reads the committed lines again; the byte ranges of partitions and followed files are read by the ByteRangeItemReader. **/
+        FLAT,
+        /** ByteRangeItemReader over the whole file with the CustomLineMapper, a restart seeks to the saved offset. **/
+        BYTE_RANGE,
+        /** MappedFileItemReader scanning the memory-mapped file. **/
+        MAPPED
+    }
+
+    /**
+     * Writer class holds the properties of the writer of the records. The natural key is used by the upsert writer.
+     * With bisect, a chunk which the jdbc, load-data or upsert writer fails to write is split in halves to locate
+     * the bad records, instead of being written again one record per transaction.
+     */
+    @Data
+    public static class Writer {
+        private WriterType type = WriterType.JPA;
+        private boolean bisect = true;
+        private List<String> naturalKey = List.of("name", "city");
+    }
+
+    /**
+     * WriterType enum lists the available writers of the records.
+     */
+    public enum WriterType {
+        /** DataTransformer saving the entities through the MyTestRepository. **/
+        JPA,
+        /** JdbcBatchWriter inserting each chunk with one batched JDBC statement. **/
+        JDBC,
+        /** LoadDataWriter streaming each chunk into a MySQL LOAD DATA LOCAL INFILE statement. **/
+        LOAD_DATA,
+        /** UpsertWriter merging each chunk by natural key into a batched INSERT ... ON DUPLICATE KEY UPDATE. **/
+        UPSERT
+    }
+}
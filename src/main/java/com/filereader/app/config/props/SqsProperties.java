@@ -0,0 +1,39 @@
+package com.filereader.app.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SqsProperties class is used to read the properties from the application.yml file or from environment variables
+ * which are related to the AWS SQS queue consumer.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.aws.sqs")
+public class SqsProperties {
+
+    /** The name of the queue receiving the S3 event notifications. **/
+    private String queuename;
+
+    /** The maximum number of messages received per poll, at most 10. **/
+    private int maxMessages = 10;
+
+    /** The long polling wait of a receive, at most 20 seconds. **/
+    private int waitTimeSeconds = 20;
+
+    /** The number of jobs run in parallel. **/
+    private int poolSize = 4;
+
+    /** The visibility timeout set on received messages and on every heartbeat. **/
+    private int visibilityTimeoutSeconds = 60;
+
+    /** How often the visibility of the messages whose job is still running is extended. **/
+    private int heartbeatSeconds = 20;
+
+    /** How often the messages of the finished jobs are deleted. **/
+    private long deleteIntervalMillis = 1000;
+
+    /** How long to wait before resolving the queue URL again when the queue cannot be reached. **/
+    private long queueUrlRetryMillis = 5000;
+}
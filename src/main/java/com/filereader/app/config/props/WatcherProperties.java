@@ -0,0 +1,66 @@
+package com.filereader.app.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * WatcherProperties class is used to read the properties from the application.yml file or from environment variables
+ * which are related to the directory watcher.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "com.file.watcher")
+public class WatcherProperties {
+
+    /** Whether the files already present at startup are processed. **/
+    private boolean scanOnStartup = true;
+
+    /** Whether the subdirectories, except the archive and error directories, are watched too. **/
+    private boolean recursive;
+
+    /** The dispatch properties are used to configure the pool which runs the jobs of the detected files. **/
+    private Dispatch dispatch = new Dispatch();
+
+    /** The stability properties are used to hold back the files which are still being written. **/
+    private Stability stability = new Stability();
+
+    /** The follow properties are used to tail the files which are appended to continuously. **/
+    private Follow follow = new Follow();
+
+    /**
+     * Dispatch class holds the properties of the job dispatcher.
+     */
+    @Data
+    public static class Dispatch {
+        private int poolSize = 4;
+        private int queueCapacity = 100;
+        private boolean virtualThreads;
+    }
+
+    /**
+     * Stability class holds the properties of the stabilization stage. A file is ready once its size and
+     * modification time have not changed for quietMillis, or when its done marker arrives.
+     */
+    @Data
+    public static class Stability {
+        private long quietMillis = 5000;
+        private long pollMillis = 1000;
+        private String doneMarkerSuffix = ".done";
+        private boolean requireDoneMarker;
+    }
+
+    /**
+     * Follow class holds the properties of the follow mode. The appended complete lines of each file are loaded
+     * every pollMillis, at most maxBatchBytes per job, and the loaded offset is kept in the checkpoint file.
+     */
+    @Data
+    public static class Follow {
+        private List<String> files = List.of();
+        private long pollMillis = 1000;
+        private long maxBatchBytes = 64 * 1024 * 1024;
+        private String checkpointFile;
+    }
+}
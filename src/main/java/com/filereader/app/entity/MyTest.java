@@ -2,31 +2,29 @@ package com.filereader.app.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import com.filereader.app.processor.ByteOffsetAware;
 import lombok.Data;
-import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * MyTest class is used to create the entity for the mytest table.
+ * The id is a time-ordered UUID, stored as CHAR or BINARY(16) depending on com.filereader.mysql.binary-ids.
  */
 @Data
 @Entity
 @Table(name = "mytest")
-public class MyTest {
+public class MyTest implements ByteOffsetAware {
 
     @Id
-    @UuidGenerator(style = UuidGenerator.Style.RANDOM)
-    @GeneratedValue(strategy = GenerationType.UUID, generator = "UUID")
-    @Column(columnDefinition = "CHAR(50)")
-    private String id;
+    @TimeOrderedId
+    private UUID id;
 
     @Column(nullable = false)
     private String name;
@@ -40,6 +38,13 @@ public class MyTest {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // The line number and byte offset of the record in the input file, used to report the rejected records
+    @Transient
+    private int lineNumber;
+
+    @Transient
+    private long byteOffset = -1;
+
     // Set the default value for createdAt and updatedAt
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,62 @@
+package com.filereader.app.entity;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TimeOrderedUuid class is used to generate version 7 UUIDs, which start with the Unix time in milliseconds.
+ * The ids generated one after the other are increasing, so new rows are appended at the end of the clustered
+ * index instead of being inserted at a random page. The 12 bits following the time are a counter, which keeps the
+ * ids of the same millisecond in order, and the last 62 bits are random.
+ */
+public final class TimeOrderedUuid {
+
+    /** The time in milliseconds shifted left by 12 bits plus the counter, of the last generated id. **/
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    /**
+     * The next method is used to generate an id greater than the ids generated before by this process.
+     * @return a {@link UUID} object.
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSigBits = (timeAndCounter >>> 12) << 16 | 0x7000L | (timeAndCounter & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * The toBytes method is used to convert the id to the 16 bytes stored in a BINARY(16) column.
+     * @param id a {@link UUID} object.
+     * @return a byte array.
+     */
+    public static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * The fromBytes method is used to convert the 16 bytes of a BINARY(16) column to the id.
+     * @param bytes a byte array.
+     * @return a {@link UUID} object.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * The toJdbcValue method is used to convert the id to the value bound to the id column.
+     * @param id a {@link UUID} object.
+     * @param binary a {@link boolean} value, whether the column is BINARY(16) rather than CHAR.
+     * @return a byte array or a {@link String} object.
+     */
+    public static Object toJdbcValue(UUID id, boolean binary) {
+        return binary ? toBytes(id) : id.toString();
+    }
+}
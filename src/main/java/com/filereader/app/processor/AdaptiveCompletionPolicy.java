@@ -0,0 +1,132 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * AdaptiveCompletionPolicy class is used to complete a chunk after a number of items which, if adaptive,
+ * is tuned after every chunk within [minSize, maxSize].
+ * The size keeps moving in the same direction while the rows per second improve and turns around when they drop.
+ * It shrinks whenever the write and commit of a chunk takes longer than maxCommitMillis, and falls back to
+ * minSize after a rollback, so bad data never rolls back a large chunk twice.
+ */
+public class AdaptiveCompletionPolicy extends SimpleCompletionPolicy implements ChunkListener {
+
+    private static final int GROWTH_PERCENT = 25;
+
+    private final boolean adaptive;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxCommitNanos;
+    private final LongSupplier nanoClock;
+
+    private long chunkStart;
+    private long chunkCompleted;
+    private int chunkCount;
+    private double lastRate;
+    private boolean growing = true;
+
+    /**
+     * The AdaptiveCompletionPolicy constructor is used to initialize the AdaptiveCompletionPolicy object.
+     * @param chunkSize an {@link int} value, the initial chunk size.
+     * @param adaptive a {@link boolean} value, false to keep the chunk size fixed.
+     * @param minSize an {@link int} value.
+     * @param maxSize an {@link int} value.
+     * @param maxCommitMillis a {@link long} value, the write and commit time above which the chunk shrinks.
+     */
+    public AdaptiveCompletionPolicy(int chunkSize, boolean adaptive, int minSize, int maxSize, long maxCommitMillis) {
+        this(chunkSize, adaptive, minSize, maxSize, maxCommitMillis, System::nanoTime);
+    }
+
+    /**
+     * The AdaptiveCompletionPolicy constructor is used to initialize the AdaptiveCompletionPolicy object with the
+     * clock measuring the chunks.
+     * @param chunkSize an {@link int} value, the initial chunk size.
+     * @param adaptive a {@link boolean} value, false to keep the chunk size fixed.
+     * @param minSize an {@link int} value.
+     * @param maxSize an {@link int} value.
+     * @param maxCommitMillis a {@link long} value, the write and commit time above which the chunk shrinks.
+     * @param nanoClock a {@link LongSupplier} of the time in nanoseconds.
+     */
+    AdaptiveCompletionPolicy(int chunkSize, boolean adaptive, int minSize, int maxSize, long maxCommitMillis,
+                             LongSupplier nanoClock) {
+        super(adaptive ? Math.min(Math.max(chunkSize, minSize), maxSize) : chunkSize);
+        this.adaptive = adaptive;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxCommitNanos = TimeUnit.MILLISECONDS.toNanos(maxCommitMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * The isComplete method is used to check whether the chunk is complete and to record when it completed.
+     * @param context a {@link RepeatContext} object.
+     * @return a {@link boolean} value.
+     */
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        boolean complete = super.isComplete(context);
+        if (complete) {
+            chunkCompleted = nanoClock.getAsLong();
+            chunkCount = context.getStartedCount();
+        }
+        return complete;
+    }
+
+    /**
+     * The beforeChunk method is used to record when the chunk transaction started.
+     * @param context a {@link ChunkContext} object.
+     */
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart = nanoClock.getAsLong();
+        chunkCompleted = 0;
+        chunkCount = 0;
+    }
+
+    /**
+     * The afterChunk method is used to resize the next chunk based on the rows per second and the commit latency
+     * of the chunk which was just committed.
+     * @param context a {@link ChunkContext} object.
+     */
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!adaptive || chunkCompleted == 0 || chunkCount < getChunkSize()) {
+            // A partial chunk at the end of the input says nothing about the chunk size.
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        double rate = chunkCount * 1e9 / Math.max(now - chunkStart, 1);
+        if (now - chunkCompleted > maxCommitNanos) {
+            growing = false;
+        } else if (rate < lastRate) {
+            growing = !growing;
+        }
+        lastRate = rate;
+        int size = getChunkSize();
+        int delta = Math.max(size * GROWTH_PERCENT / 100, 1);
+        resize(growing ? size + delta : size - delta);
+    }
+
+    /**
+     * The afterChunkError method is used to fall back to the minimum chunk size after a rollback.
+     * @param context a {@link ChunkContext} object.
+     */
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        if (adaptive) {
+            growing = true;
+            lastRate = 0;
+            resize(minSize);
+        }
+    }
+
+    private void resize(int size) {
+        setChunkSize(Math.min(Math.max(size, minSize), maxSize));
+    }
+}
@@ -0,0 +1,170 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BisectingItemWriter class is used to locate the records which fail the write of a chunk by splitting it in halves,
+ * instead of letting the step roll back and write the chunk again one record per transaction.
+ * Every write is done under a savepoint of the chunk transaction. When it fails with a skippable exception, the
+ * savepoint is rolled back and each half is written again, so a bad record costs about log2(chunk size) extra
+ * batches and the good halves are still written in batch. The bad records are then removed from the chunk as
+ * skipped, so the step calls the skip listeners and counts only the written records, and they are counted as write
+ * skips of the contribution of the chunk, which the step only applies when the chunk commits. The skip limit is
+ * checked against the skips of the step including those of the current chunk, so a non-skippable exception or
+ * reaching the skip limit fails the chunk as before. The delegate must write through the transactional connection
+ * of the DataSource, which is why the JPA writer is not bisected, and must not mark the chunk transaction
+ * rollback-only when it fails (see DatabaseConfiguration.WRITER_TM).
+ */
+public class BisectingItemWriter implements ItemWriter<MyTest> {
+
+    /** The attribute of the StepContext holding the contribution of the current chunk. **/
+    static final String CONTRIBUTION_KEY = BisectingItemWriter.class.getName() + ".contribution";
+
+    private final ItemWriter<MyTest> delegate;
+    private final DataSource dataSource;
+    private final SkipPolicy skipPolicy;
+
+    /**
+     * The BisectingItemWriter constructor is used to initialize the BisectingItemWriter object.
+     * @param delegate a {@link ItemWriter} object, writing through the connection of the data source.
+     * @param dataSource a {@link DataSource} object.
+     * @param skipPolicy a {@link SkipPolicy} object, the skip policy of the step.
+     */
+    public BisectingItemWriter(ItemWriter<MyTest> delegate, DataSource dataSource, SkipPolicy skipPolicy) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+        this.skipPolicy = skipPolicy;
+    }
+
+    /**
+     * The exposeContribution method is used to make the contribution of each chunk of the step available to the
+     * BisectingItemWriter, which the chunk-oriented tasklet does not pass on to its writer.
+     * @param step a {@link TaskletStep} object.
+     * @return the {@link TaskletStep} object.
+     */
+    public static TaskletStep exposeContribution(TaskletStep step) {
+        step.setTasklet(new ContributionTasklet(step.getTasklet()));
+        return step;
+    }
+
+    /**
+     * The write method is used to write the chunk, bisecting it on failure.
+     * @param chunk a {@link Chunk} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Override
+    public void write(Chunk<? extends MyTest> chunk) throws Exception {
+        if (chunk.size() < 2 || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            delegate.write(chunk);
+            return;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Map<MyTest, Exception> failed = new IdentityHashMap<>();
+            write(connection, new ArrayList<>(chunk.getItems()), failed);
+            if (!failed.isEmpty()) {
+                skip(chunk, failed);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * The write method is used to write the records under a savepoint, and each half of them if it fails.
+     * @param connection a {@link Connection} object, the connection of the chunk transaction.
+     * @param items a {@link List} of {@link MyTest} objects.
+     * @param failed a {@link Map} of the records which could not be written to their exception.
+     * @throws Exception an {@link Exception} object, if the exception is not skippable.
+     */
+    private void write(Connection connection, List<MyTest> items, Map<MyTest, Exception> failed) throws Exception {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            delegate.write(new Chunk<>(items));
+        } catch (Exception e) {
+            connection.rollback(savepoint);
+            if (!skipPolicy.shouldSkip(e, -1)) {
+                throw e;
+            }
+            if (items.size() == 1) {
+                failed.put(items.get(0), e);
+                return;
+            }
+            int middle = items.size() / 2;
+            write(connection, items.subList(0, middle), failed);
+            write(connection, items.subList(middle, items.size()), failed);
+            return;
+        }
+        connection.releaseSavepoint(savepoint);
+    }
+
+    /**
+     * The skip method is used to remove the records which could not be written from the chunk as skipped.
+     * @param chunk a {@link Chunk} object.
+     * @param failed a {@link Map} of the records which could not be written to their exception.
+     * @throws Exception an {@link Exception} object, if the skip limit is reached.
+     */
+    private void skip(Chunk<? extends MyTest> chunk, Map<MyTest, Exception> failed) throws Exception {
+        StepContext context = StepSynchronizationManager.getContext();
+        StepContribution contribution = context != null ? (StepContribution) context.getAttribute(CONTRIBUTION_KEY) : null;
+        long skipCount = 0;
+        for (var iterator = chunk.iterator(); iterator.hasNext(); ) {
+            Exception e = failed.get(iterator.next());
+            if (e == null) {
+                continue;
+            }
+            // The step skip count of the contribution includes the read and process skips of this chunk.
+            if (!skipPolicy.shouldSkip(e, contribution != null ? contribution.getStepSkipCount() : skipCount++)) {
+                throw e;
+            }
+            iterator.remove(e);
+            if (contribution != null) {
+                contribution.incrementWriteSkipCount();
+            }
+        }
+        System.err.println("Skipped " + failed.size() + " records which could not be written, out of " + (chunk.size() + failed.size()));
+    }
+
+    /**
+     * ContributionTasklet class is used to keep the contribution of the chunk in the StepContext while the
+     * chunk-oriented tasklet runs.
+     */
+    private static class ContributionTasklet implements Tasklet {
+
+        private final Tasklet delegate;
+
+        ContributionTasklet(Tasklet delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+            chunkContext.getStepContext().setAttribute(CONTRIBUTION_KEY, contribution);
+            try {
+                return delegate.execute(contribution, chunkContext);
+            } finally {
+                chunkContext.getStepContext().removeAttribute(CONTRIBUTION_KEY);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.filereader.app.processor;
+
+/**
+ * ByteOffsetAware interface is implemented by the items which keep the byte offset of their line in the input file,
+ * set by the readers which know it.
+ */
+public interface ByteOffsetAware {
+
+    /**
+     * The setByteOffset method is used to set the offset of the first byte of the line of the item.
+     * @param byteOffset a {@link long} value.
+     */
+    void setByteOffset(long byteOffset);
+}
@@ -0,0 +1,189 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.LineMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * ByteRangeItemReader class is used to read the lines of a local file which start inside the byte range
+ * [startOffset, endOffset) and map them with the given {@link LineMapper}.
+ * The byte offset of the next line is saved in the {@link ExecutionContext}, so a restarted partition seeks
+ * directly to the first line which was not committed yet. Lines starting with '#' are skipped as comments, like
+ * the FlatFileItemReader does by default, and still counted in the line numbers.
+ * @param <T> a T object.
+ */
+public class ByteRangeItemReader<T> implements ItemStreamReader<T> {
+
+    private static final String NAME = ByteRangeItemReader.class.getSimpleName();
+    private static final String OFFSET_KEY = "offset";
+    private static final String LINE_KEY = "line";
+    private static final byte COMMENT = '#';
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path filePath;
+    private final long startOffset;
+    private final long endOffset;
+    private final LineMapper<T> lineMapper;
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private byte[] line = new byte[256];
+
+    /** The file offset of the first byte which has not been consumed yet. **/
+    private long position;
+
+    /** The file offset of the next byte to be loaded into the buffer. **/
+    private long bufferEnd;
+
+    private int lineNumber;
+
+    /**
+     * The ByteRangeItemReader constructor is used to initialize the ByteRangeItemReader object.
+     * @param filePath a {@link String} object.
+     * @param startOffset a {@link long} value, the offset of the first line of the range.
+     * @param endOffset a {@link long} value, the offset right after the last line of the range.
+     * @param lineMapper a {@link LineMapper} object.
+     */
+    public ByteRangeItemReader(String filePath, long startOffset, long endOffset, LineMapper<T> lineMapper) {
+        this.filePath = Paths.get(filePath);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.lineMapper = lineMapper;
+    }
+
+    /**
+     * The setCharset method is used to set the charset used to decode the lines, UTF-8 by default.
+     * @param charset a {@link Charset} object.
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * The open method is used to open the file and seek to the saved offset, if any.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        try {
+            channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open file: " + filePath, e);
+        }
+        position = executionContext.getLong(key(OFFSET_KEY), startOffset);
+        lineNumber = executionContext.getInt(key(LINE_KEY), 0);
+        bufferEnd = position;
+        buffer.clear().flip();
+    }
+
+    /**
+     * The update method is used to save the offset and the line number of the next line to read.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(key(OFFSET_KEY), position);
+        executionContext.putInt(key(LINE_KEY), lineNumber);
+    }
+
+    /**
+     * The close method is used to close the file.
+     */
+    @Override
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close file: " + filePath, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * The read method is used to read the next line of the range and map it.
+     * @return a T object, or null at the end of the range.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Override
+    public T read() throws Exception {
+        long lineStart;
+        int length;
+        do {
+            if (position >= endOffset) {
+                return null;
+            }
+            lineStart = position;
+            length = readLine();
+            if (length < 0) {
+                return null;
+            }
+            lineNumber++;
+        } while (length > 0 && line[0] == COMMENT);
+        String text = new String(line, 0, length, charset);
+        T item;
+        try {
+            item = lineMapper.mapLine(text, lineNumber);
+        } catch (Exception e) {
+            throw new LineParseException("Parsing error at line: " + lineNumber + " in file: " + filePath
+                    + " at offset: " + lineStart, e, text, lineNumber, lineStart);
+        }
+        if (item instanceof ByteOffsetAware byteOffsetAware) {
+            byteOffsetAware.setByteOffset(lineStart);
+        }
+        return item;
+    }
+
+    /**
+     * The readLine method is used to copy the bytes of the next line, without the line separator, into the line buffer.
+     * @return an {@link int} value, the length of the line or -1 at the end of the file.
+     * @throws IOException an {@link IOException} object.
+     */
+    private int readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer, bufferEnd);
+                buffer.flip();
+                if (read <= 0) {
+                    return length == 0 ? -1 : trimCarriageReturn(length);
+                }
+                bufferEnd += read;
+            }
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                position++;
+                if (b == '\n') {
+                    return trimCarriageReturn(length);
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+    }
+
+    private static String key(String key) {
+        return NAME + "." + key;
+    }
+
+    private int trimCarriageReturn(int length) {
+        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+    }
+}
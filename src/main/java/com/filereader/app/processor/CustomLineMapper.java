@@ -3,31 +3,34 @@ package com.filereader.app.processor;
 import com.filereader.app.entity.MyTest;
 import jakarta.annotation.PostConstruct;
 import org.springframework.batch.item.file.LineMapper;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.validation.BindException;
 
 /**
  * CustomLineMapper class is used to map the line from the input file to the MyTest object.
+ * The line is scanned once for the first two fields, so nothing but the field values is allocated. Like the
+ * DelimitedLineTokenizer, delimiters inside double quotes are ignored, a quoted field is unquoted (a doubled quote
+ * is an escaped quote) and the values are trimmed. The mapper holds no state per line and may be shared by threads.
  */
 @Component
 public class CustomLineMapper implements LineMapper<MyTest> {
 
+    private static final char QUOTE = '"';
+    private static final int FIELD_COUNT = 2;
+
     @Value("${com.file.separator}")
     private String delimiter;
 
-    /** The tokenizer is used to tokenize the line. **/
-    private DelimitedLineTokenizer tokenizer;
+    /** The first character of the delimiter, checked before comparing the rest of it. **/
+    private char delimiterStart;
 
     /**
-     * The init method is used to initialize the tokenizer object and assign delimiter value.
+     * The init method is used to precompute the delimiter.
      */
     @PostConstruct
     public void init() {
-        tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setDelimiter(delimiter);
+        delimiterStart = delimiter.charAt(0);
     }
 
     /**
@@ -35,14 +38,61 @@ public class CustomLineMapper implements LineMapper<MyTest> {
      * @param line a {@link String} object.
      * @param lineNumber an {@link int} value.
      * @return a {@link MyTest} object.
-     * @throws BindException a {@link BindException} object.
      */
     @Override
-    public MyTest mapLine(String line, int lineNumber) throws BindException {
-        FieldSet fieldSet = tokenizer.tokenize(line);
+    public MyTest mapLine(String line, int lineNumber) {
+        int length = line.length();
+        int nameEnd = -1;
+        int cityStart = -1;
+        int cityEnd = length;
+        boolean inQuotes = false;
+        int i = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && c == delimiterStart && line.startsWith(delimiter, i)) {
+                if (nameEnd < 0) {
+                    nameEnd = i;
+                    cityStart = i + delimiter.length();
+                } else {
+                    cityEnd = i;
+                    break;
+                }
+                i += delimiter.length();
+                continue;
+            }
+            i++;
+        }
+        if (nameEnd < 0) {
+            throw new IncorrectTokenCountException("Incorrect number of tokens found in record: expected " + FIELD_COUNT
+                    + " actual " + (length == 0 ? 0 : 1), FIELD_COUNT, length == 0 ? 0 : 1, line);
+        }
         MyTest record = new MyTest();
-        record.setName(fieldSet.readString(0));
-        record.setCity(fieldSet.readString(1));
+        record.setName(readField(line, 0, nameEnd));
+        record.setCity(readField(line, cityStart, cityEnd));
+        record.setLineNumber(lineNumber);
         return record;
     }
+
+    /**
+     * The readField method is used to trim and unquote a field of the line.
+     * @param line a {@link String} object.
+     * @param start an {@link int} value.
+     * @param end an {@link int} value.
+     * @return a {@link String} object.
+     */
+    private String readField(String line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start < 2 || line.charAt(start) != QUOTE || line.charAt(end - 1) != QUOTE) {
+            return line.substring(start, end);
+        }
+        // replace and trim return the same string when there is nothing to change.
+        return line.substring(start + 1, end - 1).replace("\"\"", "\"").trim();
+    }
 }
@@ -3,20 +3,44 @@ package com.filereader.app.processor;
 import org.springframework.batch.core.step.skip.SkipLimitExceededException;
 import org.springframework.batch.core.step.skip.SkipPolicy;
 
+import java.util.List;
+
 /**
- * CustomSkipPolicy class is used to skip the exception and continue the job execution.
+ * CustomSkipPolicy class is used to skip the records which failed with one of the skippable exceptions, up to the
+ * skip limit of the step, and continue the job execution. Any other exception fails the step.
  */
 public class CustomSkipPolicy implements SkipPolicy {
 
+    private final long skipLimit;
+    private final List<Class<? extends Throwable>> skippable;
+
+    /**
+     * The CustomSkipPolicy constructor is used to initialize the CustomSkipPolicy object.
+     * @param skipLimit a {@link long} value, the number of records which may be skipped, 0 to never skip.
+     * @param skippable a {@link List} of the skippable exception classes, their subclasses are skippable too.
+     */
+    public CustomSkipPolicy(long skipLimit, List<Class<? extends Throwable>> skippable) {
+        this.skipLimit = skipLimit;
+        this.skippable = List.copyOf(skippable);
+    }
+
     /**
      * The shouldSkip method is used to skip the exception and continue the job execution.
      * @param t a {@link Throwable} object.
-     * @param skipCount a {@link long} value.
+     * @param skipCount a {@link long} value, the number of records skipped so far, negative to only check whether
+     * the exception is skippable.
      * @return a {@link boolean} value.
-     * @throws SkipLimitExceededException a {@link SkipLimitExceededException} object.
+     * @throws SkipLimitExceededException a {@link SkipLimitExceededException} object, if the exception is skippable
+     * but the skip limit is reached.
      */
     @Override
     public boolean shouldSkip(Throwable t, long skipCount) throws SkipLimitExceededException {
-        return false;
+        if (skipLimit <= 0 || skippable.stream().noneMatch(type -> type.isInstance(t))) {
+            return false;
+        }
+        if (skipCount < skipLimit) {
+            return true;
+        }
+        throw new SkipLimitExceededException(skipLimit, t);
     }
 }
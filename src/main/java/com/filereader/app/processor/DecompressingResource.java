@@ -0,0 +1,132 @@
+package com.filereader.app.processor;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A Spring {@link AbstractResource} implementation which decompresses the wrapped resource while it is read.
+ * The compression is detected from the first bytes of the content: gzip (including concatenated members), zstd
+ * and zip, of which the first file entry is read. Any other content is returned as is.
+ * With read-ahead enabled the decompression runs on its own thread, ahead of the line parsing.
+ */
+public class DecompressingResource extends AbstractResource {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 4;
+
+    private final Resource resource;
+    private final int readAheadBufferSize;
+    private final int readAheadBuffers;
+
+    /**
+     * Compression enum lists the detected compression formats.
+     */
+    public enum Compression {
+        NONE, GZIP, ZSTD, ZIP
+    }
+
+    /**
+     * Creates a new {@link DecompressingResource}.
+     *
+     * @param resource            the compressed or plain resource
+     * @param readAheadBufferSize the size of a decompressed buffer handed to the reader
+     * @param readAheadBuffers    the number of decompressed buffers, 0 to decompress on the reading thread
+     */
+    public DecompressingResource(Resource resource, int readAheadBufferSize, int readAheadBuffers) {
+        this.resource = resource;
+        this.readAheadBufferSize = readAheadBufferSize;
+        this.readAheadBuffers = readAheadBuffers;
+    }
+
+    /**
+     * Returns the description of the wrapped resource.
+     *
+     * @return details of the resource
+     */
+    @Override
+    public String getDescription() {
+        return "Decompressing " + resource.getDescription();
+    }
+
+    @Override
+    public boolean exists() {
+        return resource.exists();
+    }
+
+    /**
+     * Returns the decompressed content of the wrapped resource.
+     *
+     * @return the input stream
+     * @throws IOException if the resource cannot be read
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        BufferedInputStream in = new BufferedInputStream(resource.getInputStream(), BUFFER_SIZE);
+        in.mark(MAGIC_LENGTH);
+        byte[] magic = in.readNBytes(MAGIC_LENGTH);
+        in.reset();
+        Compression compression = detect(magic);
+        InputStream decompressed = switch (compression) {
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(in);
+            case ZIP -> firstEntry(new ZipInputStream(in));
+            case NONE -> in;
+        };
+        if (compression == Compression.NONE || readAheadBuffers <= 0) {
+            return decompressed;
+        }
+        return new ReadAheadInputStream(decompressed, readAheadBufferSize, readAheadBuffers);
+    }
+
+    /**
+     * The detect method is used to find the compression of a local file from its first bytes.
+     * @param filePath a {@link Path} object.
+     * @return a {@link Compression} value.
+     * @throws IOException if the file cannot be read
+     */
+    public static Compression detect(Path filePath) throws IOException {
+        try (InputStream in = Files.newInputStream(filePath)) {
+            return detect(in.readNBytes(MAGIC_LENGTH));
+        }
+    }
+
+    /**
+     * The detect method is used to find the compression from the first bytes of the content.
+     * @param magic a byte array.
+     * @return a {@link Compression} value.
+     */
+    public static Compression detect(byte[] magic) {
+        if (magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return Compression.GZIP;
+        }
+        if (magic.length >= 4 && (magic[0] & 0xFF) == 0x28 && (magic[1] & 0xFF) == 0xB5
+                && (magic[2] & 0xFF) == 0x2F && (magic[3] & 0xFF) == 0xFD) {
+            return Compression.ZSTD;
+        }
+        if (magic.length >= 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            return Compression.ZIP;
+        }
+        return Compression.NONE;
+    }
+
+    private InputStream firstEntry(ZipInputStream in) throws IOException {
+        ZipEntry entry;
+        while ((entry = in.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                return in;
+            }
+        }
+        in.close();
+        throw new IOException("No file entry in zip archive: " + resource.getDescription());
+    }
+}
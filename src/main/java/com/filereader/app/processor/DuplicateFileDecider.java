@@ -0,0 +1,186 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.service.FileRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DuplicateFileDecider class is used to end the job right away when its file was already loaded, or is being loaded
+ * by another job, e.g. for a notification delivered again. The file is reserved in the FileRegistry before the job
+ * goes on, and its fingerprint is kept in the job execution context, so the file is recorded in the FileRegistry
+ * once the job completes, or released if it fails. The same file being loaded by another job, e.g. for a
+ * notification delivered again, is left to that job, while another file with the same content is a duplicate and is
+ * archived. The jobs loading a byte range of a followed file are not checked, as the file is still being appended
+ * to. For a coalesced job, every file is checked and the files left to read, with their fingerprints,
+ * are kept in the job execution context, where its reader takes them from.
+ */
+@RequiredArgsConstructor
+@Component
+public class DuplicateFileDecider implements JobExecutionDecider {
+
+    public static final String FINGERPRINT_KEY = "fingerprint";
+    public static final String DUPLICATE_KEY = "duplicate";
+    public static final String LOADING_KEY = "loading";
+    public static final FlowExecutionStatus DUPLICATE = new FlowExecutionStatus("DUPLICATE");
+
+    /** The FileRegistry class is used to look up the loaded files. **/
+    private final FileRegistry fileRegistry;
+
+    /** The S3Client is used to read the ETag of the S3 objects, if the aws profile is active. **/
+    private final ObjectProvider<S3Client> s3Client;
+
+    /**
+     * The decide method is used to fingerprint the file of the job and check whether it was already loaded.
+     * @param jobExecution a {@link JobExecution} object.
+     * @param stepExecution a {@link StepExecution} object.
+     * @return a {@link FlowExecutionStatus} object, DUPLICATE for an already loaded file.
+     */
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        JobParameters jobParameters = jobExecution.getJobParameters();
+        if (jobParameters.getString(JobCompletionNotificationListener.FILE_PATHS_KEY) != null) {
+            return decideFiles(jobExecution, jobParameters);
+        }
+        if (!fileRegistry.isEnabled() || isFollowJob(jobParameters)) {
+            return FlowExecutionStatus.COMPLETED;
+        }
+        String fingerprint = fingerprint(jobParameters);
+        String file = file(jobParameters);
+        jobExecution.getExecutionContext().putString(FINGERPRINT_KEY, fingerprint);
+        if (fileRegistry.reserve(fingerprint, file)) {
+            return FlowExecutionStatus.COMPLETED;
+        }
+        FileRegistry.LoadedFile loadedFile = fileRegistry.find(fingerprint);
+        if (loadedFile == null && file.equals(fileRegistry.loadingFile(fingerprint))) {
+            System.out.println("Skipping file " + jobParameters.getString("fileName") + ", it is being loaded by another job");
+            jobExecution.getExecutionContext().put(LOADING_KEY, true);
+        } else if (loadedFile == null) {
+            System.out.println("Skipping file " + jobParameters.getString("fileName")
+                    + ", same content is being loaded by another job");
+        } else {
+            System.out.println("Skipping file " + jobParameters.getString("fileName") + ", same content as "
+                    + loadedFile.fileName() + " loaded at " + loadedFile.loadedAt() + " with " + loadedFile.rows() + " rows");
+        }
+        jobExecution.getExecutionContext().put(DUPLICATE_KEY, true);
+        return DUPLICATE;
+    }
+
+    /**
+     * The decideFiles method is used to leave out the files of a coalesced job which were already loaded, or are
+     * being loaded by another job, and to reserve the others.
+     * @param jobExecution a {@link JobExecution} object.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link FlowExecutionStatus} object, DUPLICATE if every file was already loaded.
+     */
+    private FlowExecutionStatus decideFiles(JobExecution jobExecution, JobParameters jobParameters) {
+        List<String> files = new ArrayList<>();
+        List<String> fingerprints = new ArrayList<>();
+        List<String> duplicates = new ArrayList<>();
+        int loading = 0;
+        for (String file : MultiFileItemReader.split(jobParameters.getString(JobCompletionNotificationListener.FILE_PATHS_KEY))) {
+            String fingerprint = "-";
+            if (fileRegistry.isEnabled()) {
+                try {
+                    fingerprint = fingerprint(file, jobParameters.getString("bucketName"));
+                } catch (RuntimeException e) {
+                    // The reader fails to open the file, which is then moved to the error directory.
+                    System.err.println("Failed to fingerprint " + file + ": " + e.getMessage());
+                }
+                String id = file(file, jobParameters.getString("bucketName"));
+                if (!"-".equals(fingerprint) && !fileRegistry.reserve(fingerprint, id)) {
+                    if (fileRegistry.find(fingerprint) == null && id.equals(fileRegistry.loadingFile(fingerprint))) {
+                        loading++;
+                    } else {
+                        duplicates.add(file);
+                    }
+                    continue;
+                }
+            }
+            files.add(file);
+            fingerprints.add(fingerprint);
+        }
+        ExecutionContext executionContext = jobExecution.getExecutionContext();
+        executionContext.putString(JobCompletionNotificationListener.FILE_PATHS_KEY, String.join(MultiFileItemReader.SEPARATOR, files));
+        executionContext.putString(JobCompletionNotificationListener.FINGERPRINTS_KEY, String.join(MultiFileItemReader.SEPARATOR, fingerprints));
+        if (!duplicates.isEmpty()) {
+            System.out.println("Skipping " + duplicates.size() + " of the files of " + jobParameters.getString("fileName")
+                    + ", same content already loaded or being loaded by another job");
+            executionContext.putString(JobCompletionNotificationListener.DUPLICATE_FILES_KEY,
+                    String.join(MultiFileItemReader.SEPARATOR, duplicates));
+        }
+        if (loading > 0) {
+            System.out.println("Skipping " + loading + " of the files of " + jobParameters.getString("fileName")
+                    + ", being loaded by another job");
+        }
+        return files.isEmpty() ? DUPLICATE : FlowExecutionStatus.COMPLETED;
+    }
+
+    /**
+     * The isFollowJob method is used to check whether the job loads a byte range of a followed file.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link boolean} value.
+     */
+    public static boolean isFollowJob(JobParameters jobParameters) {
+        return jobParameters.getLong(FileRangePartitioner.END_OFFSET_KEY) != null;
+    }
+
+    private static String file(JobParameters jobParameters) {
+        String filePath = jobParameters.getString("filePath");
+        if (StringUtils.isNotBlank(filePath)) {
+            return file(filePath, null);
+        }
+        return file(jobParameters.getString("fileName"), jobParameters.getString("bucketName"));
+    }
+
+    /**
+     * The file method is used to identify the file being loaded, by its path, or by the bucket and key of the object.
+     * @param file a {@link String} object, the path of the local file or the key of the object.
+     * @param bucketName a {@link String} object, null for a local file.
+     * @return a {@link String} object.
+     */
+    private static String file(String file, String bucketName) {
+        return StringUtils.isBlank(bucketName) ? file : bucketName + "/" + file;
+    }
+
+    private String fingerprint(JobParameters jobParameters) {
+        String filePath = jobParameters.getString("filePath");
+        if (StringUtils.isNotBlank(filePath)) {
+            return fingerprint(filePath, null);
+        }
+        return fingerprint(jobParameters.getString("fileName"), jobParameters.getString("bucketName"));
+    }
+
+    /**
+     * The fingerprint method is used to fingerprint a local file, or an object of the bucket.
+     * @param file a {@link String} object, the path of the local file or the key of the object.
+     * @param bucketName a {@link String} object, null for a local file.
+     * @return a {@link String} object.
+     */
+    private String fingerprint(String file, String bucketName) {
+        if (StringUtils.isBlank(bucketName)) {
+            try {
+                return FileRegistry.fingerprint(Paths.get(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to fingerprint file: " + file, e);
+            }
+        }
+        HeadObjectResponse head = s3Client.getObject().headObject(request -> request.bucket(bucketName).key(file));
+        return FileRegistry.fingerprint(head.contentLength(), head.eTag());
+    }
+}
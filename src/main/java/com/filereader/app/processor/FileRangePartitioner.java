@@ -0,0 +1,187 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FileRangePartitioner class is used to split the input file, or the byte range of it loaded by a follow job,
+ * into newline-aligned byte ranges, one range per partition. A compressed file cannot be split and is left in a
+ * single partition, and so is a quarantine file, which is always read by the FlatFileItemReader; neither can be
+ * given a byte range. The files of a coalesced job are not split but grouped, each partition reading a
+ * contiguous group of the files.
+ */
+public class FileRangePartitioner implements Partitioner {
+
+    public static final String FILE_PATH_KEY = "filePath";
+    public static final String START_OFFSET_KEY = "startOffset";
+    public static final String END_OFFSET_KEY = "endOffset";
+    public static final String FILE_PATHS_KEY = "filePaths";
+
+    /** The name of the partition, in the context of each partition, which marks the worker step executions. **/
+    public static final String PARTITION_KEY = "partition";
+
+    private static final String PARTITION_PREFIX = "partition";
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    /** The input file which is split into byte ranges. **/
+    private final Path filePath;
+
+    /** The byte range of the file which is split, the end is -1 for the end of the file. **/
+    private final long startOffset;
+    private final long endOffset;
+
+    /** The files of a coalesced job which are grouped, null when a single file is split. **/
+    private final List<String> files;
+
+    /**
+     * The FileRangePartitioner constructor is used to initialize the FileRangePartitioner object.
+     * @param filePath a {@link String} object.
+     */
+    public FileRangePartitioner(String filePath) {
+        this(filePath, 0, -1);
+    }
+
+    /**
+     * The FileRangePartitioner constructor is used to initialize the FileRangePartitioner object splitting the
+     * byte range [startOffset, endOffset) of the file, which must start and end at line boundaries.
+     * @param filePath a {@link String} object.
+     * @param startOffset a {@link long} value.
+     * @param endOffset a {@link long} value, -1 for the end of the file.
+     */
+    public FileRangePartitioner(String filePath, long startOffset, long endOffset) {
+        this.filePath = Paths.get(filePath);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.files = null;
+    }
+
+    /**
+     * The FileRangePartitioner constructor is used to initialize the FileRangePartitioner object grouping the files
+     * of a coalesced job.
+     * @param files a {@link List} of {@link String} objects.
+     */
+    public FileRangePartitioner(List<String> files) {
+        this.filePath = null;
+        this.startOffset = 0;
+        this.endOffset = -1;
+        this.files = files;
+    }
+
+    /**
+     * The partition method is used to split the file into at most gridSize byte ranges, each one starting at the
+     * beginning of a line and ending right after a line separator (or at the end of the file).
+     * @param gridSize an {@link int} value.
+     * @return a {@link Map} of partition name to its {@link ExecutionContext}.
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        if (files != null) {
+            return partitionFiles(gridSize);
+        }
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = endOffset < 0 ? channel.size() : endOffset;
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(startOffset);
+            boolean single = DecompressingResource.detect(filePath) != DecompressingResource.Compression.NONE
+                    || QuarantineWriter.isQuarantineFile(filePath.toString());
+            if (single && (startOffset > 0 || endOffset >= 0)) {
+                throw new IllegalStateException("A compressed or quarantine file cannot be read from a byte range: "
+                        + filePath);
+            }
+            for (int i = 1; i < gridSize && !single; i++) {
+                long target = Math.max(startOffset + (size - startOffset) * i / gridSize,
+                        boundaries.get(boundaries.size() - 1));
+                long boundary = nextLineStart(channel, target, size);
+                if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                    boundaries.add(boundary);
+                }
+            }
+            boundaries.add(size);
+
+            Map<String, ExecutionContext> partitions = new HashMap<>();
+            for (int i = 0; i < boundaries.size() - 1; i++) {
+                ExecutionContext context = new ExecutionContext();
+                context.putString(FILE_PATH_KEY, filePath.toString());
+                context.putLong(START_OFFSET_KEY, boundaries.get(i));
+                context.putLong(END_OFFSET_KEY, boundaries.get(i + 1));
+                context.putString(PARTITION_KEY, PARTITION_PREFIX + i);
+                partitions.put(PARTITION_PREFIX + i, context);
+            }
+            return partitions;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to partition file: " + filePath, e);
+        }
+    }
+
+    /**
+     * The isPartition method is used to check whether the step execution is a worker of a partitioned step.
+     * @param stepExecution a {@link StepExecution} object.
+     * @return a {@link boolean} value.
+     */
+    public static boolean isPartition(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().containsKey(PARTITION_KEY);
+    }
+
+    /**
+     * The partitionFiles method is used to group the files of a coalesced job into at most gridSize partitions of
+     * contiguous files, keeping their order.
+     * @param gridSize an {@link int} value.
+     * @return a {@link Map} of partition name to its {@link ExecutionContext}.
+     */
+    private Map<String, ExecutionContext> partitionFiles(int gridSize) {
+        int groups = Math.max(1, Math.min(gridSize, files.size()));
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < groups; i++) {
+            List<String> group = files.subList(files.size() * i / groups, files.size() * (i + 1) / groups);
+            ExecutionContext context = new ExecutionContext();
+            context.putString(FILE_PATHS_KEY, String.join(MultiFileItemReader.SEPARATOR, group));
+            context.putString(PARTITION_KEY, PARTITION_PREFIX + i);
+            partitions.put(PARTITION_PREFIX + i, context);
+        }
+        return partitions;
+    }
+
+    /**
+     * The nextLineStart method is used to find the offset of the first line which starts at or after the given offset.
+     * @param channel a {@link FileChannel} object.
+     * @param offset a {@link long} value.
+     * @param size a {@link long} value.
+     * @return a {@link long} value, the size of the file if no further line starts.
+     * @throws IOException an {@link IOException} object.
+     */
+    private long nextLineStart(FileChannel channel, long offset, long size) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        // The byte just before the offset tells whether the offset is already a line start.
+        long position = offset - 1;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
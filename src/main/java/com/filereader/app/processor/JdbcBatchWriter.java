@@ -0,0 +1,73 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.DatabaseConfiguration;
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.entity.TimeOrderedUuid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JdbcBatchWriter class is used to write the data to database table with one batched JDBC INSERT per chunk,
+ * without going through the JPA persistence context.
+ */
+@RequiredArgsConstructor
+@Component
+public class JdbcBatchWriter implements ItemWriter<MyTest> {
+
+    private static final String INSERT_SQL = "INSERT INTO mytest (id, name, city, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    /** The JdbcTemplate class is used to execute the batched statements. **/
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The DatabaseProperties class is used to know whether the ids are stored as BINARY(16). **/
+    private final DatabaseProperties databaseProperties;
+
+    /**
+     * The write method is used to generate the id and timestamps of the records and insert them in one batch.
+     * @param chunk a {@link Chunk} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Transactional(transactionManager = DatabaseConfiguration.WRITER_TM)
+    @Override
+    public void write(Chunk<? extends MyTest> chunk) throws Exception {
+        List<? extends MyTest> items = chunk.getItems();
+        LocalDateTime now = LocalDateTime.now();
+        for (MyTest item : items) {
+            if (item.getId() == null) {
+                item.setId(TimeOrderedUuid.next());
+            }
+            item.setCreatedAt(now);
+            item.setUpdatedAt(now);
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        boolean binaryIds = databaseProperties.isBinaryIds();
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                MyTest item = items.get(i);
+                ps.setObject(1, TimeOrderedUuid.toJdbcValue(item.getId(), binaryIds));
+                ps.setString(2, item.getName());
+                ps.setString(3, item.getCity());
+                ps.setTimestamp(4, timestamp);
+                ps.setTimestamp(5, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+}
@@ -1,22 +1,54 @@
 package com.filereader.app.processor;
 
+import com.filereader.app.service.FileRegistry;
 import com.filereader.app.service.IArchiverService;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * JobCompletionNotificationListener class is used to move the file to archive or error directory based on the job status.
+ * A completed file is recorded in the FileRegistry with its row count, and the reservation of a file which was not
+ * loaded is released. A skipped duplicate file is not recorded again, but it is still archived, unless it is being
+ * loaded by another job, which archives it. A followed file is left in place, as it is still being appended to.
+ * The files of a coalesced job are archived one by one: a file which was read to its end is archived and recorded,
+ * a file which could not be opened or whose reading failed is moved to the error directory, and the files which a
+ * failed job did not start reading are left in place and listed in the job execution context to be loaded again.
  */
 @RequiredArgsConstructor
 @Component
 public class JobCompletionNotificationListener implements JobExecutionListener {
 
+    /** The files of a coalesced job, in its parameters and, without the duplicates, in its execution context. **/
+    public static final String FILE_PATHS_KEY = "filePaths";
+
+    /** The fingerprints of the files of a coalesced job, in the order of the files, "-" if unknown. **/
+    public static final String FINGERPRINTS_KEY = "fingerprints";
+
+    /** The files of a coalesced job which were already loaded. **/
+    public static final String DUPLICATE_FILES_KEY = "duplicateFiles";
+
+    /** The files which a failed coalesced job did not start reading. **/
+    public static final String UNREAD_FILES_KEY = "unreadFiles";
+
+    private static final String UNKNOWN_FINGERPRINT = "-";
+
     private final IArchiverService archiverService;
 
+    /** The FileRegistry class is used to record the loaded files. **/
+    private final FileRegistry fileRegistry;
+
     /**
      * The afterJob method is used to perform the action after the job execution.
      * @param jobExecution a {@link JobExecution} object.
@@ -28,10 +60,142 @@ public class JobCompletionNotificationListener implements JobExecutionListener {
             filePath = jobExecution.getJobParameters().getString("bucketName");
         }
         String fileName = jobExecution.getJobParameters().getString("fileName");
-        if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
-            this.archiverService.moveFile(filePath, fileName,true);
-        } else if (jobExecution.getStatus() == BatchStatus.FAILED) {
-            this.archiverService.moveFile(filePath, fileName,false);
+        if (DuplicateFileDecider.isFollowJob(jobExecution.getJobParameters())) {
+            return;
+        }
+        if (jobExecution.getJobParameters().getString(FILE_PATHS_KEY) != null) {
+            try {
+                archiveFiles(jobExecution);
+            } finally {
+                release(jobExecution);
+            }
+            return;
+        }
+        if (jobExecution.getExecutionContext().containsKey(DuplicateFileDecider.LOADING_KEY)) {
+            // The same file is being loaded by another job, which archives it.
+            return;
+        }
+        try {
+            if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+                record(jobExecution, fileName);
+                this.archiverService.moveFile(filePath, fileName,true);
+            } else if (jobExecution.getStatus() == BatchStatus.FAILED) {
+                this.archiverService.moveFile(filePath, fileName,false);
+            }
+        } finally {
+            release(jobExecution);
+        }
+    }
+
+    /**
+     * The release method is used to release the files which the job reserved in the FileRegistry, a no-op for the
+     * files it recorded.
+     * @param jobExecution a {@link JobExecution} object.
+     */
+    private void release(JobExecution jobExecution) {
+        ExecutionContext jobContext = jobExecution.getExecutionContext();
+        if (jobContext.containsKey(DuplicateFileDecider.DUPLICATE_KEY)) {
+            return;
+        }
+        String fingerprint = jobContext.getString(DuplicateFileDecider.FINGERPRINT_KEY, null);
+        if (fingerprint != null) {
+            fileRegistry.release(fingerprint);
+        }
+        for (String coalesced : MultiFileItemReader.split(jobContext.getString(FINGERPRINTS_KEY, ""))) {
+            fileRegistry.release(coalesced);
+        }
+    }
+
+    /**
+     * The archiveFiles method is used to archive the files of a coalesced job one by one, based on how far each of
+     * them was read at the last commit.
+     * @param jobExecution a {@link JobExecution} object.
+     */
+    private void archiveFiles(JobExecution jobExecution) {
+        ExecutionContext jobContext = jobExecution.getExecutionContext();
+        String bucketName = jobExecution.getJobParameters().getString("bucketName");
+        for (String file : MultiFileItemReader.split(jobContext.getString(DUPLICATE_FILES_KEY, ""))) {
+            moveFile(bucketName, file, true);
+        }
+        List<String> files = MultiFileItemReader.split(jobContext.getString(FILE_PATHS_KEY, ""));
+        List<String> fingerprints = MultiFileItemReader.split(jobContext.getString(FINGERPRINTS_KEY, ""));
+        Map<String, Long> rows = new HashMap<>();
+        Map<String, Boolean> reading = new HashMap<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            ExecutionContext stepContext = stepExecution.getExecutionContext();
+            if (!MultiFileItemReader.isMultiFile(stepContext)) {
+                continue;
+            }
+            // A partition reads a share of the files, listed in its own context.
+            List<String> stepFiles = stepContext.containsKey(FILE_PATHS_KEY)
+                    ? MultiFileItemReader.split(stepContext.getString(FILE_PATHS_KEY)) : files;
+            List<Long> finishedRows = MultiFileItemReader.finishedRows(stepContext);
+            for (int i = 0; i < finishedRows.size() && i < stepFiles.size(); i++) {
+                rows.put(stepFiles.get(i), finishedRows.get(i));
+            }
+            if (finishedRows.size() < stepFiles.size()) {
+                reading.put(stepFiles.get(finishedRows.size()), MultiFileItemReader.isReadingFile(stepContext));
+            }
+        }
+        boolean completed = jobExecution.getStatus() == BatchStatus.COMPLETED;
+        List<String> unread = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            String file = files.get(i);
+            Long count = rows.get(file);
+            if (count != null && count >= 0) {
+                if (i < fingerprints.size() && !UNKNOWN_FINGERPRINT.equals(fingerprints.get(i))) {
+                    fileRegistry.record(fingerprints.get(i), fileName(file), count);
+                }
+                moveFile(bucketName, file, true);
+            } else if (count != null || completed || reading.getOrDefault(file, false)) {
+                moveFile(bucketName, file, false);
+            } else {
+                unread.add(file);
+            }
+        }
+        if (!unread.isEmpty()) {
+            jobContext.putString(UNREAD_FILES_KEY, String.join(MultiFileItemReader.SEPARATOR, unread));
+        }
+    }
+
+    /**
+     * The moveFile method is used to move a file of a coalesced job, a local file or an object of the bucket.
+     * @param bucketName a {@link String} object, null for a local file.
+     * @param file a {@link String} object, the path of the local file or the key of the object.
+     * @param success a {@link boolean} value.
+     */
+    private void moveFile(String bucketName, String file, boolean success) {
+        try {
+            if (StringUtils.isBlank(bucketName)) {
+                archiverService.moveFile(file, fileName(file), success);
+            } else {
+                archiverService.moveFile(bucketName, file, success);
+            }
+        } catch (RuntimeException e) {
+            // The other files of the job are still archived.
+            System.err.println("Failed to archive " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String fileName(String file) {
+        return Paths.get(file).getFileName().toString();
+    }
+
+    /**
+     * The record method is used to record the loaded file in the FileRegistry with the number of written rows.
+     * @param jobExecution a {@link JobExecution} object.
+     * @param fileName a {@link String} object.
+     */
+    private void record(JobExecution jobExecution, String fileName) {
+        String fingerprint = jobExecution.getExecutionContext().getString(DuplicateFileDecider.FINGERPRINT_KEY, null);
+        if (fingerprint == null || jobExecution.getExecutionContext().containsKey(DuplicateFileDecider.DUPLICATE_KEY)) {
+            return;
         }
+        // The partition manager step already sums the counts of its worker steps.
+        long rows = jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> !FileRangePartitioner.isPartition(stepExecution))
+                .mapToLong(StepExecution::getWriteCount)
+                .sum();
+        fileRegistry.record(fingerprint, fileName, rows);
     }
 }
@@ -0,0 +1,296 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JobMetricsListener class is used to publish the throughput and latency of a step to Micrometer and to print a
+ * summary line per file when the step ends.
+ * The time spent reading, processing and writing is summed per chunk and recorded in the filereader.chunk.phase
+ * timer, the duration of a chunk including its commit in the filereader.chunk timer, and the items read, written,
+ * filtered and skipped in the filereader.items counter. The meters are tagged with the job, the step and, unless
+ * disabled, the file. The listener may be shared by the partitions of a step, as its state is kept per thread.
+ */
+public class JobMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<MyTest>,
+        ItemProcessListener<MyTest, MyTest>, ItemWriteListener<MyTest>, SkipListener<MyTest, MyTest> {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean fileTag;
+
+    /** The state of the step execution running on the current thread. **/
+    private final ThreadLocal<StepMetrics> current = new ThreadLocal<>();
+
+    /**
+     * The JobMetricsListener constructor is used to initialize the JobMetricsListener object.
+     * @param meterRegistry a {@link MeterRegistry} object.
+     * @param fileTag a {@link boolean} value, whether the meters are tagged with the file.
+     */
+    public JobMetricsListener(MeterRegistry meterRegistry, boolean fileTag) {
+        this.meterRegistry = meterRegistry;
+        this.fileTag = fileTag;
+    }
+
+    /**
+     * The beforeStep method is used to create the meters of the step execution.
+     * @param stepExecution a {@link StepExecution} object.
+     */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        current.set(new StepMetrics(tags(stepExecution)));
+    }
+
+    /**
+     * The afterStep method is used to record the step duration and print the summary line of the file.
+     * @param stepExecution a {@link StepExecution} object.
+     * @return a {@link ExitStatus} object, null to keep the exit status.
+     */
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepMetrics metrics = current.get();
+        current.remove();
+        if (metrics == null) {
+            return null;
+        }
+        long elapsedNanos = System.nanoTime() - metrics.startNanos;
+        Timer.builder("filereader.step")
+                .description("Duration of a step execution")
+                .tags(metrics.tags.and("status", stepExecution.getStatus().name()))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        System.out.printf("File %s [%s]: %s, read %d, written %d, filtered %d, skipped %d in %d ms (%.0f rows/s);"
+                        + " read %d ms, process %d ms, write %d ms, %d chunks%n",
+                fileName(stepExecution), stepExecution.getStepName(), stepExecution.getStatus(),
+                stepExecution.getReadCount(), stepExecution.getWriteCount(), stepExecution.getFilterCount(),
+                stepExecution.getSkipCount(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                stepExecution.getWriteCount() / seconds, TimeUnit.NANOSECONDS.toMillis(metrics.totalReadNanos),
+                TimeUnit.NANOSECONDS.toMillis(metrics.totalProcessNanos),
+                TimeUnit.NANOSECONDS.toMillis(metrics.totalWriteNanos), metrics.chunks);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.chunkStartNanos = System.nanoTime();
+            metrics.readNanos = 0;
+            metrics.processNanos = 0;
+            metrics.writeNanos = 0;
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        endChunk();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        endChunk();
+    }
+
+    @Override
+    public void beforeRead() {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.phaseStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(MyTest item) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.readNanos += System.nanoTime() - metrics.phaseStartNanos;
+            metrics.read.increment();
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.readNanos += System.nanoTime() - metrics.phaseStartNanos;
+        }
+    }
+
+    @Override
+    public void beforeProcess(MyTest item) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.phaseStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(MyTest item, MyTest result) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.processNanos += System.nanoTime() - metrics.phaseStartNanos;
+            if (result == null) {
+                metrics.filtered.increment();
+            }
+        }
+    }
+
+    @Override
+    public void onProcessError(MyTest item, Exception e) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.processNanos += System.nanoTime() - metrics.phaseStartNanos;
+        }
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends MyTest> items) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.phaseStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends MyTest> items) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.writeNanos += System.nanoTime() - metrics.phaseStartNanos;
+            metrics.written.increment(items.size());
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<? extends MyTest> items) {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.writeNanos += System.nanoTime() - metrics.phaseStartNanos;
+        }
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        skipped();
+    }
+
+    @Override
+    public void onSkipInProcess(MyTest item, Throwable t) {
+        skipped();
+    }
+
+    @Override
+    public void onSkipInWrite(MyTest item, Throwable t) {
+        skipped();
+    }
+
+    private void skipped() {
+        StepMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.skipped.increment();
+        }
+    }
+
+    /**
+     * The endChunk method is used to record the duration of the chunk and the time of each of its phases.
+     */
+    private void endChunk() {
+        StepMetrics metrics = current.get();
+        if (metrics == null || metrics.chunkStartNanos == 0) {
+            return;
+        }
+        metrics.chunk.record(System.nanoTime() - metrics.chunkStartNanos, TimeUnit.NANOSECONDS);
+        metrics.readPhase.record(metrics.readNanos, TimeUnit.NANOSECONDS);
+        metrics.processPhase.record(metrics.processNanos, TimeUnit.NANOSECONDS);
+        metrics.writePhase.record(metrics.writeNanos, TimeUnit.NANOSECONDS);
+        metrics.totalReadNanos += metrics.readNanos;
+        metrics.totalProcessNanos += metrics.processNanos;
+        metrics.totalWriteNanos += metrics.writeNanos;
+        metrics.chunks++;
+        metrics.chunkStartNanos = 0;
+    }
+
+    private Tags tags(StepExecution stepExecution) {
+        Tags tags = Tags.of("job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+                "step", stepExecution.getStepName().replaceAll(":partition\\d+$", ""));
+        return fileTag ? tags.and("file", fileName(stepExecution)) : tags;
+    }
+
+    private String fileName(StepExecution stepExecution) {
+        String fileName = stepExecution.getJobParameters().getString("fileName");
+        return StringUtils.isBlank(fileName) ? "unknown" : fileName;
+    }
+
+    /**
+     * StepMetrics class holds the meters and the running totals of a step execution.
+     */
+    private class StepMetrics {
+
+        private final Tags tags;
+        private final long startNanos = System.nanoTime();
+        private final Timer chunk;
+        private final Timer readPhase;
+        private final Timer processPhase;
+        private final Timer writePhase;
+        private final Counter read;
+        private final Counter written;
+        private final Counter filtered;
+        private final Counter skipped;
+
+        private long chunkStartNanos;
+        private long phaseStartNanos;
+        private long readNanos;
+        private long processNanos;
+        private long writeNanos;
+        private long totalReadNanos;
+        private long totalProcessNanos;
+        private long totalWriteNanos;
+        private long chunks;
+
+        StepMetrics(Tags tags) {
+            this.tags = tags;
+            this.chunk = Timer.builder("filereader.chunk")
+                    .description("Duration of a chunk, including its commit")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofMinutes(1))
+                    .register(meterRegistry);
+            this.readPhase = phaseTimer("read");
+            this.processPhase = phaseTimer("process");
+            this.writePhase = phaseTimer("write");
+            this.read = itemCounter("read");
+            this.written = itemCounter("written");
+            this.filtered = itemCounter("filtered");
+            this.skipped = itemCounter("skipped");
+        }
+
+        private Timer phaseTimer(String phase) {
+            return Timer.builder("filereader.chunk.phase")
+                    .description("Time spent in a phase of a chunk")
+                    .tags(tags.and("phase", phase))
+                    .register(meterRegistry);
+        }
+
+        private Counter itemCounter(String outcome) {
+            return Counter.builder("filereader.items")
+                    .description("Number of items by outcome")
+                    .tags(tags.and("outcome", outcome))
+                    .register(meterRegistry);
+        }
+    }
+}
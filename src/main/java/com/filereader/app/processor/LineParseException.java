@@ -0,0 +1,27 @@
+package com.filereader.app.processor;
+
+import lombok.Getter;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+/**
+ * LineParseException class is thrown by the readers which know the byte offset of the line which could not be parsed.
+ */
+@Getter
+public class LineParseException extends FlatFileParseException {
+
+    /** The offset of the first byte of the line in the input file. **/
+    private final long byteOffset;
+
+    /**
+     * The LineParseException constructor is used to initialize the LineParseException object.
+     * @param message a {@link String} object.
+     * @param cause a {@link Throwable} object, may be null.
+     * @param input a {@link String} object, the line.
+     * @param lineNumber an {@link int} value.
+     * @param byteOffset a {@link long} value.
+     */
+    public LineParseException(String message, Throwable cause, String input, int lineNumber, long byteOffset) {
+        super(message, cause, input, lineNumber);
+        this.byteOffset = byteOffset;
+    }
+}
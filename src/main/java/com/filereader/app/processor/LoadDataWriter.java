@@ -0,0 +1,148 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.DatabaseConfiguration;
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.entity.TimeOrderedUuid;
+import com.mysql.cj.jdbc.JdbcStatement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * LoadDataWriter class is used to write the data to database table by streaming each chunk into a MySQL
+ * LOAD DATA LOCAL INFILE statement through the Connector/J local infile stream.
+ * Rows which MySQL rejects, or the whole chunk if the statement fails, fall back to the {@link JdbcBatchWriter}.
+ * The connection URL requires allowLoadLocalInfile=true.
+ */
+@RequiredArgsConstructor
+@Component
+public class LoadDataWriter implements ItemWriter<MyTest> {
+
+    private static final String LOAD_DATA_INTO = "LOAD DATA LOCAL INFILE 'mytest.tsv' INTO TABLE mytest CHARACTER SET utf8mb4 "
+            + "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ";
+    private static final String LOAD_DATA_SQL = LOAD_DATA_INTO + "(id, name, city, created_at, updated_at)";
+    private static final String LOAD_DATA_BINARY_ID_SQL = LOAD_DATA_INTO
+            + "(@id, name, city, created_at, updated_at) SET id = UNHEX(REPLACE(@id, '-', ''))";
+    private static final String SELECT_IDS_SQL = "SELECT id FROM mytest WHERE id IN (%s)";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** The JdbcTemplate class is used to execute the LOAD DATA statement. **/
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The JdbcBatchWriter class is used to write the rows which could not be loaded. **/
+    private final JdbcBatchWriter fallbackWriter;
+
+    /** The DatabaseProperties class is used to know whether the ids are stored as BINARY(16). **/
+    private final DatabaseProperties databaseProperties;
+
+    /**
+     * The write method is used to load the chunk with one LOAD DATA statement.
+     * @param chunk a {@link Chunk} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Transactional(transactionManager = DatabaseConfiguration.WRITER_TM)
+    @Override
+    public void write(Chunk<? extends MyTest> chunk) throws Exception {
+        List<? extends MyTest> items = chunk.getItems();
+        LocalDateTime now = LocalDateTime.now();
+        for (MyTest item : items) {
+            if (item.getId() == null) {
+                item.setId(TimeOrderedUuid.next());
+            }
+            item.setCreatedAt(now);
+            item.setUpdatedAt(now);
+        }
+        byte[] data = toTabSeparated(items, TIMESTAMP_FORMAT.format(now));
+        int loaded;
+        try {
+            loaded = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(data));
+                    return statement.executeUpdate(databaseProperties.isBinaryIds() ? LOAD_DATA_BINARY_ID_SQL : LOAD_DATA_SQL);
+                }
+            });
+        } catch (DataAccessException e) {
+            System.err.println("LOAD DATA failed, falling back to batched inserts: " + e.getMessage());
+            fallbackWriter.write(chunk);
+            return;
+        }
+        if (loaded < items.size()) {
+            writeRejected(items);
+        }
+    }
+
+    /**
+     * The writeRejected method is used to write the rows which were skipped by LOAD DATA with the fallback writer.
+     * @param items a {@link List} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private void writeRejected(List<? extends MyTest> items) throws Exception {
+        String placeholders = String.join(",", Collections.nCopies(items.size(), "?"));
+        boolean binaryIds = databaseProperties.isBinaryIds();
+        Set<UUID> loadedIds = new HashSet<>(jdbcTemplate.query(String.format(SELECT_IDS_SQL, placeholders),
+                (resultSet, rowNum) -> binaryIds ? TimeOrderedUuid.fromBytes(resultSet.getBytes(1))
+                        : UUID.fromString(resultSet.getString(1).trim()),
+                items.stream().map(item -> TimeOrderedUuid.toJdbcValue(item.getId(), binaryIds)).toArray()));
+        Chunk<MyTest> rejected = new Chunk<>();
+        for (MyTest item : items) {
+            if (!loadedIds.contains(item.getId())) {
+                rejected.add(item);
+            }
+        }
+        System.err.println("LOAD DATA rejected " + rejected.size() + " rows, writing them with batched inserts.");
+        fallbackWriter.write(rejected);
+    }
+
+    /**
+     * The toTabSeparated method is used to encode the records in the default LOAD DATA format.
+     * @param items a {@link List} object.
+     * @param timestamp a {@link String} object.
+     * @return a byte[] object.
+     */
+    private byte[] toTabSeparated(List<? extends MyTest> items, String timestamp) {
+        StringBuilder builder = new StringBuilder(items.size() * 96);
+        for (MyTest item : items) {
+            builder.append(item.getId()).append('\t');
+            appendEscaped(builder, item.getName());
+            builder.append('\t');
+            appendEscaped(builder, item.getCity());
+            builder.append('\t').append(timestamp).append('\t').append(timestamp).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendEscaped(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> builder.append("\\\\");
+                case '\t' -> builder.append("\\t");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\0' -> builder.append("\\0");
+                default -> builder.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFileItemReader class is used to read the MyTest records from a local delimited file without decoding
+ * whole lines. The file is memory-mapped window by window, delimiters and line separators are found directly on
+ * the mapped bytes and only the name and city values are turned into strings.
+ * Like the DelimitedLineTokenizer, a field may be enclosed in double quotes (a doubled quote is an escaped quote)
+ * and the values are trimmed. Like the FlatFileItemReader, the lines starting with # are comments and are skipped.
+ */
+public class MappedFileItemReader implements ItemStreamReader<MyTest> {
+
+    private static final String NAME = MappedFileItemReader.class.getSimpleName();
+    private static final String OFFSET_KEY = "offset";
+    private static final String LINE_KEY = "line";
+    private static final byte QUOTE = '"';
+    private static final byte COMMENT = '#';
+    private static final int FIELD_COUNT = 2;
+
+    private final Path filePath;
+    private final long startOffset;
+    private long endOffset;
+    private final byte[] delimiter;
+    private int mapSize;
+    private final Charset charset;
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    /** The file offset of the first mapped byte. **/
+    private long mappedOffset;
+
+    /** The file offset of the first byte which has not been consumed yet. **/
+    private long position;
+
+    private int lineNumber;
+
+    /** The start and end index in the mapped window of the fields of the current line. **/
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    /** The scratch buffer which the bytes of a field are copied to before decoding. **/
+    private byte[] scratch = new byte[256];
+
+    /**
+     * The MappedFileItemReader constructor is used to read the whole file.
+     * @param filePath a {@link String} object.
+     * @param delimiter a {@link String} object.
+     * @param mapSize an {@link int} value, the size of the mapped window.
+     */
+    public MappedFileItemReader(String filePath, String delimiter, int mapSize) {
+        this(filePath, 0, -1, delimiter, mapSize);
+    }
+
+    /**
+     * The MappedFileItemReader constructor is used to read the lines which start inside the byte range
+     * [startOffset, endOffset).
+     * @param filePath a {@link String} object.
+     * @param startOffset a {@link long} value, the offset of the first line of the range.
+     * @param endOffset a {@link long} value, the offset right after the last line of the range, -1 for the end of the file.
+     * @param delimiter a {@link String} object.
+     * @param mapSize an {@link int} value, the size of the mapped window.
+     */
+    public MappedFileItemReader(String filePath, long startOffset, long endOffset, String delimiter, int mapSize) {
+        this.filePath = Paths.get(filePath);
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.charset = StandardCharsets.UTF_8;
+        this.delimiter = delimiter.getBytes(charset);
+        this.mapSize = mapSize;
+    }
+
+    /**
+     * The open method is used to open the file and seek to the saved offset, if any.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        try {
+            channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            if (endOffset < 0) {
+                endOffset = channel.size();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open file: " + filePath, e);
+        }
+        position = executionContext.getLong(key(OFFSET_KEY), startOffset);
+        lineNumber = executionContext.getInt(key(LINE_KEY), 0);
+        mapped = null;
+    }
+
+    /**
+     * The update method is used to save the offset and the line number of the next line to read.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(key(OFFSET_KEY), position);
+        executionContext.putInt(key(LINE_KEY), lineNumber);
+    }
+
+    /**
+     * The close method is used to close the file and release the mapped window.
+     */
+    @Override
+    public void close() {
+        mapped = null;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close file: " + filePath, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * The read method is used to scan the next line which is not a comment and map its first two fields to a
+     * MyTest object.
+     * @return a {@link MyTest} object, or null at the end of the range.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Override
+    public MyTest read() throws Exception {
+        long lineStart;
+        int fields;
+        do {
+            if (position >= endOffset) {
+                return null;
+            }
+            lineStart = position;
+            fields = scanLine();
+            lineNumber++;
+        } while (isComment(lineStart));
+        if (fields < FIELD_COUNT) {
+            throw new LineParseException("Parsing error at line: " + lineNumber + " in file: " + filePath
+                    + ", expected " + FIELD_COUNT + " fields but found " + fields, null, decodeLine(lineStart),
+                    lineNumber, lineStart);
+        }
+        MyTest record = new MyTest();
+        record.setName(readField(0));
+        record.setCity(readField(1));
+        record.setLineNumber(lineNumber);
+        record.setByteOffset(lineStart);
+        return record;
+    }
+
+    /**
+     * The scanLine method is used to find the fields of the line at the current position and to move the position
+     * past its line separator.
+     * @return an {@link int} value, the number of fields of the line.
+     * @throws IOException an {@link IOException} object.
+     */
+    private int scanLine() throws IOException {
+        while (true) {
+            if (mapped == null || position >= mappedOffset + mapped.limit()) {
+                map(position);
+            }
+            int begin = (int) (position - mappedOffset);
+            int limit = mapped.limit();
+            int fields = 0;
+            int fieldBegin = begin;
+            boolean inQuotes = false;
+            // Only a quote opening the field, after its leading spaces, makes it a quoted field.
+            boolean quotedField = false;
+            boolean fieldStarted = false;
+            int i = begin;
+            while (i < limit) {
+                byte b = mapped.get(i);
+                if (b == '\n') {
+                    break;
+                } else if (b == QUOTE && (quotedField || !fieldStarted)) {
+                    inQuotes = !inQuotes;
+                    quotedField = true;
+                } else if (!inQuotes && isDelimiterAt(i, limit)) {
+                    fields = addField(fields, fieldBegin, i);
+                    i += delimiter.length;
+                    fieldBegin = i;
+                    quotedField = false;
+                    fieldStarted = false;
+                    continue;
+                }
+                if ((b & 0xFF) > ' ') {
+                    fieldStarted = true;
+                }
+                i++;
+            }
+            boolean lastWindow = mappedOffset + limit >= endOffset;
+            if (i == limit && !lastWindow) {
+                // The line continues after the mapped window, so map again starting at this line.
+                if (begin == 0) {
+                    mapSize = mapSize * 2;
+                }
+                map(position);
+                continue;
+            }
+            int lineEnd = i > begin && mapped.get(i - 1) == '\r' ? i - 1 : i;
+            fields = addField(fields, fieldBegin, Math.max(lineEnd, fieldBegin));
+            position = mappedOffset + Math.min(i + 1, limit);
+            return fields;
+        }
+    }
+
+    /**
+     * The isComment method is used to check whether the line which was just scanned is a comment.
+     * @param lineStart a {@link long} value, the file offset of the line.
+     * @return a {@link boolean} value.
+     */
+    private boolean isComment(long lineStart) {
+        int start = (int) (lineStart - mappedOffset);
+        return start < mapped.limit() && mapped.get(start) == COMMENT;
+    }
+
+    private static String key(String key) {
+        return NAME + "." + key;
+    }
+
+    private int addField(int fields, int begin, int end) {
+        if (fields < FIELD_COUNT) {
+            fieldStart[fields] = begin;
+            fieldEnd[fields] = end;
+        }
+        return fields + 1;
+    }
+
+    private boolean isDelimiterAt(int index, int limit) {
+        if (mapped.get(index) != delimiter[0] || index + delimiter.length > limit) {
+            return false;
+        }
+        for (int j = 1; j < delimiter.length; j++) {
+            if (mapped.get(index + j) != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The readField method is used to trim, unquote and decode a field of the current line.
+     * @param index an {@link int} value.
+     * @return a {@link String} object.
+     */
+    private String readField(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        while (start < end && (mapped.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (mapped.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && mapped.get(start) == QUOTE && mapped.get(end - 1) == QUOTE) {
+            int length = 0;
+            ensureScratch(end - start);
+            for (int i = start + 1; i < end - 1; i++) {
+                byte b = mapped.get(i);
+                scratch[length++] = b;
+                if (b == QUOTE && i + 1 < end - 1 && mapped.get(i + 1) == QUOTE) {
+                    i++;
+                }
+            }
+            return new String(scratch, 0, length, charset);
+        }
+        return decode(start, end);
+    }
+
+    /**
+     * The decodeLine method is used to decode the line which was just scanned, without its line separator.
+     * @param lineStart a {@link long} value, the file offset of the line.
+     * @return a {@link String} object.
+     */
+    private String decodeLine(long lineStart) {
+        int start = (int) (lineStart - mappedOffset);
+        int end = (int) (position - mappedOffset);
+        while (end > start && (mapped.get(end - 1) == '\n' || mapped.get(end - 1) == '\r')) {
+            end--;
+        }
+        return decode(start, end);
+    }
+
+    private String decode(int start, int end) {
+        ensureScratch(end - start);
+        mapped.get(start, scratch, 0, end - start);
+        return new String(scratch, 0, end - start, charset);
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    /**
+     * The map method is used to map the next window of the file starting at the given offset.
+     * @param offset a {@link long} value.
+     * @throws IOException an {@link IOException} object.
+     */
+    private void map(long offset) throws IOException {
+        long size = Math.min(mapSize, endOffset - offset);
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        mappedOffset = offset;
+    }
+}
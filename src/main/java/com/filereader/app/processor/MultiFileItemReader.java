@@ -0,0 +1,220 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * MultiFileItemReader class is used to read the files of a coalesced job one after the other, each with the reader
+ * created for it by the reader factory, so many small files are loaded by a single job.
+ * The index of the file being read and the state of its reader are saved in the {@link ExecutionContext}, so a
+ * restart resumes in the file being read. A file which cannot be opened is recorded as failed and the next file is
+ * read. The number of rows read from each finished file, -1 for a failed file, is saved too, so the files can be
+ * archived one by one once the job ends.
+ * @param <T> a T object.
+ */
+public class MultiFileItemReader<T> implements ItemStreamReader<T> {
+
+    /** The separator of the files of a coalesced job in its parameters. **/
+    public static final String SEPARATOR = "\n";
+
+    private static final String NAME = MultiFileItemReader.class.getSimpleName();
+    private static final String INDEX_KEY = "index";
+    private static final String ROWS_KEY = "rows";
+    private static final String FILE_ROWS_KEY = "fileRows";
+    private static final String STATE_PREFIX = "file.";
+
+    private final List<String> files;
+    private final Function<String, ItemStreamReader<T>> readerFactory;
+
+    /** The index of the file being read. **/
+    private int index;
+
+    /** The rows read from each finished file, separated by commas. **/
+    private String rows;
+
+    /** The rows read from the file being read. **/
+    private long fileRows;
+
+    private ItemStreamReader<T> delegate;
+    private ExecutionContext delegateContext;
+
+    /**
+     * The MultiFileItemReader constructor is used to initialize the MultiFileItemReader object.
+     * @param files a {@link List} of the files to read, in order.
+     * @param readerFactory a {@link Function} creating the reader of a file.
+     */
+    public MultiFileItemReader(List<String> files, Function<String, ItemStreamReader<T>> readerFactory) {
+        this.files = files;
+        this.readerFactory = readerFactory;
+    }
+
+    /**
+     * The open method is used to restore the file being read and the state of its reader, if any.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        index = executionContext.getInt(key(INDEX_KEY), 0);
+        rows = executionContext.getString(key(ROWS_KEY), "");
+        fileRows = executionContext.getLong(key(FILE_ROWS_KEY), 0L);
+        delegateContext = new ExecutionContext();
+        String prefix = key(STATE_PREFIX);
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                delegateContext.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        delegate = null;
+    }
+
+    /**
+     * The update method is used to save the file being read, the state of its reader and the rows of the
+     * finished files.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putInt(key(INDEX_KEY), index);
+        executionContext.putString(key(ROWS_KEY), rows);
+        executionContext.putLong(key(FILE_ROWS_KEY), fileRows);
+        String prefix = key(STATE_PREFIX);
+        List<String> previous = executionContext.entrySet().stream()
+                .map(Map.Entry::getKey)
+                .filter(key -> key.startsWith(prefix))
+                .toList();
+        previous.forEach(executionContext::remove);
+        if (delegate != null) {
+            delegate.update(delegateContext);
+        }
+        // The restored state of a file which is not reopened yet is kept as is.
+        for (Map.Entry<String, Object> entry : delegateContext.entrySet()) {
+            executionContext.put(prefix + entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The close method is used to close the reader of the file being read.
+     */
+    @Override
+    public void close() {
+        if (delegate != null) {
+            delegate.close();
+            delegate = null;
+        }
+    }
+
+    /**
+     * The read method is used to read the next item of the file being read, moving to the next file at its end.
+     * @return a T object, or null once every file has been read.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Override
+    public T read() throws Exception {
+        while (true) {
+            if (delegate == null) {
+                if (index >= files.size()) {
+                    return null;
+                }
+                if (!openFile()) {
+                    continue;
+                }
+            }
+            T item = delegate.read();
+            if (item != null) {
+                fileRows++;
+                return item;
+            }
+            delegate.close();
+            delegate = null;
+            finishFile(fileRows);
+        }
+    }
+
+    /**
+     * The openFile method is used to open the reader of the file at the index, recording the file as failed if it
+     * cannot be opened.
+     * @return a {@link boolean} value, whether the reader is open.
+     */
+    private boolean openFile() {
+        String file = files.get(index);
+        try {
+            delegate = readerFactory.apply(file);
+            delegate.open(delegateContext);
+            return true;
+        } catch (ItemStreamException | UncheckedIOException e) {
+            System.err.println("Failed to open " + file + ", skipping it: " + e.getMessage());
+            delegate = null;
+            finishFile(-1);
+            return false;
+        }
+    }
+
+    /**
+     * The finishFile method is used to record the rows of the file at the index and move to the next file.
+     * @param count a {@link long} value, -1 for a failed file.
+     */
+    private void finishFile(long count) {
+        rows = rows.isEmpty() ? String.valueOf(count) : rows + "," + count;
+        index++;
+        fileRows = 0;
+        delegateContext = new ExecutionContext();
+    }
+
+    private static String key(String key) {
+        return NAME + "." + key;
+    }
+
+    /**
+     * The split method is used to get the files of a coalesced job from its parameter.
+     * @param files a {@link String} object.
+     * @return a {@link List} of {@link String} objects.
+     */
+    public static List<String> split(String files) {
+        return Arrays.stream(files.split(SEPARATOR)).filter(file -> !file.isBlank()).toList();
+    }
+
+    /**
+     * The finishedRows method is used to get the rows read from each finished file, as saved in the execution
+     * context at the last commit, -1 for a failed file.
+     * @param executionContext a {@link ExecutionContext} object.
+     * @return a {@link List} of {@link Long} values, empty if the context holds no state of this reader.
+     */
+    public static List<Long> finishedRows(ExecutionContext executionContext) {
+        String rows = executionContext.getString(key(ROWS_KEY), "");
+        List<Long> result = new ArrayList<>();
+        for (String count : rows.split(",")) {
+            if (!count.isEmpty()) {
+                result.add(Long.parseLong(count));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The isReadingFile method is used to check whether the execution context holds the state of the reader of a
+     * file which was not finished, meaning some of its rows were committed.
+     * @param executionContext a {@link ExecutionContext} object.
+     * @return a {@link boolean} value.
+     */
+    public static boolean isReadingFile(ExecutionContext executionContext) {
+        String prefix = key(STATE_PREFIX);
+        return executionContext.entrySet().stream().anyMatch(entry -> entry.getKey().startsWith(prefix));
+    }
+
+    /**
+     * The isMultiFile method is used to check whether the execution context holds the state of this reader.
+     * @param executionContext a {@link ExecutionContext} object.
+     * @return a {@link boolean} value.
+     */
+    public static boolean isMultiFile(ExecutionContext executionContext) {
+        return executionContext.containsKey(key(INDEX_KEY));
+    }
+}
@@ -0,0 +1,191 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * PrefetchingItemReader class is used to read the items of the delegate reader on a separate thread, so the next
+ * chunk is read and mapped while the step thread processes and writes the current one.
+ * The items are handed over through a bounded queue in the order they were read, and an exception of the delegate
+ * is thrown by the read call which would have returned that item, so the skip and retry handling of the step is
+ * unchanged. The state of the delegate is captured after every item and the state of the last item returned is
+ * saved by update, so a restart resumes after the last committed item rather than after the last prefetched one.
+ * Any other failure of the reading thread, e.g. an {@link Error}, ends the queue and is thrown by every later read.
+ * @param <T> a T object.
+ */
+public class PrefetchingItemReader<T> implements ItemStreamReader<T> {
+
+    private final ItemStreamReader<T> delegate;
+    private final int capacity;
+
+    private BlockingQueue<Entry<T>> queue;
+    private Thread producer;
+    private volatile boolean stopped;
+    private boolean exhausted;
+
+    /** The exception after which the delegate is no longer read, thrown again by every read. **/
+    private Throwable failure;
+
+    /** The state of the delegate right after the last item returned by read. **/
+    private ExecutionContext consumedState;
+
+    /**
+     * The PrefetchingItemReader constructor is used to initialize the PrefetchingItemReader object.
+     * @param delegate a {@link ItemStreamReader} object.
+     * @param capacity an {@link int} value, the number of items read ahead of the step.
+     */
+    public PrefetchingItemReader(ItemStreamReader<T> delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+    }
+
+    /**
+     * The open method is used to open the delegate and start reading ahead.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        delegate.open(executionContext);
+        consumedState = snapshot();
+        queue = new ArrayBlockingQueue<>(capacity);
+        stopped = false;
+        exhausted = false;
+        failure = null;
+        producer = Thread.ofPlatform().name("prefetch-" + Thread.currentThread().getName()).daemon().start(this::produce);
+    }
+
+    /**
+     * The read method is used to return the next item read by the delegate, waiting for it if needed.
+     * @return a T object, null at the end of the input.
+     * @throws Exception an {@link Exception} object thrown by the delegate for this item.
+     */
+    @Override
+    public T read() throws Exception {
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+        if (exhausted) {
+            return null;
+        }
+        Entry<T> entry = queue.take();
+        if (entry.state() == null) {
+            failure = entry.error();
+            throw rethrow(failure);
+        }
+        consumedState = entry.state();
+        if (entry.error() != null) {
+            throw rethrow(entry.error());
+        }
+        if (entry.item() == null) {
+            exhausted = true;
+        }
+        return entry.item();
+    }
+
+    /**
+     * The update method is used to save the state of the delegate as of the last item returned.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (consumedState == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : consumedState.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The close method is used to stop reading ahead and close the delegate.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        if (producer != null) {
+            // Free the queue so a producer waiting to put an item can see it has to stop.
+            queue.clear();
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producer = null;
+        }
+        delegate.close();
+    }
+
+    /**
+     * The produce method is used to read the delegate until its end, or until the reader is closed. The queue always
+     * ends with an entry, as otherwise the step thread would wait for it forever.
+     */
+    private void produce() {
+        try {
+            while (!stopped) {
+                T item = null;
+                Exception error = null;
+                ExecutionContext state = null;
+                try {
+                    item = delegate.read();
+                } catch (Exception e) {
+                    error = e;
+                }
+                try {
+                    state = snapshot();
+                } catch (RuntimeException e) {
+                    // The step fails on this entry, as the position after it is unknown.
+                    item = null;
+                    error = e;
+                }
+                queue.put(new Entry<>(item, error, state));
+                if (item == null && (error == null || state == null)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            if (!stopped) {
+                try {
+                    // The queue may be full, the step thread frees it.
+                    queue.put(new Entry<>(null, e, null));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * The rethrow method is used to throw an {@link Error} of the reading thread as it is, or to return the
+     * exception to throw.
+     * @param error a {@link Throwable} object.
+     * @return an {@link Exception} object.
+     */
+    private static Exception rethrow(Throwable error) {
+        if (error instanceof Error e) {
+            throw e;
+        }
+        return error instanceof Exception e ? e : new IllegalStateException(error);
+    }
+
+    private ExecutionContext snapshot() {
+        ExecutionContext state = new ExecutionContext();
+        delegate.update(state);
+        return state;
+    }
+
+    /**
+     * Entry record holds an item or the exception thrown while reading it, with the state of the delegate after it.
+     * @param item a T object, null at the end of the input or on error.
+     * @param error a {@link Throwable} object.
+     * @param state a {@link ExecutionContext} object, null if it could not be captured.
+     * @param <T> a T object.
+     */
+    private record Entry<T>(T item, Throwable error, ExecutionContext state) {
+    }
+}
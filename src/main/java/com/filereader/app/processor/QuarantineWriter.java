@@ -0,0 +1,225 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * QuarantineWriter class is used to write the rows skipped by the step to a quarantine file, named after the input
+ * file with the .quarantine suffix, in the quarantine directory.
+ * Every row is preceded by a comment line giving its line number, the byte offset of the line when the reader knows
+ * it, and the reason it was rejected. Once the rows are fixed, the quarantine file can be put back as input: the
+ * comment lines are ignored and only its rows are loaded. The partitions of a file share its quarantine file.
+ */
+@Component
+public class QuarantineWriter implements SkipListener<MyTest, MyTest>, StepExecutionListener {
+
+    /** The suffix of the quarantine files. **/
+    public static final String SUFFIX = ".quarantine";
+
+    private static final String COMMENT = "# ";
+    private static final char QUOTE = '"';
+
+    /** The quarantine directory, null if the skipped rows are only logged. **/
+    private final Path directory;
+    private final String delimiter;
+
+    /** The quarantine files of the running jobs, by job execution id. **/
+    private final Map<Long, Sidecar> sidecars = new ConcurrentHashMap<>();
+
+    /** The quarantine file of the step execution running on the current thread. **/
+    private final ThreadLocal<Sidecar> current = new ThreadLocal<>();
+
+    /**
+     * The QuarantineWriter constructor is used to initialize the QuarantineWriter object.
+     * @param directory a {@link String} object, the quarantine directory, blank to only log the skipped rows.
+     * @param delimiter a {@link String} object, the file content separator.
+     */
+    public QuarantineWriter(@Value("${com.file.quarantine:}") String directory,
+                            @Value("${com.file.separator}") String delimiter) {
+        this.directory = StringUtils.isBlank(directory) ? null : Paths.get(directory);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * The isQuarantineFile method is used to check whether the input file is a quarantine file being reprocessed.
+     * @param fileName a {@link String} object.
+     * @return a {@link boolean} value.
+     */
+    public static boolean isQuarantineFile(String fileName) {
+        return fileName != null && fileName.endsWith(SUFFIX);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        Sidecar sidecar = sidecars.compute(stepExecution.getJobExecutionId(), (id, existing) -> {
+            Sidecar result = existing != null ? existing : new Sidecar(fileName(stepExecution));
+            result.steps++;
+            return result;
+        });
+        current.set(sidecar);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Sidecar sidecar = current.get();
+        current.remove();
+        if (sidecar != null) {
+            boolean[] last = new boolean[1];
+            sidecars.computeIfPresent(stepExecution.getJobExecutionId(), (id, existing) -> {
+                last[0] = --existing.steps == 0;
+                return last[0] ? null : existing;
+            });
+            if (last[0]) {
+                sidecar.close();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        if (t instanceof FlatFileParseException e) {
+            long byteOffset = e instanceof LineParseException lineParseException ? lineParseException.getByteOffset() : -1;
+            quarantine(e.getLineNumber(), byteOffset, t, e.getInput());
+        } else {
+            quarantine(-1, -1, t, null);
+        }
+    }
+
+    @Override
+    public void onSkipInProcess(MyTest item, Throwable t) {
+        quarantine(item.getLineNumber(), item.getByteOffset(), t, toLine(item));
+    }
+
+    @Override
+    public void onSkipInWrite(MyTest item, Throwable t) {
+        quarantine(item.getLineNumber(), item.getByteOffset(), t, toLine(item));
+    }
+
+    /**
+     * The quarantine method is used to write the row, preceded by the comment line describing it.
+     * @param lineNumber an {@link int} value, 0 or less if unknown.
+     * @param byteOffset a {@link long} value, negative if unknown.
+     * @param t a {@link Throwable} object, the reason of the skip.
+     * @param line a {@link String} object, the row, null if it could not be read.
+     */
+    private void quarantine(int lineNumber, long byteOffset, Throwable t, String line) {
+        StringBuilder comment = new StringBuilder(COMMENT);
+        if (lineNumber > 0) {
+            comment.append("line ").append(lineNumber).append(", ");
+        }
+        if (byteOffset >= 0) {
+            comment.append("offset ").append(byteOffset).append(", ");
+        }
+        comment.append(reason(t));
+        Sidecar sidecar = current.get();
+        if (sidecar == null || sidecar.path == null) {
+            System.err.println("Skipped " + (line == null ? "a row" : line) + " " + comment);
+            return;
+        }
+        sidecar.write(comment, line);
+    }
+
+    /**
+     * The toLine method is used to format the item as a row of the input file, quoting the fields when needed.
+     * @param item a {@link MyTest} object.
+     * @return a {@link String} object.
+     */
+    String toLine(MyTest item) {
+        return field(item.getName()) + delimiter + field(item.getCity());
+    }
+
+    private String field(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(delimiter) || value.indexOf(QUOTE) >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0 || value.startsWith("#") || !value.equals(value.trim())) {
+            return QUOTE + value.replace("\"", "\"\"") + QUOTE;
+        }
+        return value;
+    }
+
+    private String reason(Throwable t) {
+        Throwable cause = t instanceof FlatFileParseException && t.getCause() != null ? t.getCause() : t;
+        String message = cause.getMessage() == null ? "" : ": " + cause.getMessage().replaceAll("[\r\n]+", " ");
+        return cause.getClass().getSimpleName() + message;
+    }
+
+    private String fileName(StepExecution stepExecution) {
+        String fileName = stepExecution.getJobParameters().getString("fileName");
+        if (directory == null || StringUtils.isBlank(fileName)) {
+            return null;
+        }
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+        return isQuarantineFile(fileName) ? fileName : fileName + SUFFIX;
+    }
+
+    /**
+     * Sidecar class holds the quarantine file of a job execution, opened on the first skipped row.
+     */
+    private class Sidecar {
+
+        private final Path path;
+        private BufferedWriter writer;
+        private int rows;
+
+        /** The number of running step executions of the job writing to this file. **/
+        private int steps;
+
+        Sidecar(String fileName) {
+            this.path = fileName == null ? null : directory.resolve(fileName);
+        }
+
+        synchronized void write(CharSequence comment, String line) {
+            try {
+                if (writer == null) {
+                    Files.createDirectories(directory);
+                    writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                }
+                writer.append(comment).append('\n');
+                if (line != null) {
+                    writer.append(line).append('\n');
+                }
+                // Rows are rarely skipped, so each one is written through as it comes.
+                writer.flush();
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the quarantine file: " + path, e);
+            }
+        }
+
+        synchronized void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                System.out.println("Quarantined " + rows + " rows to " + path);
+            } catch (IOException e) {
+                System.err.println("Failed to close the quarantine file " + path + ": " + e.getMessage());
+            } finally {
+                writer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.filereader.app.processor;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * RangedS3InputStream class is used to read an S3 object, or the bytes [startOffset, endOffset) of it, with
+ * concurrent byte-range GETs. The bytes are split into parts of partSize bytes. Up to concurrency parts are downloaded ahead of the reader
+ * into a fixed pool of buffers, and the parts are returned in order. A failed part is requested again up to
+ * maxRetries times before the stream fails. Every part is requested with the ETag of the object, so the stream
+ * fails instead of mixing the bytes of two versions if the object is overwritten while it is read.
+ */
+public class RangedS3InputStream extends InputStream {
+
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final String fileName;
+    private final String eTag;
+    private final long endOffset;
+    private final int partSize;
+    private final int maxRetries;
+
+    /** The status code of a GET whose ETag no longer matches the object. **/
+    private static final int PRECONDITION_FAILED = 412;
+
+    /** The buffers of the parts, one for each download in flight plus the one being read. **/
+    private final BlockingQueue<byte[]> bufferPool;
+
+    /** The downloads in flight, in the order of the parts. **/
+    private final Deque<Future<Part>> downloads = new ArrayDeque<>();
+
+    private final ExecutorService executor;
+
+    /** The offset of the next part to download. **/
+    private long nextOffset;
+
+    private Part current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * The RangedS3InputStream constructor is used to start downloading the first parts of the object.
+     * @param s3Client a {@link S3Client} object.
+     * @param bucketName a {@link String} object.
+     * @param fileName a {@link String} object.
+     * @param eTag a {@link String} object, the ETag every part must match, null to read any version.
+     * @param startOffset a {@link long} value, the offset of the first byte to read.
+     * @param endOffset a {@link long} value, the offset right after the last byte to read, the size of the object
+     *                  to read it to the end.
+     * @param partSize an {@link int} value, the size of a byte range.
+     * @param concurrency an {@link int} value, the number of byte ranges downloaded in parallel.
+     * @param maxRetries an {@link int} value, the number of times a failed byte range is requested again.
+     */
+    public RangedS3InputStream(S3Client s3Client, String bucketName, String fileName, String eTag, long startOffset,
+                               long endOffset, int partSize, int concurrency, int maxRetries) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.fileName = fileName;
+        this.eTag = eTag;
+        this.endOffset = endOffset;
+        this.nextOffset = startOffset;
+        this.partSize = partSize;
+        this.maxRetries = maxRetries;
+        this.bufferPool = new ArrayBlockingQueue<>(concurrency + 1);
+        for (int i = 0; i <= concurrency; i++) {
+            bufferPool.add(new byte[partSize]);
+        }
+        this.executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().name("s3-range-", 0).daemon().factory());
+        for (int i = 0; i < concurrency; i++) {
+            submitNext();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensurePart()) {
+            return -1;
+        }
+        return current.buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensurePart()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.buffer, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * The close method is used to stop the downloads in flight.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        downloads.clear();
+        current = null;
+    }
+
+    /**
+     * The ensurePart method is used to move to the next downloaded part once the current one has been read.
+     * @return a {@link boolean} value, false at the end of the object.
+     * @throws IOException an {@link IOException} object.
+     */
+    private boolean ensurePart() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed: " + fileName);
+        }
+        while (current == null || position >= current.length) {
+            if (current != null) {
+                bufferPool.add(current.buffer);
+                current = null;
+                submitNext();
+            }
+            Future<Part> download = downloads.pollFirst();
+            if (download == null) {
+                return false;
+            }
+            try {
+                current = download.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading: " + fileName, e);
+            } catch (ExecutionException e) {
+                close();
+                throw new IOException("Failed to read S3 object: " + fileName, e.getCause());
+            }
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * The submitNext method is used to start downloading the next part, if any.
+     */
+    private void submitNext() {
+        if (nextOffset >= endOffset) {
+            return;
+        }
+        long start = nextOffset;
+        int length = (int) Math.min(partSize, endOffset - start);
+        nextOffset += length;
+        byte[] buffer = bufferPool.remove();
+        downloads.addLast(executor.submit(() -> download(start, length, buffer)));
+    }
+
+    /**
+     * The download method is used to read a byte range into the buffer, retrying on failure. A range whose ETag
+     * no longer matches is not retried, as the object was overwritten.
+     * @param start a {@link long} value.
+     * @param length an {@link int} value.
+     * @param buffer a byte array.
+     * @return a {@link Part} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private Part download(long start, int length, byte[] buffer) throws Exception {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .range("bytes=" + start + "-" + (start + length - 1))
+                .ifMatch(eTag)
+                .build();
+        for (int attempt = 0; ; attempt++) {
+            try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+                int read = in.readNBytes(buffer, 0, length);
+                if (read != length) {
+                    throw new IOException("Expected " + length + " bytes at offset " + start + " but got " + read);
+                }
+                return new Part(buffer, length);
+            } catch (S3Exception e) {
+                if (e.statusCode() == PRECONDITION_FAILED) {
+                    throw new IOException("S3 object " + fileName + " was overwritten while it was read", e);
+                }
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                System.err.println("Retrying the byte range at offset " + start + " of " + fileName + ": " + e.getMessage());
+                Thread.sleep(100L << attempt);
+            } catch (IOException | RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                System.err.println("Retrying the byte range at offset " + start + " of " + fileName + ": " + e.getMessage());
+                Thread.sleep(100L << attempt);
+            }
+        }
+    }
+
+    /**
+     * Part record holds a downloaded byte range.
+     * @param buffer a byte array.
+     * @param length an {@link int} value, the number of bytes of the buffer holding the range.
+     */
+    private record Part(byte[] buffer, int length) {
+    }
+}
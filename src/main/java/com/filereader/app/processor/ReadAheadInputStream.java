@@ -0,0 +1,140 @@
+package com.filereader.app.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * ReadAheadInputStream class is used to read the wrapped stream on its own thread into a fixed number of buffers,
+ * so the work of the wrapped stream (e.g. decompression) overlaps with the work of the reader.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    private final InputStream in;
+
+    /** The empty buffers which the read-ahead thread fills. **/
+    private final BlockingQueue<byte[]> free;
+
+    /** The filled buffers, in order, ending with the end or failure of the wrapped stream. **/
+    private final BlockingQueue<Chunk> filled;
+
+    private final Thread thread;
+
+    private Chunk current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * The ReadAheadInputStream constructor is used to start reading the wrapped stream.
+     * @param in an {@link InputStream} object.
+     * @param bufferSize an {@link int} value.
+     * @param buffers an {@link int} value, the number of buffers read ahead.
+     */
+    public ReadAheadInputStream(InputStream in, int bufferSize, int buffers) {
+        this.in = in;
+        this.free = new ArrayBlockingQueue<>(buffers + 1);
+        this.filled = new ArrayBlockingQueue<>(buffers + 2);
+        for (int i = 0; i <= buffers; i++) {
+            free.add(new byte[bufferSize]);
+        }
+        this.thread = Thread.ofPlatform().name("read-ahead").daemon().start(this::fill);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) {
+            return -1;
+        }
+        return current.buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.buffer, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        in.close();
+    }
+
+    /**
+     * The ensureChunk method is used to move to the next filled buffer once the current one has been read.
+     * @return a {@link boolean} value, false at the end of the wrapped stream.
+     * @throws IOException if the wrapped stream failed, a {@link RuntimeException} or {@link Error} of the read-ahead
+     * thread is rethrown as it is.
+     */
+    private boolean ensureChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position >= current.length) {
+            if (current != null) {
+                if (current.length < 0) {
+                    return false;
+                }
+                free.add(current.buffer);
+            }
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading ahead", e);
+            }
+            position = 0;
+            if (current.error instanceof IOException e) {
+                throw e;
+            } else if (current.error instanceof RuntimeException e) {
+                throw e;
+            } else if (current.error instanceof Error e) {
+                throw e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The fill method is used to read the wrapped stream into the free buffers until its end. Any failure is passed
+     * to the reader as the last chunk, as otherwise the reader would wait for it forever.
+     */
+    private void fill() {
+        try {
+            while (true) {
+                byte[] buffer = free.take();
+                int length = in.readNBytes(buffer, 0, buffer.length);
+                if (length > 0) {
+                    filled.put(new Chunk(buffer, length, null));
+                }
+                if (length < buffer.length) {
+                    filled.put(new Chunk(null, -1, null));
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            filled.offer(new Chunk(null, -1, e));
+        }
+    }
+
+    /**
+     * Chunk record holds a filled buffer, or the end or failure of the wrapped stream.
+     * @param buffer a byte array.
+     * @param length an {@link int} value, -1 at the end of the wrapped stream.
+     * @param error a {@link Throwable} object, if the wrapped stream failed.
+     */
+    private record Chunk(byte[] buffer, int length, Throwable error) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.filereader.app.processor;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.LineMapper;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * S3ItemReader class is used to read the lines of an uncompressed S3 object and map them with the given
+ * {@link LineMapper}.
+ * The byte offset of the next line is saved in the {@link ExecutionContext}, like the {@link ByteRangeItemReader}
+ * does for a local file, so a restarted step requests the object from the first line which was not committed yet
+ * with a ranged GET, instead of reading and discarding the lines which were already loaded. The ETag of the
+ * object is saved with the offset and every GET is conditional on it, so a restart fails instead of resuming in
+ * another version of the object. Lines starting with '#' are skipped as comments, like the FlatFileItemReader
+ * does by default, and still counted in the line numbers.
+ * @param <T> a T object.
+ */
+public class S3ItemReader<T> implements ItemStreamReader<T> {
+
+    private static final String NAME = S3ItemReader.class.getSimpleName();
+    private static final String OFFSET_KEY = "offset";
+    private static final String LINE_KEY = "line";
+    private static final String ETAG_KEY = "eTag";
+    private static final byte COMMENT = '#';
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final S3Resource resource;
+    private final LineMapper<T> lineMapper;
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLimit;
+    private byte[] line = new byte[256];
+
+    /** The object offset of the first byte which has not been consumed yet. **/
+    private long position;
+
+    /** The ETag of the version of the object which is read. **/
+    private String eTag;
+
+    private int lineNumber;
+
+    /**
+     * The S3ItemReader constructor is used to initialize the S3ItemReader object.
+     * @param resource a {@link S3Resource} object, the object to read.
+     * @param lineMapper a {@link LineMapper} object.
+     */
+    public S3ItemReader(S3Resource resource, LineMapper<T> lineMapper) {
+        this.resource = resource;
+        this.lineMapper = lineMapper;
+    }
+
+    /**
+     * The setCharset method is used to set the charset used to decode the lines, UTF-8 by default.
+     * @param charset a {@link Charset} object.
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * The open method is used to request the object from the saved offset, if any, of the version of the object
+     * which was read before.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        position = executionContext.getLong(key(OFFSET_KEY), 0L);
+        lineNumber = executionContext.getInt(key(LINE_KEY), 0);
+        if (position > 0) {
+            System.out.println("Resuming " + resource.getDescription() + " at offset " + position + ", line " + lineNumber);
+        }
+        try {
+            HeadObjectResponse head = resource.head();
+            eTag = executionContext.getString(key(ETAG_KEY), head.eTag());
+            in = resource.getInputStream(position, head.contentLength(), eTag);
+        } catch (IOException | RuntimeException e) {
+            throw new ItemStreamException("Failed to open " + resource.getDescription(), e);
+        }
+        bufferPosition = 0;
+        bufferLimit = 0;
+    }
+
+    /**
+     * The update method is used to save the offset and the line number of the next line to read.
+     * @param executionContext a {@link ExecutionContext} object.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(key(OFFSET_KEY), position);
+        executionContext.putInt(key(LINE_KEY), lineNumber);
+        if (eTag != null) {
+            executionContext.putString(key(ETAG_KEY), eTag);
+        }
+    }
+
+    /**
+     * The close method is used to close the stream of the object.
+     */
+    @Override
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + resource.getDescription(), e);
+        } finally {
+            in = null;
+        }
+    }
+
+    /**
+     * The read method is used to read the next line of the object and map it.
+     * @return a T object, or null at the end of the object.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Override
+    public T read() throws Exception {
+        long lineStart;
+        int length;
+        do {
+            lineStart = position;
+            length = readLine();
+            if (length < 0) {
+                return null;
+            }
+            lineNumber++;
+        } while (length > 0 && line[0] == COMMENT);
+        String text = new String(line, 0, length, charset);
+        T item;
+        try {
+            item = lineMapper.mapLine(text, lineNumber);
+        } catch (Exception e) {
+            throw new LineParseException("Parsing error at line: " + lineNumber + " in " + resource.getDescription()
+                    + " at offset: " + lineStart, e, text, lineNumber, lineStart);
+        }
+        if (item instanceof ByteOffsetAware byteOffsetAware) {
+            byteOffsetAware.setByteOffset(lineStart);
+        }
+        return item;
+    }
+
+    /**
+     * The readLine method is used to copy the bytes of the next line, without the line separator, into the line buffer.
+     * @return an {@link int} value, the length of the line or -1 at the end of the object.
+     * @throws IOException an {@link IOException} object.
+     */
+    private int readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                int read = in.read(buffer, 0, buffer.length);
+                if (read <= 0) {
+                    return length == 0 ? -1 : trimCarriageReturn(length);
+                }
+                bufferPosition = 0;
+                bufferLimit = read;
+            }
+            while (bufferPosition < bufferLimit) {
+                byte b = buffer[bufferPosition++];
+                position++;
+                if (b == '\n') {
+                    return trimCarriageReturn(length);
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+    }
+
+    private static String key(String key) {
+        return NAME + "." + key;
+    }
+
+    private int trimCarriageReturn(int length) {
+        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+    }
+}
@@ -3,30 +3,57 @@ package com.filereader.app.processor;
 import org.springframework.core.io.AbstractResource;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
 import java.io.InputStream;
 
 /**
  * A Spring {@link AbstractResource} implementation for an S3 object.
+ * When ranged reads are enabled, an object larger than one part is read with concurrent byte-range GETs, all of
+ * them pinned to the ETag returned by the HEAD request.
+ * A byte range of the object may also be read on its own, so a restarted reader does not download the bytes
+ * which were already loaded.
  */
 public class S3Resource extends AbstractResource {
 
     private final S3Client s3Client;
     private final String bucketName;
     private final String fileName;
+    private final int partSize;
+    private final int concurrency;
+    private final int maxRetries;
 
     /**
-     * Creates a new {@link S3Resource}.
+     * Creates a new {@link S3Resource} read with a single GET.
      *
      * @param s3Client   the S3 client
      * @param bucketName the bucket name
      * @param fileName   the file name
      */
     public S3Resource(S3Client s3Client, String bucketName, String fileName) {
+        this(s3Client, bucketName, fileName, 0, 1, 0);
+    }
+
+    /**
+     * Creates a new {@link S3Resource} read with concurrent byte-range GETs.
+     *
+     * @param s3Client    the S3 client
+     * @param bucketName  the bucket name
+     * @param fileName    the file name
+     * @param partSize    the size of a byte range, 0 to read with a single GET
+     * @param concurrency the number of byte ranges downloaded in parallel
+     * @param maxRetries  the number of times a failed byte range is requested again
+     */
+    public S3Resource(S3Client s3Client, String bucketName, String fileName, int partSize, int concurrency, int maxRetries) {
         this.s3Client = s3Client;
         this.bucketName = bucketName;
         this.fileName = fileName;
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+        this.maxRetries = maxRetries;
     }
 
     /**
@@ -47,6 +74,13 @@ public class S3Resource extends AbstractResource {
      */
     @Override
     public InputStream getInputStream() throws IOException {
+        if (partSize > 0) {
+            HeadObjectResponse head = head();
+            if (head.contentLength() > partSize) {
+                return new RangedS3InputStream(s3Client, bucketName, fileName, head.eTag(), 0, head.contentLength(),
+                        partSize, concurrency, maxRetries);
+            }
+        }
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(fileName)
@@ -54,4 +88,89 @@ public class S3Resource extends AbstractResource {
 
         return s3Client.getObject(getObjectRequest);
     }
+
+    /**
+     * Returns the input stream for the bytes [start, end) of the S3 object, read with a ranged GET.
+     *
+     * @param start the offset of the first byte to read
+     * @param end   the offset right after the last byte to read, at most the size of the object
+     * @return the input stream, empty if the range is empty
+     * @throws IOException if the object cannot be read
+     */
+    public InputStream getInputStream(long start, long end) throws IOException {
+        return getInputStream(start, end, head().eTag());
+    }
+
+    /**
+     * Returns the input stream for the bytes [start, end) of the given version of the S3 object, read with ranged
+     * GETs conditional on its ETag.
+     *
+     * @param start the offset of the first byte to read
+     * @param end   the offset right after the last byte to read, at most the size of the object
+     * @param eTag  the ETag of the version of the object to read
+     * @return the input stream, empty if the range is empty
+     * @throws IOException if the object cannot be read, or was overwritten since that version
+     */
+    public InputStream getInputStream(long start, long end, String eTag) throws IOException {
+        if (start >= end) {
+            return InputStream.nullInputStream();
+        }
+        if (partSize > 0 && end - start > partSize) {
+            return new RangedS3InputStream(s3Client, bucketName, fileName, eTag, start, end, partSize,
+                    concurrency, maxRetries);
+        }
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(fileName)
+                    .range("bytes=" + start + "-" + (end - 1))
+                    .ifMatch(eTag)
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 412) {
+                throw new IOException("S3 object " + fileName + " was overwritten since it was first read", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the S3 object exists without reading it.
+     *
+     * @return true if the object exists
+     */
+    @Override
+    public boolean exists() {
+        try {
+            contentLength();
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the size of the S3 object without reading it.
+     *
+     * @return the size in bytes
+     */
+    @Override
+    public long contentLength() {
+        return head().contentLength();
+    }
+
+    /**
+     * Returns the metadata of the S3 object, including its size and ETag.
+     *
+     * @return the HEAD response of the object
+     */
+    public HeadObjectResponse head() {
+        return s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .build());
+    }
 }
@@ -0,0 +1,133 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.DatabaseConfiguration;
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.entity.TimeOrderedUuid;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * UpsertWriter class is used to write the data to database table with one batched INSERT ... ON DUPLICATE KEY UPDATE
+ * per chunk, so a record whose natural key already exists updates the existing row instead of adding a duplicate.
+ * The records of a chunk with the same natural key are merged in memory first, the last one wins. The natural key
+ * columns must match a unique index of the table, see the Liquibase changelog. The writer is lazy, so the natural
+ * key is only validated when the upsert writer type is selected.
+ */
+@Lazy
+@Component
+public class UpsertWriter implements ItemWriter<MyTest> {
+
+    /** The columns which can be part of the natural key, with the getter of their value. **/
+    private static final Map<String, Function<MyTest, String>> KEY_COLUMNS = Map.of(
+            "name", MyTest::getName,
+            "city", MyTest::getCity);
+
+    /** The JdbcTemplate class is used to execute the batched statements. **/
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean binaryIds;
+    private final List<Function<MyTest, String>> naturalKey;
+    private final String upsertSql;
+
+    /**
+     * The UpsertWriter constructor is used to build the statement for the configured natural key.
+     * @param jdbcTemplate a {@link JdbcTemplate} object.
+     * @param jobProperties a {@link JobProperties} object.
+     * @param databaseProperties a {@link DatabaseProperties} object.
+     */
+    public UpsertWriter(JdbcTemplate jdbcTemplate, JobProperties jobProperties, DatabaseProperties databaseProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.binaryIds = databaseProperties.isBinaryIds();
+        List<String> columns = jobProperties.getWriter().getNaturalKey().stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        if (columns.isEmpty() || !KEY_COLUMNS.keySet().containsAll(columns)) {
+            throw new IllegalArgumentException("The natural key must be one or more of " + KEY_COLUMNS.keySet()
+                    + " but was " + columns);
+        }
+        this.naturalKey = columns.stream().map(KEY_COLUMNS::get).toList();
+        String updates = KEY_COLUMNS.keySet().stream()
+                .filter(column -> !columns.contains(column))
+                .sorted()
+                .map(column -> column + " = VALUES(" + column + "), ")
+                .collect(Collectors.joining());
+        this.upsertSql = "INSERT INTO mytest (id, name, city, created_at, updated_at) VALUES (?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE " + updates + "updated_at = VALUES(updated_at)";
+    }
+
+    /**
+     * The write method is used to merge the records of the chunk by natural key and upsert them in one batch.
+     * @param chunk a {@link Chunk} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    @Transactional(transactionManager = DatabaseConfiguration.WRITER_TM)
+    @Override
+    public void write(Chunk<? extends MyTest> chunk) throws Exception {
+        List<MyTest> items = deduplicate(chunk.getItems());
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (MyTest item : items) {
+            if (item.getId() == null) {
+                item.setId(TimeOrderedUuid.next());
+            }
+            item.setCreatedAt(now);
+            item.setUpdatedAt(now);
+        }
+        jdbcTemplate.batchUpdate(upsertSql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                MyTest item = items.get(i);
+                ps.setObject(1, TimeOrderedUuid.toJdbcValue(item.getId(), binaryIds));
+                ps.setString(2, item.getName());
+                ps.setString(3, item.getCity());
+                ps.setTimestamp(4, timestamp);
+                ps.setTimestamp(5, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+
+    /**
+     * The deduplicate method is used to keep the last record of every natural key, in the order of their first record.
+     * @param items a {@link List} of {@link MyTest} objects.
+     * @return a {@link List} of {@link MyTest} objects.
+     */
+    List<MyTest> deduplicate(List<? extends MyTest> items) {
+        Map<List<String>, MyTest> byKey = new LinkedHashMap<>(items.size() * 2);
+        for (MyTest item : items) {
+            List<String> key = new ArrayList<>(naturalKey.size());
+            for (Function<MyTest, String> column : naturalKey) {
+                key.add(column.apply(item));
+            }
+            byKey.put(key, item);
+        }
+        return byKey.size() == items.size() ? new ArrayList<>(items) : new ArrayList<>(byKey.values());
+    }
+
+    String getUpsertSql() {
+        return upsertSql;
+    }
+}
@@ -0,0 +1,175 @@
+package com.filereader.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ArchiveQueue class is used to keep the pending archive moves across restarts. Every added and completed move is
+ * appended to the queue file as one JSON line, and the file is rewritten with the pending moves on load and
+ * truncated whenever no move is pending. Without a queue file the moves are kept in memory only.
+ */
+public class ArchiveQueue {
+
+    private static final String ADD = "add";
+    private static final String DONE = "done";
+
+    private final Path path;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** The pending moves by id, in the order they were added. **/
+    private final Map<String, ArchiveTask> pending = new LinkedHashMap<>();
+
+    private BufferedWriter writer;
+
+    /**
+     * The ArchiveQueue constructor is used to initialize the ArchiveQueue object.
+     * @param path a {@link String} object, the queue file, blank to keep the moves in memory only.
+     */
+    public ArchiveQueue(String path) {
+        this.path = StringUtils.isBlank(path) ? null : Paths.get(path);
+    }
+
+    /**
+     * The load method is used to read the pending moves of the queue file and compact it.
+     * @return a {@link List} of {@link ArchiveTask} objects.
+     */
+    public synchronized List<ArchiveTask> load() {
+        if (path != null && Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Entry entry = objectMapper.readValue(line, Entry.class);
+                        if (DONE.equals(entry.op())) {
+                            pending.remove(entry.task().id());
+                        } else {
+                            pending.put(entry.task().id(), entry.task());
+                        }
+                    } catch (IOException e) {
+                        // A record which was partially written when the process died is ignored.
+                        System.err.println("Skipping unreadable archive queue record: " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive queue: " + path, e);
+            }
+            rewrite();
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * The add method is used to record a pending move.
+     * @param task a {@link ArchiveTask} object.
+     */
+    public synchronized void add(ArchiveTask task) {
+        pending.put(task.id(), task);
+        append(new Entry(ADD, task));
+    }
+
+    /**
+     * The complete method is used to record that a move is done.
+     * @param task a {@link ArchiveTask} object.
+     */
+    public synchronized void complete(ArchiveTask task) {
+        pending.remove(task.id());
+        if (pending.isEmpty()) {
+            rewrite();
+        } else {
+            append(new Entry(DONE, task));
+        }
+    }
+
+    /**
+     * The close method is used to close the queue file.
+     */
+    public synchronized void close() {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close archive queue: " + e.getMessage());
+        }
+    }
+
+    private void append(Entry entry) {
+        if (path == null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive queue: " + path, e);
+        }
+    }
+
+    /**
+     * The rewrite method is used to replace the queue file with the pending moves.
+     */
+    private void rewrite() {
+        if (path == null) {
+            return;
+        }
+        close();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (ArchiveTask task : pending.values()) {
+                    out.write(objectMapper.writeValueAsString(new Entry(ADD, task)));
+                    out.newLine();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact archive queue: " + path, e);
+        }
+    }
+
+    /**
+     * ArchiveTask record holds a move of an S3 object to its archive or error key.
+     * @param id a {@link String} object.
+     * @param bucketName a {@link String} object.
+     * @param sourceKey a {@link String} object.
+     * @param targetKey a {@link String} object.
+     */
+    public record ArchiveTask(String id, String bucketName, String sourceKey, String targetKey) {
+    }
+
+    /**
+     * Entry record holds a line of the queue file.
+     * @param op a {@link String} object, add or done.
+     * @param task a {@link ArchiveTask} object.
+     */
+    private record Entry(String op, ArchiveTask task) {
+    }
+}
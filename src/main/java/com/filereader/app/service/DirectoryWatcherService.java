@@ -1,25 +1,36 @@
 package com.filereader.app.service;
 
+import com.filereader.app.config.props.WatcherProperties;
 import jakarta.annotation.PostConstruct;
-import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * DirectoryWatcherService class is used to watch the directory for new files and trigger the job.
+ * A file is dispatched once it has been quiet for the stability window, or as soon as its done marker
+ * (the file name followed by the marker suffix) arrives. A done marker which arrives before its data file is kept
+ * until the data file appears and is stable.
+ * The files already present at startup, and all files after an event overflow, are found by a reconciliation scan.
+ * Subdirectories, except the archive and error directories, are watched too if recursive watching is enabled.
  */
 @Service
 public class DirectoryWatcherService implements Runnable {
@@ -27,30 +38,60 @@ public class DirectoryWatcherService implements Runnable {
     // The WatchService class is used to watch the directory for new files.
     private final WatchService watchService;
 
-    // The JobLauncher class is used to launch the job.
-    private final JobLauncher jobLauncher;
-
-    // The Job class is used to define the job.
-    private final Job job;
+    // The JobDispatcher class is used to queue and run the jobs.
+    private final JobDispatcher jobDispatcher;
 
     // The inputDir is used to store the input directory path.
     private final Path inputDir;
 
+    // The archiveDir, errorDir and quarantineDir are never scanned nor watched.
+    private final Path archiveDir;
+    private final Path errorDir;
+    private final Path quarantineDir;
+
+    // The followed files are loaded by the FollowService, never as a whole.
+    private final Set<Path> followedFiles = new HashSet<>();
+
+    // The watcher properties.
+    private final WatcherProperties watcherProperties;
+
+    // The stability properties of the watcher.
+    private final WatcherProperties.Stability stability;
+
+    // The dispatched files which are still in the input directory, so they are not dispatched twice.
+    private final Set<Path> dispatched = new HashSet<>();
+
+    // The FileStabilityTracker class is used to hold back the files which are still being written.
+    private final FileStabilityTracker stabilityTracker;
+
     /**
      * The DirectoryWatcherService constructor is used to initialize the DirectoryWatcherService object.
      * @param inputDirectory a {@link String} object.
-     * @param jobLauncher a {@link JobLauncher} object.
-     * @param job a {@link Job} object.
+     * @param archiveDirectory a {@link String} object.
+     * @param errorDirectory a {@link String} object.
+     * @param quarantineDirectory a {@link String} object, blank if the skipped records are not quarantined.
+     * @param jobDispatcher a {@link JobDispatcher} object.
+     * @param watcherProperties a {@link WatcherProperties} object.
      * @throws IOException an {@link IOException} object.
      */
     @Autowired
     public DirectoryWatcherService(@Value("${com.file.location}") String inputDirectory,
-                                   JobLauncher jobLauncher, Job job) throws IOException {
+                                   @Value("${com.file.archive}") String archiveDirectory,
+                                   @Value("${com.file.error}") String errorDirectory,
+                                   @Value("${com.file.quarantine:}") String quarantineDirectory,
+                                   JobDispatcher jobDispatcher, WatcherProperties watcherProperties) throws IOException {
         this.watchService = FileSystems.getDefault().newWatchService();
         this.inputDir = Paths.get(inputDirectory);
-        this.jobLauncher = jobLauncher;
-        this.job = job;
-        this.inputDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        this.archiveDir = Paths.get(archiveDirectory).toAbsolutePath().normalize();
+        this.errorDir = Paths.get(errorDirectory).toAbsolutePath().normalize();
+        this.quarantineDir = quarantineDirectory.isBlank() ? null : Paths.get(quarantineDirectory).toAbsolutePath().normalize();
+        this.jobDispatcher = jobDispatcher;
+        this.watcherProperties = watcherProperties;
+        this.stability = watcherProperties.getStability();
+        this.stabilityTracker = new FileStabilityTracker(stability.getQuietMillis());
+        watcherProperties.getFollow().getFiles()
+                .forEach(file -> followedFiles.add(Paths.get(file.trim()).toAbsolutePath().normalize()));
+        register(inputDir);
     }
 
     /**
@@ -68,19 +109,33 @@ public class DirectoryWatcherService implements Runnable {
     @Override
     public void run() {
         WatchKey key;
+        boolean scanPending = watcherProperties.isScanOnStartup();
         while (true) {
             try {
-                key = watchService.take();
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-
-                    if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-                        Path filePath = inputDir.resolve((Path) event.context());
-                        System.out.println("New file detected: " + filePath);
-                        triggerJob(filePath.toString(), filePath.getFileName().toString());
+                if (scanPending) {
+                    scanPending = false;
+                    reconcile(inputDir);
+                }
+                key = watchService.poll(stability.getPollMillis(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        WatchEvent.Kind<?> kind = event.kind();
+
+                        if (kind == StandardWatchEventKinds.OVERFLOW) {
+                            System.out.println("Watch events lost, rescanning: " + inputDir);
+                            reconcile(inputDir);
+                        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                            Path deleted = directory.resolve((Path) event.context());
+                            dispatched.remove(deleted);
+                            stabilityTracker.forgetMarker(deleted);
+                        } else {
+                            onFileEvent(directory.resolve((Path) event.context()));
+                        }
                     }
+                    key.reset();
                 }
-                key.reset();
+                dispatchStable();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
@@ -92,21 +147,145 @@ public class DirectoryWatcherService implements Runnable {
     }
 
     /**
-     * The triggerJob method is used to trigger the job.
-     * @param filePath a {@link String} object.
-     * @param fileName a {@link String} object.
+     * The dispatchStable method is used to queue the jobs of the files which became stable, deleting the done
+     * marker which arrived before the file, if any.
+     * @throws Exception an {@link Exception} object.
+     */
+    void dispatchStable() throws Exception {
+        for (Path filePath : stabilityTracker.poll()) {
+            Path marker = stabilityTracker.removeOrphanMarker(filePath);
+            if (marker != null) {
+                Files.deleteIfExists(marker);
+            }
+            triggerJob(filePath);
+        }
+    }
+
+    /**
+     * The onFileEvent method is used to track a created or modified file until it is stable, or to dispatch the
+     * data file of a done marker right away. The done marker of a data file which does not exist yet is kept, and
+     * the data file is tracked once it appears.
+     * @param filePath a {@link Path} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    void onFileEvent(Path filePath) throws Exception {
+        if (Files.isDirectory(filePath)) {
+            if (watcherProperties.isRecursive() && !isExcluded(filePath)) {
+                // Files may have been created before the new directory was registered.
+                register(filePath);
+                reconcile(filePath);
+            }
+            return;
+        }
+        if (dispatched.contains(filePath)) {
+            return;
+        }
+        String fileName = filePath.getFileName().toString();
+        String markerSuffix = stability.getDoneMarkerSuffix();
+        if (markerSuffix != null && !markerSuffix.isEmpty() && fileName.endsWith(markerSuffix)) {
+            Path dataFile = filePath.resolveSibling(fileName.substring(0, fileName.length() - markerSuffix.length()));
+            if (dispatched.contains(dataFile)) {
+                Files.deleteIfExists(filePath);
+            } else if (Files.isRegularFile(dataFile)) {
+                stabilityTracker.remove(dataFile);
+                stabilityTracker.removeOrphanMarker(dataFile);
+                Files.deleteIfExists(filePath);
+                System.out.println("Done marker detected: " + dataFile);
+                triggerJob(dataFile);
+            } else if (stabilityTracker.addOrphanMarker(dataFile, filePath)) {
+                System.out.println("Done marker detected before its data file, waiting for it: " + dataFile);
+            }
+        } else if ((!stability.isRequireDoneMarker() || stabilityTracker.hasOrphanMarker(filePath))
+                && stabilityTracker.track(filePath)) {
+            System.out.println("New file detected: " + filePath);
+        }
+    }
+
+    /**
+     * The reconcile method is used to enumerate the pending files of the directory, oldest first, and pass them
+     * through the same path as the watch events. Dispatched files which no longer exist are forgotten.
+     * @param directory a {@link Path} object.
+     * @throws InterruptedException if interrupted while waiting.
      */
-    private void triggerJob(String filePath, String fileName) {
+    void reconcile(Path directory) throws InterruptedException {
+        dispatched.removeIf(filePath -> !Files.exists(filePath));
+        List<PendingFile> pendingFiles = new ArrayList<>();
+        int maxDepth = watcherProperties.isRecursive() ? Integer.MAX_VALUE : 1;
+        try (Stream<Path> paths = Files.walk(directory, maxDepth)) {
+            paths.filter(filePath -> !filePath.equals(directory))
+                    .filter(filePath -> !isExcluded(filePath))
+                    .forEach(filePath -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+                            if (attributes.isRegularFile()) {
+                                pendingFiles.add(new PendingFile(filePath, attributes.lastModifiedTime().toMillis()));
+                            } else if (attributes.isDirectory() && watcherProperties.isRecursive()) {
+                                register(filePath);
+                            }
+                        } catch (IOException e) {
+                            System.err.println("Failed to scan " + filePath + ": " + e.getMessage());
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to scan the directory " + directory + ": " + e.getMessage());
+        }
+        pendingFiles.sort(Comparator.comparingLong(PendingFile::modified));
+        if (!pendingFiles.isEmpty()) {
+            System.out.println("Found " + pendingFiles.size() + " pending files in " + directory);
+        }
+        for (PendingFile pendingFile : pendingFiles) {
+            try {
+                onFileEvent(pendingFile.path());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                System.err.println("Failed to queue " + pendingFile.path() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The register method is used to watch the directory for created, modified and deleted files.
+     * @param directory a {@link Path} object.
+     */
+    private void register(Path directory) {
         try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addString("fileName", fileName)
-                    .addString("filePath", filePath)
-                    .addLong("time", System.currentTimeMillis())
-                    .toJobParameters();
-            jobLauncher.run(job, jobParameters);
-        } catch (Exception e) {
-            // Exception handling
-            System.err.println("Failed to start the job: " + e.getMessage());
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("Failed to watch the directory " + directory + ": " + e.getMessage());
         }
     }
+
+    /**
+     * The isExcluded method is used to check whether the path is in the archive, error or quarantine directory, or
+     * is a followed file.
+     * @param filePath a {@link Path} object.
+     * @return a {@link boolean} value.
+     */
+    private boolean isExcluded(Path filePath) {
+        Path path = filePath.toAbsolutePath().normalize();
+        return path.startsWith(archiveDir) || path.startsWith(errorDir)
+                || (quarantineDir != null && path.startsWith(quarantineDir)) || followedFiles.contains(path);
+    }
+
+    /**
+     * The triggerJob method is used to queue the job of the file, grouped by its directory. It waits while the
+     * dispatcher queue is full. The job of a file found again by the reconciliation scan after a restart of the
+     * process has the same identifying parameters, so it restarts the interrupted job instance.
+     * @param filePath a {@link Path} object.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void triggerJob(Path filePath) throws InterruptedException {
+        dispatched.add(filePath);
+        jobDispatcher.submit(String.valueOf(filePath.getParent()), JobDispatcher.fileJobParameters(filePath));
+    }
+
+    /**
+     * PendingFile record holds a file found by the reconciliation scan and its modification time.
+     * @param path a {@link Path} object.
+     * @param modified a {@link long} value.
+     */
+    private record PendingFile(Path path, long modified) {
+    }
 }
@@ -0,0 +1,228 @@
+package com.filereader.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filereader.app.config.props.JobProperties;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * FileRegistry class is used to remember the fingerprints of the loaded files, so a file dropped or notified
+ * again is not loaded twice. A local file is fingerprinted by its size and SHA-256 hash, an S3 object by its size
+ * and ETag. Every loaded file is appended to the store file as one JSON line, or kept in memory only when no store
+ * file is configured. A file is reserved while a job loads it, so a concurrent job of the same file is skipped.
+ */
+@Service
+public class FileRegistry {
+
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+    private final boolean enabled;
+    private final Path storeFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** The loaded files by fingerprint. **/
+    private final Map<String, LoadedFile> loaded = new HashMap<>();
+
+    /** The files being loaded by fingerprint, in memory only. **/
+    private final Map<String, String> loading = new HashMap<>();
+
+    private BufferedWriter writer;
+
+    /**
+     * The FileRegistry constructor is used to read the loaded files of the store file.
+     * @param jobProperties a {@link JobProperties} object.
+     */
+    public FileRegistry(JobProperties jobProperties) {
+        JobProperties.Registry registry = jobProperties.getRegistry();
+        this.enabled = registry.isEnabled();
+        this.storeFile = StringUtils.isBlank(registry.getStoreFile()) ? null : Paths.get(registry.getStoreFile());
+        load();
+    }
+
+    /**
+     * The isEnabled method is used to check whether already loaded files are skipped.
+     * @return a {@link boolean} value.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The find method is used to get the loaded file with the given fingerprint.
+     * @param fingerprint a {@link String} object.
+     * @return a {@link LoadedFile} object, null if no such file was loaded.
+     */
+    public synchronized LoadedFile find(String fingerprint) {
+        return loaded.get(fingerprint);
+    }
+
+    /**
+     * The reserve method is used to take the file with the given fingerprint for loading, unless it was already
+     * loaded or is being loaded by another job.
+     * @param fingerprint a {@link String} object.
+     * @param file a {@link String} object, the path of the file or the bucket and key of the object.
+     * @return a {@link boolean} value, true if the caller now loads the file.
+     */
+    public synchronized boolean reserve(String fingerprint, String file) {
+        return !loaded.containsKey(fingerprint) && loading.putIfAbsent(fingerprint, file) == null;
+    }
+
+    /**
+     * The isLoading method is used to check whether the file with the given fingerprint is being loaded.
+     * @param fingerprint a {@link String} object.
+     * @return a {@link boolean} value.
+     */
+    public synchronized boolean isLoading(String fingerprint) {
+        return loading.containsKey(fingerprint);
+    }
+
+    /**
+     * The loadingFile method is used to get the file which is being loaded with the given fingerprint.
+     * @param fingerprint a {@link String} object.
+     * @return a {@link String} object, null if no file with this fingerprint is being loaded.
+     */
+    public synchronized String loadingFile(String fingerprint) {
+        return loading.get(fingerprint);
+    }
+
+    /**
+     * The release method is used to give up the reservation of a file which was not loaded, so it can be loaded again.
+     * @param fingerprint a {@link String} object.
+     */
+    public synchronized void release(String fingerprint) {
+        loading.remove(fingerprint);
+    }
+
+    /**
+     * The record method is used to remember a loaded file and its row count, ending its reservation.
+     * @param fingerprint a {@link String} object.
+     * @param fileName a {@link String} object.
+     * @param rows a {@link long} value.
+     */
+    public synchronized void record(String fingerprint, String fileName, long rows) {
+        LoadedFile loadedFile = new LoadedFile(fingerprint, fileName, rows, LocalDateTime.now().toString());
+        loaded.put(fingerprint, loadedFile);
+        loading.remove(fingerprint);
+        if (storeFile == null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Path parent = storeFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(storeFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(loadedFile));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write file registry: " + storeFile, e);
+        }
+    }
+
+    /**
+     * The close method is used to close the store file.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close file registry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The fingerprint method is used to compute the fingerprint of a local file from its size and SHA-256 hash.
+     * @param filePath a {@link Path} object.
+     * @return a {@link String} object.
+     * @throws IOException an {@link IOException} object.
+     */
+    public static String fingerprint(Path filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return "sha256:" + size + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The fingerprint method is used to compute the fingerprint of an S3 object from its size and ETag.
+     * @param size a {@link long} value.
+     * @param eTag a {@link String} object.
+     * @return a {@link String} object.
+     */
+    public static String fingerprint(long size, String eTag) {
+        return "etag:" + size + ":" + StringUtils.strip(eTag, "\"");
+    }
+
+    private void load() {
+        if (storeFile == null || !Files.exists(storeFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(storeFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    LoadedFile loadedFile = objectMapper.readValue(line, LoadedFile.class);
+                    loaded.put(loadedFile.fingerprint(), loadedFile);
+                } catch (IOException e) {
+                    // A record which was partially written when the process died is ignored.
+                    System.err.println("Skipping unreadable file registry record: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file registry: " + storeFile, e);
+        }
+    }
+
+    /**
+     * LoadedFile record holds a loaded file.
+     * @param fingerprint a {@link String} object.
+     * @param fileName a {@link String} object.
+     * @param rows a {@link long} value, the number of written rows.
+     * @param loadedAt a {@link String} object, the local date and time of the load.
+     */
+    public record LoadedFile(String fingerprint, String fileName, long rows, String loadedAt) {
+    }
+}
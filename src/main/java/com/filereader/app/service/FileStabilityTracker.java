@@ -0,0 +1,145 @@
+package com.filereader.app.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FileStabilityTracker class is used to hold back the detected files until they have been quiet, i.e. kept the same
+ * size and modification time, for the configured window. Repeated events for a file are coalesced into one entry.
+ * A done marker which arrives before its data file is kept as an orphan marker until the data file appears and is
+ * stable. It is not thread-safe and is used by the watcher thread only.
+ */
+public class FileStabilityTracker {
+
+    /** The time a file has to stay unchanged before it is ready. **/
+    private final long quietMillis;
+
+    /** The tracked files, in the order they were detected. **/
+    private final Map<Path, Observation> pending = new LinkedHashMap<>();
+
+    /** The done markers which arrived before their data file, by data file. **/
+    private final Map<Path, Path> orphanMarkers = new HashMap<>();
+
+    /**
+     * The FileStabilityTracker constructor is used to initialize the FileStabilityTracker object.
+     * @param quietMillis a {@link long} value.
+     */
+    public FileStabilityTracker(long quietMillis) {
+        this.quietMillis = quietMillis;
+    }
+
+    /**
+     * The track method is used to start tracking a file, or to restart its quiet window if already tracked.
+     * @param filePath a {@link Path} object.
+     * @return a {@link boolean} value, true if the file was not tracked yet.
+     */
+    public boolean track(Path filePath) {
+        Observation observation = observe(filePath, System.currentTimeMillis());
+        if (observation == null) {
+            return false;
+        }
+        return pending.put(filePath, observation) == null;
+    }
+
+    /**
+     * The remove method is used to stop tracking a file.
+     * @param filePath a {@link Path} object.
+     */
+    public void remove(Path filePath) {
+        pending.remove(filePath);
+    }
+
+    /**
+     * The poll method is used to take the files which have been quiet for the window. Files which disappeared are
+     * dropped, files which changed since the last poll start a new window.
+     * @return a {@link List} of {@link Path} objects.
+     */
+    public List<Path> poll() {
+        long now = System.currentTimeMillis();
+        List<Path> ready = new ArrayList<>();
+        Iterator<Map.Entry<Path, Observation>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Observation> entry = iterator.next();
+            Observation last = entry.getValue();
+            Observation current = observe(entry.getKey(), now);
+            if (current == null) {
+                iterator.remove();
+            } else if (current.size() != last.size() || current.modified() != last.modified()) {
+                entry.setValue(current);
+            } else if (now - last.since() >= quietMillis) {
+                iterator.remove();
+                ready.add(entry.getKey());
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * The addOrphanMarker method is used to keep the done marker of a data file which does not exist yet.
+     * @param dataFile a {@link Path} object.
+     * @param marker a {@link Path} object.
+     * @return a {@link boolean} value, true if the marker was not kept yet.
+     */
+    public boolean addOrphanMarker(Path dataFile, Path marker) {
+        return orphanMarkers.put(dataFile, marker) == null;
+    }
+
+    /**
+     * The hasOrphanMarker method is used to check whether the done marker of the data file arrived before it.
+     * @param dataFile a {@link Path} object.
+     * @return a {@link boolean} value.
+     */
+    public boolean hasOrphanMarker(Path dataFile) {
+        return orphanMarkers.containsKey(dataFile);
+    }
+
+    /**
+     * The removeOrphanMarker method is used to stop keeping the done marker of the data file.
+     * @param dataFile a {@link Path} object.
+     * @return a {@link Path} object, the marker, or null if the data file had no orphan marker.
+     */
+    public Path removeOrphanMarker(Path dataFile) {
+        return orphanMarkers.remove(dataFile);
+    }
+
+    /**
+     * The forgetMarker method is used to stop keeping a done marker which was deleted.
+     * @param marker a {@link Path} object.
+     */
+    public void forgetMarker(Path marker) {
+        orphanMarkers.values().remove(marker);
+    }
+
+    private Observation observe(Path filePath, long now) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new Observation(attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to read the attributes of " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Observation record holds the size and modification time of a file and since when they have not changed.
+     * @param size a {@link long} value.
+     * @param modified a {@link long} value.
+     * @param since a {@link long} value.
+     */
+    private record Observation(long size, long modified, long since) {
+    }
+}
@@ -0,0 +1,459 @@
+package com.filereader.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filereader.app.config.props.WatcherProperties;
+import com.filereader.app.processor.DecompressingResource;
+import com.filereader.app.processor.FileRangePartitioner;
+import com.filereader.app.processor.QuarantineWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * FollowService class is used to tail the files which are appended to continuously and load their new lines in
+ * micro-batches. Every pollMillis, the complete lines appended to a followed file since the loaded offset are loaded
+ * by a job over that byte range, through the same reader, processor and writer as a whole file, and the loaded
+ * offset moves to the end of the range once the job completes. A failed range is restarted with the same job
+ * parameters, so its reader resumes from its last commit.
+ * A file which is truncated is loaded again from its start: it is smaller than the loaded offset, or its first
+ * bytes no longer match the fingerprint saved with the offset, which also catches a copy-truncate followed by
+ * appends past the offset between two polls. A file which is rotated (renamed and recreated) is recognized by its
+ * file key: the rest of the renamed file is loaded first if it is still in the same directory, then the new file
+ * from its start.
+ * A compressed or quarantine file cannot be read from a byte range, so it cannot be followed.
+ */
+@Profile("filesystem")
+@Service
+public class FollowService implements Runnable {
+
+    public static final String GENERATION_KEY = "generation";
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    /** The number of first bytes of the file the head fingerprint is computed over. **/
+    private static final int HEAD_SIZE = 1024;
+
+    // The JobLauncher class is used to launch the job.
+    private final JobLauncher jobLauncher;
+
+    // The Job class is used to define the job.
+    private final Job job;
+
+    /** The follow properties of the watcher. **/
+    private final WatcherProperties.Follow follow;
+
+    /** The file the loaded offsets are kept in, null to keep them in memory only. **/
+    private final Path checkpointFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** The state of each followed file. **/
+    private final Map<Path, Checkpoint> checkpoints = new LinkedHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * The FollowService constructor is used to initialize the FollowService object.
+     * @param jobLauncher a {@link JobLauncher} object.
+     * @param job a {@link Job} object.
+     * @param watcherProperties a {@link WatcherProperties} object.
+     */
+    public FollowService(JobLauncher jobLauncher, Job job, WatcherProperties watcherProperties) {
+        this.jobLauncher = jobLauncher;
+        this.job = job;
+        this.follow = watcherProperties.getFollow();
+        this.checkpointFile = StringUtils.isBlank(follow.getCheckpointFile()) ? null : Paths.get(follow.getCheckpointFile());
+        for (String file : follow.getFiles()) {
+            Path filePath = Paths.get(file.trim());
+            if (QuarantineWriter.isQuarantineFile(filePath.toString())) {
+                throw new IllegalArgumentException("A quarantine file cannot be followed: " + filePath);
+            }
+            checkpoints.put(filePath, new Checkpoint(filePath.toString(), null, 0, 0, 0, null));
+        }
+        load();
+    }
+
+    /**
+     * The start method is used to start the thread following the files, if any.
+     */
+    @PostConstruct
+    public void start() {
+        if (checkpoints.isEmpty()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "file-follower");
+        thread.start();
+    }
+
+    /**
+     * The stop method is used to stop following the files, once the running job, if any, ends.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The run method is used to load the appended lines of the followed files every pollMillis.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            poll();
+            try {
+                Thread.sleep(follow.getPollMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * The poll method is used to load the lines appended to each followed file since the last poll.
+     */
+    void poll() {
+        for (Path filePath : checkpoints.keySet()) {
+            try {
+                poll(filePath);
+            } catch (Exception e) {
+                System.err.println("Error in following " + filePath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The poll method is used to load the lines appended to the file, after handling its rotation or truncation.
+     * @param filePath a {@link Path} object.
+     * @throws IOException an {@link IOException} object.
+     */
+    private void poll(Path filePath) throws IOException {
+        Checkpoint checkpoint = checkpoints.get(filePath);
+        BasicFileAttributes attributes = attributes(filePath);
+        String fileKey = attributes == null ? null : fileKey(attributes);
+        if (checkpoint.fileKey() != null && !checkpoint.fileKey().equals(fileKey)) {
+            Path rotated = findRotated(filePath, checkpoint.fileKey());
+            if (rotated != null) {
+                // Everything left in a rotated file is complete, including a last line without separator.
+                if (!load(filePath, rotated, checkpoint, Files.size(rotated))) {
+                    return;
+                }
+                System.out.println("Followed file " + filePath + " was rotated to " + rotated);
+            } else if (attributes == null) {
+                // The file may be recreated by the next poll.
+                return;
+            } else {
+                System.err.println("Followed file " + filePath + " was rotated, its rotated file was not found from offset "
+                        + checkpoint.offset());
+            }
+            checkpoint = save(filePath, new Checkpoint(filePath.toString(), null, checkpoint.generation() + 1, 0, 0,
+                    null));
+        }
+        if (attributes == null) {
+            return;
+        }
+        if (checkpoint.fileKey() == null) {
+            if (DecompressingResource.detect(filePath) != DecompressingResource.Compression.NONE) {
+                System.err.println("Followed file " + filePath
+                        + " is compressed and cannot be read from a byte range, it is not loaded");
+                return;
+            }
+            checkpoint = save(filePath, new Checkpoint(filePath.toString(), fileKey, checkpoint.generation(),
+                    checkpoint.offset(), checkpoint.pendingEnd(), checkpoint.head()));
+        }
+        if (attributes.size() < checkpoint.offset() || !isSameHead(filePath, checkpoint.head())) {
+            System.out.println("Followed file " + filePath + " was truncated, loading it from its start");
+            checkpoint = save(filePath, new Checkpoint(filePath.toString(), fileKey, checkpoint.generation() + 1, 0, 0,
+                    null));
+        }
+        long end = checkpoint.pendingEnd();
+        if (end <= checkpoint.offset()) {
+            end = lastLineEnd(filePath, checkpoint.offset(),
+                    Math.min(attributes.size(), checkpoint.offset() + follow.getMaxBatchBytes()), attributes.size());
+        }
+        if (end > checkpoint.offset()) {
+            load(filePath, filePath, checkpoint, end);
+        }
+    }
+
+    /**
+     * The load method is used to run the job over the byte range [offset, end) of the file and move the loaded
+     * offset to its end once the job completes.
+     * @param followed a {@link Path} object, the followed file.
+     * @param filePath a {@link Path} object, the followed file or its rotated file.
+     * @param checkpoint a {@link Checkpoint} object.
+     * @param end a {@link long} value.
+     * @return a {@link boolean} value, whether the range is loaded.
+     */
+    private boolean load(Path followed, Path filePath, Checkpoint checkpoint, long end) {
+        if (end <= checkpoint.offset()) {
+            return true;
+        }
+        if (checkpoint.pendingEnd() != end) {
+            String head;
+            try {
+                head = head(filePath, end);
+            } catch (IOException e) {
+                System.err.println("Failed to read the head of " + filePath + ": " + e.getMessage());
+                return false;
+            }
+            checkpoint = save(followed, new Checkpoint(checkpoint.path(), checkpoint.fileKey(), checkpoint.generation(),
+                    checkpoint.offset(), end, head));
+        }
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("fileName", filePath.getFileName().toString())
+                .addString("filePath", filePath.toString())
+                .addLong(FileRangePartitioner.START_OFFSET_KEY, checkpoint.offset())
+                .addLong(FileRangePartitioner.END_OFFSET_KEY, end)
+                .addLong(GENERATION_KEY, checkpoint.generation())
+                .toJobParameters();
+        try {
+            JobExecution jobExecution = jobLauncher.run(job, jobParameters);
+            if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+                System.err.println("Failed to load bytes " + checkpoint.offset() + "-" + end + " of " + filePath
+                        + ", retrying: " + jobExecution.getStatus());
+                return false;
+            }
+        } catch (JobInstanceAlreadyCompleteException e) {
+            // The range was loaded, but the process stopped before its offset was saved.
+        } catch (Exception e) {
+            System.err.println("Failed to start the job of " + filePath + ": " + e.getMessage());
+            return false;
+        }
+        save(followed, new Checkpoint(checkpoint.path(), checkpoint.fileKey(), checkpoint.generation(), end, 0,
+                checkpoint.head()));
+        return true;
+    }
+
+    /**
+     * The lastLineEnd method is used to find the offset right after the last line separator of the byte range
+     * [start, limit), or after the first one up to the size of the file if the range holds no line separator.
+     * @param filePath a {@link Path} object.
+     * @param start a {@link long} value.
+     * @param limit a {@link long} value.
+     * @param size a {@link long} value.
+     * @return a {@link long} value, the start if no line is complete.
+     * @throws IOException an {@link IOException} object.
+     */
+    static long lastLineEnd(Path filePath, long start, long limit, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long position = limit;
+            while (position > start) {
+                int length = (int) Math.min(SCAN_BUFFER_SIZE, position - start);
+                buffer.clear().limit(length);
+                int read = channel.read(buffer, position - length);
+                for (int i = read - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return position - length + i + 1;
+                    }
+                }
+                position -= length;
+            }
+            // A line longer than the largest batch is loaded on its own.
+            position = limit;
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return start;
+        }
+    }
+
+    /**
+     * The head method is used to compute the fingerprint of the first bytes of the file, up to the given end.
+     * @param filePath a {@link Path} object.
+     * @param end a {@link long} value.
+     * @return a {@link String} object, the number of bytes and their checksum.
+     * @throws IOException an {@link IOException} object.
+     */
+    static String head(Path filePath, long end) throws IOException {
+        int length = (int) Math.min(HEAD_SIZE, end);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            int read;
+            do {
+                read = channel.read(buffer, buffer.position());
+            } while (read > 0 && buffer.hasRemaining());
+            buffer.flip();
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer);
+            return length + ":" + Long.toHexString(checksum.getValue());
+        }
+    }
+
+    /**
+     * The isSameHead method is used to check whether the first bytes of the file still match the fingerprint saved
+     * with the offset, a copy-truncate rewriting them even when the file grows past the offset again.
+     * @param filePath a {@link Path} object.
+     * @param head a {@link String} object, null if no fingerprint was saved.
+     * @return a {@link boolean} value.
+     * @throws IOException an {@link IOException} object.
+     */
+    private static boolean isSameHead(Path filePath, String head) throws IOException {
+        if (head == null) {
+            return true;
+        }
+        long length = Long.parseLong(head.substring(0, head.indexOf(':')));
+        return head.equals(head(filePath, length));
+    }
+
+    /**
+     * The findRotated method is used to find the file of the directory which has the given file key.
+     * @param filePath a {@link Path} object, the followed file.
+     * @param fileKey a {@link String} object.
+     * @return a {@link Path} object, null if not found.
+     */
+    private Path findRotated(Path filePath, String fileKey) {
+        Path directory = filePath.toAbsolutePath().getParent();
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> {
+                BasicFileAttributes attributes = attributes(path);
+                return attributes != null && attributes.isRegularFile() && fileKey.equals(fileKey(attributes));
+            }).findFirst().orElse(null);
+        } catch (IOException e) {
+            System.err.println("Failed to scan the directory " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static BasicFileAttributes attributes(Path filePath) {
+        try {
+            return Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the attributes of " + filePath, e);
+        }
+    }
+
+    /**
+     * The fileKey method is used to identify the file across renames, by its inode if the file system has one.
+     * @param attributes a {@link BasicFileAttributes} object.
+     * @return a {@link String} object.
+     */
+    private static String fileKey(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey.toString() : "created:" + attributes.creationTime().toMillis();
+    }
+
+    /**
+     * The save method is used to keep the checkpoint of the followed file and rewrite the checkpoint file.
+     * @param filePath a {@link Path} object.
+     * @param checkpoint a {@link Checkpoint} object.
+     * @return a {@link Checkpoint} object, the saved checkpoint.
+     */
+    private Checkpoint save(Path filePath, Checkpoint checkpoint) {
+        checkpoints.put(filePath, checkpoint);
+        if (checkpointFile == null) {
+            return checkpoint;
+        }
+        try {
+            Path parent = checkpointFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Checkpoint value : checkpoints.values()) {
+                    writer.write(objectMapper.writeValueAsString(value));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write follow checkpoint: " + checkpointFile, e);
+        }
+        return checkpoint;
+    }
+
+    private void load() {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Checkpoint checkpoint = objectMapper.readValue(line, Checkpoint.class);
+                Path filePath = Paths.get(checkpoint.path());
+                // The files which are no longer followed are forgotten.
+                if (checkpoints.containsKey(filePath)) {
+                    checkpoints.put(filePath, checkpoint);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read follow checkpoint: " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * The checkpoints method is used to get the checkpoints of the followed files.
+     * @return a {@link List} of {@link Checkpoint} objects.
+     */
+    List<Checkpoint> checkpoints() {
+        return List.copyOf(checkpoints.values());
+    }
+
+    /**
+     * Checkpoint record holds the state of a followed file.
+     * @param path a {@link String} object, the followed file.
+     * @param fileKey a {@link String} object, the key of the file the offset belongs to, null until first seen.
+     * @param generation a {@link long} value, incremented every time the file is rotated or truncated.
+     * @param offset a {@link long} value, the offset right after the last loaded line.
+     * @param pendingEnd a {@link long} value, the end of the range being loaded, 0 if none.
+     * @param head a {@link String} object, the fingerprint of the first bytes of the loaded range, null if none.
+     */
+    public record Checkpoint(String path, String fileKey, long generation, long offset, long pendingEnd, String head) {
+    }
+}
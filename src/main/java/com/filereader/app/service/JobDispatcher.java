@@ -0,0 +1,334 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.config.props.WatcherProperties;
+import com.filereader.app.processor.JobCompletionNotificationListener;
+import com.filereader.app.processor.MultiFileItemReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JobDispatcher class is used to queue the jobs of the detected files and run them on a bounded pool.
+ * Jobs are queued per group (the directory of the file) and the groups are served round-robin, so a directory
+ * receiving many files does not starve the others. Submitting blocks while the queue is full.
+ * With coalescing enabled, the small files of a group which are queued, or which arrive within the window, are
+ * loaded by a single job. The size of a file is read when it is submitted, never while holding the lock. The files
+ * such a job did not read because it failed are queued again to be loaded one job each, so the worker frees its
+ * slot for the next job instead of running them itself.
+ * A job is identified by its files and their size and modification time, never by its launch time, so launching
+ * again the job of a file which was not loaded, after a failure or a restart of the process, restarts its job
+ * instance from its last commit instead of loading it again from its start.
+ */
+@RequiredArgsConstructor
+@Service
+public class JobDispatcher {
+
+    public static final String FILE_SIZE_KEY = "fileSize";
+    public static final String FILE_MODIFIED_KEY = "fileModified";
+    public static final String FILE_VERSIONS_KEY = "fileVersions";
+
+    // The JobLauncher class is used to launch the job.
+    private final JobLauncher jobLauncher;
+
+    // The Job class is used to define the job.
+    private final Job job;
+
+    /** The WatcherProperties class is used to read the dispatcher properties. **/
+    private final WatcherProperties watcherProperties;
+
+    /** The JobProperties class is used to read the coalesce properties. **/
+    private final JobProperties jobProperties;
+
+    /** The queues of pending jobs per group. **/
+    private final Map<String, Deque<Pending>> queues = new HashMap<>();
+
+    /** The groups having pending jobs, in the order they are served. **/
+    private final Deque<String> groups = new ArrayDeque<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+
+    private ExecutorService workers;
+
+    /**
+     * The start method is used to start the workers which run the queued jobs.
+     */
+    @PostConstruct
+    public void start() {
+        WatcherProperties.Dispatch dispatch = watcherProperties.getDispatch();
+        ThreadFactory threadFactory = dispatch.isVirtualThreads()
+                ? Thread.ofVirtual().name("job-dispatcher-", 0).factory()
+                : Thread.ofPlatform().name("job-dispatcher-", 0).factory();
+        workers = Executors.newFixedThreadPool(dispatch.getPoolSize(), threadFactory);
+        for (int i = 0; i < dispatch.getPoolSize(); i++) {
+            workers.submit(this::work);
+        }
+    }
+
+    /**
+     * The stop method is used to stop the workers.
+     */
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The submit method is used to queue a job, waiting while the queue is full.
+     * @param group a {@link String} object, the group the job is served with.
+     * @param jobParameters a {@link JobParameters} object.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void submit(String group, JobParameters jobParameters) throws InterruptedException {
+        submit(group, new Pending(jobParameters, fileSize(jobParameters)), true);
+    }
+
+    /**
+     * The submit method is used to queue a job, waiting while the queue is full if asked to.
+     * @param group a {@link String} object, the group the job is served with.
+     * @param pending a {@link Pending} object.
+     * @param wait a {@link boolean} value, false for a job which was already admitted once, so a worker queueing it
+     *             never waits for the workers to free a slot.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void submit(String group, Pending pending, boolean wait) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (wait && size >= watcherProperties.getDispatch().getQueueCapacity()) {
+                notFull.await();
+            }
+            Deque<Pending> queue = queues.get(group);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(group, queue);
+                groups.addLast(group);
+            }
+            queue.addLast(pending);
+            size++;
+            // A worker coalescing the files of another group may be waiting too.
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The take method is used to take the next job of the next group, waiting while the queue is empty.
+     * @return a {@link JobParameters} object.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private JobParameters take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            String group = groups.pollFirst();
+            Deque<Pending> queue = queues.get(group);
+            Pending pending = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(group);
+            } else {
+                groups.addLast(group);
+            }
+            size--;
+            notFull.signal();
+            if (pending.bytes() >= 0) {
+                return coalesce(group, pending);
+            }
+            return pending.jobParameters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The coalesce method is used to take the next small files of the group, waiting for them up to the window,
+     * and to merge them with the first one into the parameters of a single job. It is called holding the lock.
+     * @param group a {@link String} object.
+     * @param pending a {@link Pending} object, the job of a small file.
+     * @return a {@link JobParameters} object, the first one if no other file was taken.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private JobParameters coalesce(String group, Pending pending) throws InterruptedException {
+        JobProperties.Coalesce coalesce = jobProperties.getCoalesce();
+        JobParameters first = pending.jobParameters();
+        List<String> files = new ArrayList<>(List.of(first.getString("filePath")));
+        List<String> versions = new ArrayList<>(List.of(version(first)));
+        long bytes = pending.bytes();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesce.getWindowMillis());
+        while (files.size() < coalesce.getMaxFiles()) {
+            Deque<Pending> queue = queues.get(group);
+            if (queue == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                notEmpty.awaitNanos(remaining);
+                continue;
+            }
+            long next = queue.peekFirst().bytes();
+            if (next < 0 || bytes + next > coalesce.getMaxBytes()) {
+                break;
+            }
+            JobParameters jobParameters = queue.pollFirst().jobParameters();
+            files.add(jobParameters.getString("filePath"));
+            versions.add(version(jobParameters));
+            bytes += next;
+            if (queue.isEmpty()) {
+                queues.remove(group);
+                groups.remove(group);
+            }
+            size--;
+            notFull.signal();
+        }
+        if (files.size() == 1) {
+            return first;
+        }
+        return new JobParametersBuilder()
+                .addString("fileName", first.getString("fileName") + "+" + (files.size() - 1))
+                .addString(JobCompletionNotificationListener.FILE_PATHS_KEY, String.join(MultiFileItemReader.SEPARATOR, files))
+                .addString(FILE_VERSIONS_KEY, String.join(",", versions))
+                .addLong("time", System.currentTimeMillis(), false)
+                .toJobParameters();
+    }
+
+    /**
+     * The version method is used to get the size and modification time of the file of a job from its parameters.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link String} object.
+     */
+    private static String version(JobParameters jobParameters) {
+        return jobParameters.getLong(FILE_SIZE_KEY, -1L) + ":" + jobParameters.getLong(FILE_MODIFIED_KEY, -1L);
+    }
+
+    /**
+     * The fileJobParameters method is used to create the parameters of the job of a file, identified by its path,
+     * size and modification time. A file changed since its job failed is a new job instance.
+     * @param filePath a {@link Path} object.
+     * @return a {@link JobParameters} object.
+     */
+    public static JobParameters fileJobParameters(Path filePath) {
+        long size = -1;
+        long modified = -1;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            size = attributes.size();
+            modified = attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            // The job fails to open the file and moves it to the error directory.
+        }
+        return new JobParametersBuilder()
+                .addString("fileName", filePath.getFileName().toString())
+                .addString("filePath", filePath.toString())
+                .addLong(FILE_SIZE_KEY, size)
+                .addLong(FILE_MODIFIED_KEY, modified)
+                .addLong("time", System.currentTimeMillis(), false)
+                .toJobParameters();
+    }
+
+    /**
+     * The fileSize method is used to get the size of the file of a job, if it may be coalesced.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link long} value, -1 if coalescing is disabled or the job is not the job of a file up to the
+     *         coalesce maxFileBytes.
+     */
+    private long fileSize(JobParameters jobParameters) {
+        String filePath = jobParameters.getString("filePath");
+        if (!jobProperties.getCoalesce().isEnabled() || filePath == null) {
+            return -1;
+        }
+        try {
+            Long fileSize = jobParameters.getLong(FILE_SIZE_KEY);
+            long size = fileSize != null ? fileSize : Files.size(Paths.get(filePath));
+            return size <= jobProperties.getCoalesce().getMaxFileBytes() ? size : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The work method is used to run the queued jobs until the dispatcher stops.
+     */
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                JobExecution jobExecution = run(take());
+                requeueUnread(jobExecution);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Exception handling
+                System.err.println("Failed to start the job: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The run method is used to run the job, restarting its job instance if it failed. The job instance of a file
+     * which is still in the input directory although it completed, because the process stopped before archiving it,
+     * is not run again: a new job instance is run instead, which the DuplicateFileDecider archives as a duplicate.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link JobExecution} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private JobExecution run(JobParameters jobParameters) throws Exception {
+        try {
+            return jobLauncher.run(job, jobParameters);
+        } catch (JobInstanceAlreadyCompleteException e) {
+            return jobLauncher.run(job, new JobParametersBuilder(jobParameters)
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters());
+        }
+    }
+
+    /**
+     * The requeueUnread method is used to queue the files which a failed coalesced job did not read, one job each,
+     * served with the group of their directory. They are not coalesced again.
+     * @param jobExecution a {@link JobExecution} object.
+     * @throws InterruptedException if interrupted while queueing.
+     */
+    private void requeueUnread(JobExecution jobExecution) throws InterruptedException {
+        String unread = jobExecution.getExecutionContext().getString(JobCompletionNotificationListener.UNREAD_FILES_KEY, "");
+        for (String filePath : MultiFileItemReader.split(unread)) {
+            Path path = Paths.get(filePath);
+            submit(String.valueOf(path.getParent()), new Pending(fileJobParameters(path), -1), false);
+        }
+    }
+
+    /**
+     * Pending record holds a queued job.
+     * @param jobParameters a {@link JobParameters} object.
+     * @param bytes a {@link long} value, the size of its file read when it was submitted, -1 if it is not coalesced.
+     */
+    private record Pending(JobParameters jobParameters, long bytes) {
+    }
+}
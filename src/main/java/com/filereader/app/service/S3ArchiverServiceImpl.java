@@ -1,25 +1,92 @@
 package com.filereader.app.service;
 
+import com.filereader.app.config.props.ArchiveProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * S3ArchiverServiceImpl is used to move the file to S3 bucket based on the job status.
+ * The move is queued and done in the background, so the job does not wait for it. Objects above the multipart
+ * threshold are copied with parallel UploadPartCopy requests, which also lifts the 5 GB limit of CopyObject.
+ * A failed move is retried with an exponential backoff, and the pending moves are kept in the queue file, if any,
+ * so they are resumed after a restart.
  */
 @RequiredArgsConstructor
 @Profile("aws")
 @Service
 public class S3ArchiverServiceImpl implements IArchiverService {
 
+    /** The largest number of parts of a multipart upload. **/
+    private static final int MAX_PARTS = 10000;
+
     /**
      * The S3Client is used to interact with the S3 bucket.
      **/
     private final S3Client s3Client;
 
+    /** The ArchiveProperties class is used to read the archiving properties. **/
+    private final ArchiveProperties archiveProperties;
+
+    /** The ids of the moves whose copy is done, so a retry after a failed delete does not copy again. **/
+    private final Set<String> copied = ConcurrentHashMap.newKeySet();
+
+    private ArchiveQueue archiveQueue;
+    private ScheduledExecutorService workers;
+    private ExecutorService partCopiers;
+
+    /**
+     * The start method is used to start the workers and resume the moves left in the queue file.
+     */
+    @PostConstruct
+    public void start() {
+        archiveQueue = new ArchiveQueue(archiveProperties.getQueueFile());
+        workers = Executors.newScheduledThreadPool(archiveProperties.getWorkers(),
+                Thread.ofPlatform().name("s3-archiver-", 0).factory());
+        partCopiers = Executors.newFixedThreadPool(archiveProperties.getPartConcurrency(),
+                Thread.ofPlatform().name("s3-part-copy-", 0).factory());
+        List<ArchiveQueue.ArchiveTask> pending = archiveQueue.load();
+        if (!pending.isEmpty()) {
+            System.out.println("Resuming " + pending.size() + " pending archive moves");
+        }
+        pending.forEach(task -> schedule(task, 1, 0));
+    }
+
     /**
-     * The moveFile method is used to move the file to the S3 bucket.
+     * The stop method is used to stop the workers. The moves which did not finish stay in the queue file.
+     */
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+        partCopiers.shutdownNow();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archiveQueue.close();
+    }
+
+    /**
+     * The moveFile method is used to queue the move of the file to the archive or error prefix of the S3 bucket.
      *
      * @param bucketName a {@link String} object.
      * @param fileName a {@link String} object.
@@ -27,19 +94,157 @@ public class S3ArchiverServiceImpl implements IArchiverService {
      */
     @Override
     public void moveFile(String bucketName, String fileName, boolean success) {
+        String fileNameWithoutPath = fileName.substring(fileName.lastIndexOf("/") + 1);
+        String targetKey = success ? "archive/" + fileNameWithoutPath : "error/" + fileNameWithoutPath;
+        ArchiveQueue.ArchiveTask task = new ArchiveQueue.ArchiveTask(UUID.randomUUID().toString(), bucketName,
+                fileName, targetKey);
+        archiveQueue.add(task);
+        schedule(task, 1, 0);
+    }
+
+    private void schedule(ArchiveQueue.ArchiveTask task, int attempt, long delayMillis) {
+        workers.schedule(() -> run(task, attempt), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The run method is used to move the object and to schedule a retry if it fails.
+     * @param task a {@link ArchiveQueue.ArchiveTask} object.
+     * @param attempt an {@link int} value, starting at 1.
+     */
+    private void run(ArchiveQueue.ArchiveTask task, int attempt) {
         try {
-            String fileNameWithoutPath = fileName.substring(fileName.lastIndexOf("/") + 1);
-            String targetKey = success ? "archive/" + fileNameWithoutPath : "error/" + fileNameWithoutPath;
+            move(task);
+            archiveQueue.complete(task);
+            copied.remove(task.id());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (attempt >= archiveProperties.getMaxAttempts()) {
+                System.err.println("Giving up moving " + task.sourceKey() + " to " + task.targetKey() + " until the next start: "
+                        + e.getMessage());
+                return;
+            }
+            long delay = Math.min(archiveProperties.getRetryDelayMillis() << Math.min(attempt - 1, 20),
+                    archiveProperties.getMaxRetryDelayMillis());
+            System.err.println("Failed to move " + task.sourceKey() + " to " + task.targetKey() + ", retrying in "
+                    + delay + " ms: " + e.getMessage());
+            if (!workers.isShutdown()) {
+                schedule(task, attempt + 1, delay);
+            }
+        }
+    }
+
+    /**
+     * The move method is used to copy the object to the target key, unless already copied, and delete the source.
+     * @param task a {@link ArchiveQueue.ArchiveTask} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private void move(ArchiveQueue.ArchiveTask task) throws Exception {
+        if (!copied.contains(task.id())) {
+            copy(task);
+            copied.add(task.id());
+        }
+        s3Client.deleteObject(deleteObjectRequest -> deleteObjectRequest
+                .bucket(task.bucketName())
+                .key(task.sourceKey()));
+    }
+
+    /**
+     * The copy method is used to copy the object to the target key, with a multipart upload if it is large.
+     * @param task a {@link ArchiveQueue.ArchiveTask} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private void copy(ArchiveQueue.ArchiveTask task) throws Exception {
+        HeadObjectResponse source;
+        try {
+            source = s3Client.headObject(request -> request.bucket(task.bucketName()).key(task.sourceKey()));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404 && exists(task.bucketName(), task.targetKey())) {
+                // The source was deleted after the copy by an earlier attempt.
+                return;
+            }
+            throw e;
+        }
+        if (source.contentLength() > archiveProperties.getMultipartThreshold()) {
+            multipartCopy(task, source);
+        } else {
             s3Client.copyObject(copyObjectRequest -> copyObjectRequest
-                    .sourceBucket(bucketName)
-                    .sourceKey(fileName)
-                    .destinationBucket(bucketName)
-                    .destinationKey(targetKey));
-            s3Client.deleteObject(deleteObjectRequest -> deleteObjectRequest
-                    .bucket(bucketName)
-                    .key(fileName));
-        } catch (RuntimeException e) {
-            e.printStackTrace();
+                    .sourceBucket(task.bucketName())
+                    .sourceKey(task.sourceKey())
+                    .destinationBucket(task.bucketName())
+                    .destinationKey(task.targetKey()));
+        }
+    }
+
+    /**
+     * The multipartCopy method is used to copy the object with parallel UploadPartCopy requests. Unlike CopyObject,
+     * a multipart upload does not carry over the headers and user metadata of the source, so they are set from its
+     * HEAD response.
+     * @param task a {@link ArchiveQueue.ArchiveTask} object.
+     * @param source a {@link HeadObjectResponse} object, the HEAD response of the source object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private void multipartCopy(ArchiveQueue.ArchiveTask task, HeadObjectResponse source) throws Exception {
+        long size = source.contentLength();
+        long partSize = Math.max(archiveProperties.getPartSize(), (size + MAX_PARTS - 1) / MAX_PARTS);
+        String uploadId = s3Client.createMultipartUpload(request -> request
+                .bucket(task.bucketName())
+                .key(task.targetKey())
+                .contentType(source.contentType())
+                .contentEncoding(source.contentEncoding())
+                .contentDisposition(source.contentDisposition())
+                .contentLanguage(source.contentLanguage())
+                .cacheControl(source.cacheControl())
+                .metadata(source.metadata())).uploadId();
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long start = 0; start < size; start += partSize, partNumber++) {
+                String range = "bytes=" + start + "-" + (Math.min(start + partSize, size) - 1);
+                int number = partNumber;
+                parts.add(partCopiers.submit(() -> CompletedPart.builder()
+                        .partNumber(number)
+                        .eTag(s3Client.uploadPartCopy(request -> request
+                                .sourceBucket(task.bucketName())
+                                .sourceKey(task.sourceKey())
+                                .destinationBucket(task.bucketName())
+                                .destinationKey(task.targetKey())
+                                .uploadId(uploadId)
+                                .partNumber(number)
+                                .copySourceRange(range)).copyPartResult().eTag())
+                        .build()));
+            }
+            List<CompletedPart> completedParts = new ArrayList<>();
+            for (Future<CompletedPart> part : parts) {
+                completedParts.add(part.get());
+            }
+            s3Client.completeMultipartUpload(request -> request
+                    .bucket(task.bucketName())
+                    .key(task.targetKey())
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(completedParts)));
+        } catch (Exception e) {
+            parts.forEach(part -> part.cancel(true));
+            try {
+                s3Client.abortMultipartUpload(request -> request
+                        .bucket(task.bucketName())
+                        .key(task.targetKey())
+                        .uploadId(uploadId));
+            } catch (RuntimeException abortException) {
+                e.addSuppressed(abortException);
+            }
+            throw e instanceof ExecutionException && e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private boolean exists(String bucketName, String key) {
+        try {
+            s3Client.headObject(request -> request.bucket(bucketName).key(key));
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
             throw e;
         }
     }
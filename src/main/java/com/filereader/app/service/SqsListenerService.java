@@ -2,32 +2,66 @@ package com.filereader.app.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.config.props.SqsProperties;
+import com.filereader.app.processor.JobCompletionNotificationListener;
+import com.filereader.app.processor.MultiFileItemReader;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
 import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
-import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
 import software.amazon.awssdk.services.sqs.model.Message;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * SqsListenerService class is used to receive the S3 event notifications from the SQS queue and run the job of
+ * each notified file. Up to maxMessages are received per poll, but never more than the free slots of the job pool,
+ * so a received message does not wait for a worker. The visibility of a message is extended while its job runs and
+ * the messages of the finished jobs are deleted in batches. The queue URL is resolved by the listener thread, and
+ * retried until the queue can be reached, so the application starts even if SQS is unreachable.
+ * With coalescing enabled, the small objects of the same bucket notified by the messages of one receive are loaded
+ * by a single job, and the objects such a job did not read because it failed are then loaded one job each.
+ * A job is identified by its objects and their ETag, never by its launch time, so a message delivered again after
+ * its job failed or the process stopped restarts the job instance from its last commit.
+ */
 @RequiredArgsConstructor
 @Profile("aws")
 @Service
 public class SqsListenerService implements Runnable {
 
-    @Value("${com.aws.sqs.queuename:}")
-    private String queueName;
+    public static final String OBJECT_VERSION_KEY = "objectVersion";
 
-    /** The jobLauncher is used to launch the job. **/
+    /** The largest number of entries of an SQS batch request. **/
+    private static final int MAX_BATCH_SIZE = 10;
+
+    /** The SqsClient is used to interact with the SQS queue. **/
     private final SqsClient sqsClient;
 
     // The JobLauncher class is used to launch the job.
@@ -39,47 +73,385 @@ public class SqsListenerService implements Runnable {
     /** ObjectMapper is used map string json to Object. **/
     private final ObjectMapper objectMapper;
 
+    /** The SqsProperties class is used to read the consumer properties. **/
+    private final SqsProperties sqsProperties;
+
+    /** The JobProperties class is used to read the coalesce properties. **/
+    private final JobProperties jobProperties;
+
+    /** The receipt handles of the messages whose job is running, by message id. **/
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    /** The receipt handles of the messages whose job has finished and which are waiting to be deleted. **/
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+
+    private volatile String queueUrl;
+    private Semaphore slots;
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    /**
+     * The listen method is used to start the workers, the heartbeat and the thread receiving the messages.
+     */
     @PostConstruct
     public void listen() {
-        Thread thread = new Thread(this);
+        slots = new Semaphore(sqsProperties.getPoolSize());
+        workers = Executors.newFixedThreadPool(sqsProperties.getPoolSize(),
+                Thread.ofPlatform().name("sqs-job-", 0).factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("sqs-heartbeat").factory());
+        scheduler.scheduleWithFixedDelay(this::extendVisibility, sqsProperties.getHeartbeatSeconds(),
+                sqsProperties.getHeartbeatSeconds(), TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::deleteFinished, sqsProperties.getDeleteIntervalMillis(),
+                sqsProperties.getDeleteIntervalMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+        Thread thread = new Thread(this, "sqs-listener");
         thread.start();
     }
 
+    /**
+     * The stop method is used to stop receiving, wait for the running jobs and delete their messages.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(sqsProperties.getVisibilityTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.shutdownNow();
+        deleteFinished();
+    }
+
+    /**
+     * The run method is used to receive the messages while a slot of the job pool is free.
+     */
     @Override
     public void run() {
-        GetQueueUrlRequest req = GetQueueUrlRequest.builder().queueName(queueName).build();
-        GetQueueUrlResponse res = sqsClient.getQueueUrl(req);
-        ReceiveMessageRequest receiveMessageRequest = ReceiveMessageRequest.builder()
-                .queueUrl(res.queueUrl())
-                .maxNumberOfMessages(1)
-                .waitTimeSeconds(20)
-                .build();
-        while (true) {
-            List<Message> messages = sqsClient.receiveMessage(receiveMessageRequest).messages();
+        while (running) {
+            try {
+                if (queueUrl == null && !resolveQueueUrl()) {
+                    Thread.sleep(sqsProperties.getQueueUrlRetryMillis());
+                    continue;
+                }
+                if (!slots.tryAcquire(1, TimeUnit.SECONDS)) {
+                    continue;
+                }
+                int count = 1;
+                while (count < Math.min(sqsProperties.getMaxMessages(), MAX_BATCH_SIZE) && slots.tryAcquire()) {
+                    count++;
+                }
+                List<Message> messages = receive(count);
+                slots.release(count - messages.size());
+                for (Message message : messages) {
+                    inFlight.put(message.messageId(), message.receiptHandle());
+                }
+                if (jobProperties.getCoalesce().isEnabled()) {
+                    dispatch(messages);
+                } else {
+                    for (Message message : messages) {
+                        workers.execute(() -> process(message));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Error in receiving the SQS messages: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The resolveQueueUrl method is used to get the URL of the queue from its name.
+     * @return a {@link boolean} value, false if the queue cannot be reached yet.
+     */
+    private boolean resolveQueueUrl() {
+        try {
+            queueUrl = sqsClient.getQueueUrl(GetQueueUrlRequest.builder().queueName(sqsProperties.getQueuename()).build())
+                    .queueUrl();
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to resolve the SQS queue URL, retrying in "
+                    + sqsProperties.getQueueUrlRetryMillis() + " ms: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The receive method is used to receive up to count messages.
+     * @param count an {@link int} value.
+     * @return a {@link List} of {@link Message} objects.
+     */
+    private List<Message> receive(int count) {
+        try {
+            return sqsClient.receiveMessage(ReceiveMessageRequest.builder()
+                    .queueUrl(queueUrl)
+                    .maxNumberOfMessages(count)
+                    .waitTimeSeconds(sqsProperties.getWaitTimeSeconds())
+                    .visibilityTimeout(sqsProperties.getVisibilityTimeoutSeconds())
+                    .build()).messages();
+        } catch (RuntimeException e) {
+            slots.release(count);
+            throw e;
+        }
+    }
+
+    /**
+     * The process method is used to run the job of the message and queue the message for deletion.
+     * @param message a {@link Message} object.
+     */
+    private void process(Message message) {
+        try {
+            processMessage(message);
+        } finally {
+            inFlight.remove(message.messageId());
+            finished.add(message.receiptHandle());
+            slots.release();
+        }
+    }
+
+    /**
+     * The dispatch method is used to run one job for the small objects of each bucket notified by the messages, up
+     * to the coalesce maxFiles and maxBytes, and one job for each other message.
+     * @param messages a {@link List} of {@link Message} objects.
+     */
+    private void dispatch(List<Message> messages) {
+        JobProperties.Coalesce coalesce = jobProperties.getCoalesce();
+        Map<String, List<Message>> batches = new LinkedHashMap<>();
+        Map<String, Long> batchBytes = new HashMap<>();
+        for (Message message : messages) {
+            JsonNode record = record(message);
+            long size = record != null ? record.path("s3").path("object").path("size").asLong(-1) : -1;
+            if (size < 0 || size > coalesce.getMaxFileBytes()) {
+                workers.execute(() -> process(message));
+                continue;
+            }
+            String bucketName = record.get("s3").get("bucket").get("name").asText();
+            List<Message> batch = batches.computeIfAbsent(bucketName, key -> new ArrayList<>());
+            long bytes = batchBytes.getOrDefault(bucketName, 0L);
+            if (!batch.isEmpty() && (batch.size() >= coalesce.getMaxFiles() || bytes + size > coalesce.getMaxBytes())) {
+                submitBatch(bucketName, batch);
+                batch = new ArrayList<>();
+                batches.put(bucketName, batch);
+                bytes = 0;
+            }
+            batch.add(message);
+            batchBytes.put(bucketName, bytes + size);
+        }
+        batches.forEach(this::submitBatch);
+    }
+
+    private void submitBatch(String bucketName, List<Message> batch) {
+        if (batch.size() == 1) {
+            workers.execute(() -> process(batch.get(0)));
+        } else {
+            workers.execute(() -> processBatch(bucketName, batch));
+        }
+    }
+
+    /**
+     * The processBatch method is used to run the job of the objects of the messages and queue the messages for
+     * deletion.
+     * @param bucketName a {@link String} object.
+     * @param messages a {@link List} of {@link Message} objects.
+     */
+    private void processBatch(String bucketName, List<Message> messages) {
+        try {
+            Map<String, String> versions = new LinkedHashMap<>();
+            for (Message message : messages) {
+                JsonNode record = record(message);
+                versions.put(record.get("s3").get("object").get("key").asText(), version(message, record));
+            }
+            List<String> keys = new ArrayList<>(versions.keySet());
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addString("fileName", keys.get(0) + "+" + (keys.size() - 1))
+                    .addString("bucketName", bucketName)
+                    .addString(JobCompletionNotificationListener.FILE_PATHS_KEY, String.join(MultiFileItemReader.SEPARATOR, keys))
+                    .addString(OBJECT_VERSION_KEY, String.join(",", versions.values()))
+                    .addLong("time", System.currentTimeMillis(), false)
+                    .toJobParameters();
+            JobExecution jobExecution = run(jobParameters);
+            if (jobExecution != null) {
+                runUnread(bucketName, versions, jobExecution);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
             for (Message message : messages) {
-                processMessage(message);
-                sqsClient.deleteMessage(builder -> builder.queueUrl(res.queueUrl()).receiptHandle(message.receiptHandle()));
+                inFlight.remove(message.messageId());
+                finished.add(message.receiptHandle());
+            }
+            slots.release(messages.size());
+        }
+    }
+
+    /**
+     * The runUnread method is used to load the objects which a failed coalesced job did not read, one job each.
+     * @param bucketName a {@link String} object.
+     * @param versions a {@link Map} of the object keys to their version.
+     * @param jobExecution a {@link JobExecution} object.
+     */
+    private void runUnread(String bucketName, Map<String, String> versions, JobExecution jobExecution) {
+        String unread = jobExecution.getExecutionContext().getString(JobCompletionNotificationListener.UNREAD_FILES_KEY, "");
+        for (String fileName : MultiFileItemReader.split(unread)) {
+            try {
+                run(objectJobParameters(bucketName, fileName, versions.getOrDefault(fileName, "")));
+            } catch (Exception e) {
+                System.err.println("Failed to start the job of " + fileName + ": " + e.getMessage());
             }
         }
     }
 
+    /**
+     * The record method is used to parse the S3 event notification record of the message.
+     * @param message a {@link Message} object.
+     * @return a {@link JsonNode} object, null if the message is not an S3 event notification.
+     */
+    private JsonNode record(Message message) {
+        try {
+            JsonNode records = objectMapper.readTree(message.body()).get("Records");
+            return records != null && records.size() > 0 ? records.get(0) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The run method is used to run the job, restarting its job instance if it failed. The job instance of an
+     * object whose message is delivered again although its job completed, because the process stopped before
+     * deleting the message, is not run again: a new job instance is run instead, which the DuplicateFileDecider
+     * archives as a duplicate.
+     * @param jobParameters a {@link JobParameters} object.
+     * @return a {@link JobExecution} object.
+     * @throws Exception an {@link Exception} object.
+     */
+    private JobExecution run(JobParameters jobParameters) throws Exception {
+        try {
+            return jobLauncher.run(job, jobParameters);
+        } catch (JobInstanceAlreadyCompleteException e) {
+            return jobLauncher.run(job, new JobParametersBuilder(jobParameters)
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters());
+        }
+    }
+
+    /**
+     * The version method is used to identify the version of the object of the message, by its ETag, or by the id of
+     * the message, which is kept when the message is delivered again, if the notification has no ETag.
+     * @param message a {@link Message} object.
+     * @param record a {@link JsonNode} object.
+     * @return a {@link String} object.
+     */
+    private static String version(Message message, JsonNode record) {
+        String eTag = record.path("s3").path("object").path("eTag").asText("");
+        return eTag.isEmpty() ? message.messageId() : eTag;
+    }
+
+    /**
+     * The objectJobParameters method is used to create the parameters of the job of an object, identified by its
+     * bucket, key and version, so the job of a message delivered again restarts the job instance of its first
+     * delivery from its last commit. The launch time is not identifying.
+     * @param bucketName a {@link String} object.
+     * @param fileName a {@link String} object, the object key.
+     * @param version a {@link String} object.
+     * @return a {@link JobParameters} object.
+     */
+    private static JobParameters objectJobParameters(String bucketName, String fileName, String version) {
+        return new JobParametersBuilder()
+                .addString("fileName", fileName)
+                .addString("bucketName", bucketName)
+                .addString(OBJECT_VERSION_KEY, version)
+                .addLong("time", System.currentTimeMillis(), false)
+                .toJobParameters();
+    }
+
     private void processMessage(Message message) {
         try {
             // Parse S3 event notification message
             JsonNode jsonNode = objectMapper.readTree(message.body());
-            String bucketName = jsonNode.get("Records").get(0).get("s3").get("bucket").get("name").asText();
-            String fileName = jsonNode.get("Records").get(0).get("s3").get("object").get("key").asText();
+            JsonNode record = jsonNode.get("Records").get(0);
+            String bucketName = record.get("s3").get("bucket").get("name").asText();
+            String fileName = record.get("s3").get("object").get("key").asText();
 
             // Trigger batch job with S3 file path as a parameter
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addString("fileName", fileName)
-                    .addString("bucketName", bucketName)
-                    .addLong("time", System.currentTimeMillis())
-                    .toJobParameters();
-
-            jobLauncher.run(job, jobParameters);
+            run(objectJobParameters(bucketName, fileName, version(message, record)));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * The extendVisibility method is used to keep the messages whose job is running hidden from the other consumers.
+     */
+    private void extendVisibility() {
+        try {
+            List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>();
+            for (Map.Entry<String, String> message : inFlight.entrySet()) {
+                entries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+                        .id(String.valueOf(entries.size()))
+                        .receiptHandle(message.getValue())
+                        .visibilityTimeout(sqsProperties.getVisibilityTimeoutSeconds())
+                        .build());
+                if (entries.size() == MAX_BATCH_SIZE) {
+                    changeVisibility(entries);
+                    entries = new ArrayList<>();
+                }
+            }
+            if (!entries.isEmpty()) {
+                changeVisibility(entries);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error in extending the visibility of the SQS messages: " + e.getMessage());
+        }
+    }
+
+    private void changeVisibility(List<ChangeMessageVisibilityBatchRequestEntry> entries) {
+        List<BatchResultErrorEntry> failed = sqsClient.changeMessageVisibilityBatch(builder -> builder
+                .queueUrl(queueUrl)
+                .entries(entries)).failed();
+        for (BatchResultErrorEntry error : failed) {
+            System.err.println("Failed to extend the visibility of an SQS message: " + error.message());
+        }
+    }
+
+    /**
+     * The deleteFinished method is used to delete the messages of the finished jobs, up to ten per request.
+     */
+    private void deleteFinished() {
+        try {
+            List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>();
+            String receiptHandle;
+            while ((receiptHandle = finished.poll()) != null) {
+                entries.add(DeleteMessageBatchRequestEntry.builder()
+                        .id(String.valueOf(entries.size()))
+                        .receiptHandle(receiptHandle)
+                        .build());
+                if (entries.size() == MAX_BATCH_SIZE) {
+                    delete(entries);
+                    entries = new ArrayList<>();
+                }
+            }
+            if (!entries.isEmpty()) {
+                delete(entries);
+            }
+        } catch (RuntimeException e) {
+            // The messages which were not deleted are received again once their visibility timeout expires.
+            System.err.println("Error in deleting the SQS messages: " + e.getMessage());
+        }
+    }
+
+    private void delete(List<DeleteMessageBatchRequestEntry> entries) {
+        List<BatchResultErrorEntry> failed = sqsClient.deleteMessageBatch(builder -> builder
+                .queueUrl(queueUrl)
+                .entries(entries)).failed();
+        for (BatchResultErrorEntry error : failed) {
+            System.err.println("Failed to delete an SQS message: " + error.message());
+        }
+    }
 }
@@ -0,0 +1,3 @@
+-- Add the natural key of MyTest, used by the upsert writer, for -Dupsert=true. ${naturalKey} is the changelog property.
+
+CREATE UNIQUE INDEX ux_mytest_natural_key ON MyTest (${naturalKey});
@@ -0,0 +1,10 @@
+-- Store the MyTest id as BINARY(16) instead of its 36 characters, for com.filereader.mysql.binary-ids=true.
+
+ALTER TABLE MyTest ADD COLUMN id_bin BINARY(16) NULL FIRST;
+
+UPDATE MyTest SET id_bin = UUID_TO_BIN(id);
+
+ALTER TABLE MyTest DROP PRIMARY KEY, DROP COLUMN id;
+
+ALTER TABLE MyTest CHANGE COLUMN id_bin id BINARY(16) NOT NULL COMMENT 'Unique identifier for the record, stored as a time-ordered UUID' FIRST,
+    ADD PRIMARY KEY (id);
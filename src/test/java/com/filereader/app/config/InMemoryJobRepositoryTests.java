@@ -0,0 +1,82 @@
+package com.filereader.app.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryJobRepositoryTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final JobParameters parameters = new JobParametersBuilder().addString("filePath", "/data/a.csv").toJobParameters();
+
+    @Test
+    void interruptedExecutionIsRestartedFromLastCommittedContext() throws Exception {
+        String logFile = tempDir.resolve("repository.log").toString();
+        InMemoryJobRepository repository = new InMemoryJobRepository(10, new JobRepositoryLog(logFile, 1000));
+        JobExecution jobExecution = repository.createJobExecution("job", parameters);
+        jobExecution.setStatus(BatchStatus.STARTED);
+        repository.update(jobExecution);
+        StepExecution stepExecution = jobExecution.createStepExecution("step");
+        repository.add(stepExecution);
+        stepExecution.getExecutionContext().putLong("offset", 42);
+        repository.updateExecutionContext(stepExecution);
+        stepExecution.getExecutionContext().putLong("offset", 99);
+        repository.close();
+
+        InMemoryJobRepository restarted = new InMemoryJobRepository(10, new JobRepositoryLog(logFile, 1000));
+        assertEquals(BatchStatus.FAILED, restarted.getLastJobExecution("job", parameters).getStatus());
+        StepExecution last = restarted.getLastStepExecution(restarted.getJobInstance("job", parameters), "step");
+        assertEquals(42, last.getExecutionContext().getLong("offset"));
+
+        JobExecution restart = restarted.createJobExecution("job", parameters);
+        assertNotEquals(jobExecution.getId(), restart.getId());
+        assertEquals(jobExecution.getJobId(), restart.getJobId());
+        restarted.close();
+    }
+
+    @Test
+    void deletedInstanceIsNotReplayed() throws Exception {
+        String logFile = tempDir.resolve("repository.log").toString();
+        InMemoryJobRepository repository = new InMemoryJobRepository(10, new JobRepositoryLog(logFile, 1000));
+        JobExecution jobExecution = repository.createJobExecution("job", parameters);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        repository.update(jobExecution);
+        repository.deleteJobInstance(jobExecution.getJobInstance());
+        repository.close();
+
+        InMemoryJobRepository restarted = new InMemoryJobRepository(10, new JobRepositoryLog(logFile, 1000));
+        assertNull(restarted.getJobInstance("job", parameters));
+        assertNull(restarted.getLastJobExecution("job", parameters));
+        restarted.close();
+    }
+
+    @Test
+    void completedInstanceIsNotRunAgainAndOldInstancesAreEvicted() throws Exception {
+        InMemoryJobRepository repository = new InMemoryJobRepository(2);
+        JobExecution jobExecution = repository.createJobExecution("job", parameters);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        repository.update(jobExecution);
+        assertThrows(JobInstanceAlreadyCompleteException.class, () -> repository.createJobExecution("job", parameters));
+
+        for (int i = 0; i < 2; i++) {
+            JobExecution other = repository.createJobExecution("job", new JobParametersBuilder().addLong("run", (long) i).toJobParameters());
+            other.setStatus(BatchStatus.COMPLETED);
+            repository.update(other);
+        }
+        assertNull(repository.getJobInstance("job", parameters));
+    }
+}
@@ -0,0 +1,37 @@
+package com.filereader.app.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUuidTests {
+
+    @Test
+    void generatesIncreasingVersion7Ids() {
+        long before = System.currentTimeMillis();
+        UUID previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = TimeOrderedUuid.next();
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            // Both the string and the bytes of a BINARY(16) column sort in generation order.
+            assertTrue(id.toString().compareTo(previous.toString()) > 0, id + " after " + previous);
+            assertTrue(Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = id;
+        }
+        long millis = previous.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 100);
+    }
+
+    @Test
+    void convertsToAndFromBytes() {
+        UUID id = TimeOrderedUuid.next();
+        byte[] bytes = TimeOrderedUuid.toBytes(id);
+        assertEquals(16, bytes.length);
+        assertEquals(id, TimeOrderedUuid.fromBytes(bytes));
+        assertEquals(id.toString(), TimeOrderedUuid.toJdbcValue(id, false));
+    }
+}
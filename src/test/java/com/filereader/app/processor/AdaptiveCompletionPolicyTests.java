@@ -0,0 +1,87 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.repeat.RepeatContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveCompletionPolicyTests {
+
+    private static final long READ_NANOS_PER_ITEM = 1_000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void growsUnderTheTargetLatencyUpToTheMaxSize() {
+        AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(100, true, 50, 1000, 20, clock::get);
+
+        int previous = 100;
+        for (int i = 0; i < 20; i++) {
+            runChunk(policy, 1);
+            assertTrue(policy.getChunkSize() >= previous, "chunk size " + policy.getChunkSize() + " after " + previous);
+            previous = policy.getChunkSize();
+        }
+
+        assertEquals(1000, policy.getChunkSize());
+    }
+
+    @Test
+    void shrinksOverTheTargetLatencyDownToTheMinSize() {
+        AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(800, true, 50, 1000, 20, clock::get);
+
+        int previous = 800;
+        for (int i = 0; i < 20; i++) {
+            runChunk(policy, 30);
+            assertTrue(policy.getChunkSize() < previous || policy.getChunkSize() == 50,
+                    "chunk size " + policy.getChunkSize() + " after " + previous);
+            previous = policy.getChunkSize();
+        }
+
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void fallsBackToTheMinSizeAfterARollbackAndIgnoresPartialChunks() {
+        AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(400, true, 50, 1000, 20, clock::get);
+
+        policy.beforeChunk(null);
+        policy.afterChunkError(null);
+        assertEquals(50, policy.getChunkSize());
+
+        policy.beforeChunk(null);
+        RepeatContext context = policy.start(null);
+        policy.update(context);
+        policy.isComplete(context);
+        policy.afterChunk(null);
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void keepsTheChunkSizeWhenNotAdaptive() {
+        AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(100, false, 50, 1000, 20, clock::get);
+
+        runChunk(policy, 1);
+        runChunk(policy, 30);
+
+        assertEquals(100, policy.getChunkSize());
+    }
+
+    /**
+     * The runChunk method is used to read a full chunk, READ_NANOS_PER_ITEM per item, then write and commit it in
+     * commitMillis.
+     */
+    private void runChunk(AdaptiveCompletionPolicy policy, long commitMillis) {
+        policy.beforeChunk(null);
+        RepeatContext context = policy.start(null);
+        while (!policy.isComplete(context)) {
+            clock.addAndGet(READ_NANOS_PER_ITEM);
+            policy.update(context);
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(commitMillis));
+        policy.afterChunk(null);
+    }
+}
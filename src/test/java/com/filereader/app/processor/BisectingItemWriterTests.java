@@ -0,0 +1,117 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BisectingItemWriterTests {
+
+    private final List<List<String>> written = new ArrayList<>();
+    private final DataSource dataSource = mock(DataSource.class);
+
+    @BeforeEach
+    void beginTransaction() throws Exception {
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void skipsTheBadRecordsAndWritesTheOthersInBatch() throws Exception {
+        BisectingItemWriter writer = writer(Set.of("r3", "r12"), 100);
+        Chunk<MyTest> chunk = chunk(16);
+
+        writer.write(chunk);
+
+        assertEquals(14, chunk.size());
+        assertEquals(List.of("r3", "r12"), chunk.getSkips().stream().map(skip -> skip.getItem().getName()).toList());
+        // 2 writes per level down to each bad record, instead of 1 + 16 for a scan record by record.
+        assertEquals(15, written.size());
+        assertEquals(List.of("r0", "r1", "r2", "r3", "r4", "r5", "r6", "r7"), written.get(1));
+    }
+
+    @Test
+    void failsWhenTheSkipLimitIsReached() {
+        BisectingItemWriter writer = writer(Set.of("r3", "r12"), 1);
+
+        assertThrows(SkipLimitExceededException.class, () -> writer.write(chunk(16)));
+    }
+
+    @Test
+    void doesNotBisectExceptionsWhichAreNotSkippable() {
+        CustomSkipPolicy skipPolicy = new CustomSkipPolicy(100, List.of(DataIntegrityViolationException.class));
+        BisectingItemWriter writer = new BisectingItemWriter(chunk -> {
+            written.add(List.of());
+            throw new IllegalStateException("connection lost");
+        }, dataSource, skipPolicy);
+
+        assertThrows(IllegalStateException.class, () -> writer.write(chunk(16)));
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void countsTheSkipsInTheContributionOfTheChunkAndWithItsReadSkipsAgainstTheLimit() throws Exception {
+        StepExecution stepExecution = new StepExecution("fileProcessingStep", new JobExecution(1L));
+        StepContribution contribution = stepExecution.createStepContribution();
+        contribution.incrementReadSkipCount();
+        StepSynchronizationManager.register(stepExecution).setAttribute(BisectingItemWriter.CONTRIBUTION_KEY, contribution);
+        try {
+            Chunk<MyTest> chunk = chunk(16);
+            writer(Set.of("r3", "r12"), 3).write(chunk);
+
+            assertEquals(2, contribution.getWriteSkipCount());
+            // The step execution only gets the skips when the chunk commits.
+            assertEquals(0, stepExecution.getWriteSkipCount());
+
+            assertThrows(SkipLimitExceededException.class, () -> writer(Set.of("r5"), 3).write(chunk(16)));
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    private BisectingItemWriter writer(Set<String> bad, long skipLimit) {
+        CustomSkipPolicy skipPolicy = new CustomSkipPolicy(skipLimit, List.of(DataIntegrityViolationException.class));
+        return new BisectingItemWriter(chunk -> {
+            List<String> names = chunk.getItems().stream().map(MyTest::getName).toList();
+            written.add(names);
+            if (names.stream().anyMatch(bad::contains)) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+        }, dataSource, skipPolicy);
+    }
+
+    private static Chunk<MyTest> chunk(int size) {
+        Chunk<MyTest> chunk = new Chunk<>();
+        IntStream.range(0, size).forEach(i -> {
+            MyTest record = new MyTest();
+            record.setName("r" + i);
+            chunk.add(record);
+        });
+        return chunk;
+    }
+}
@@ -0,0 +1,41 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ByteRangeItemReaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void skipsCommentLinesLikeTheFlatFileItemReaderAndRestartsAtTheSavedOffset() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "# header\na,1\r\n#note\nbb,2\nccc,3\n");
+        ExecutionContext executionContext = new ExecutionContext();
+
+        ByteRangeItemReader<String> reader = reader(file);
+        reader.open(executionContext);
+        assertEquals("2:a,1", reader.read());
+        reader.update(executionContext);
+        assertEquals("4:bb,2", reader.read());
+        reader.close();
+
+        ByteRangeItemReader<String> restarted = reader(file);
+        restarted.open(executionContext);
+        assertEquals("4:bb,2", restarted.read());
+        assertEquals("5:ccc,3", restarted.read());
+        assertNull(restarted.read());
+        restarted.close();
+    }
+
+    private static ByteRangeItemReader<String> reader(Path file) {
+        return new ByteRangeItemReader<>(file.toString(), 0, Long.MAX_VALUE, (line, lineNumber) -> lineNumber + ":" + line);
+    }
+}
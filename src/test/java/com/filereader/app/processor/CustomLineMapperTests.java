@@ -0,0 +1,52 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomLineMapperTests {
+
+    private static final String[] LINES = {
+            "alice,Pune",
+            " alice , Pune ,extra",
+            "\"bob, jr\",\"New \"\"York\"\"\"",
+            "\" quoted \", \"x\"",
+            "\"\",",
+            "a,\"\"\"\"",
+            "chloé,Zürich",
+            ",",
+            "dan,\"Oslo, Norway\",more,fields",
+    };
+
+    @Test
+    void mapsLinesLikeTheDelimitedLineTokenizer() {
+        for (String delimiter : new String[]{",", "||"}) {
+            CustomLineMapper mapper = new CustomLineMapper();
+            ReflectionTestUtils.setField(mapper, "delimiter", delimiter);
+            mapper.init();
+            DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(delimiter);
+            for (String line : LINES) {
+                String input = line.replace(",", delimiter);
+                FieldSet fieldSet = tokenizer.tokenize(input);
+                MyTest record = mapper.mapLine(input, 1);
+                assertEquals(fieldSet.readString(0), record.getName(), input);
+                assertEquals(fieldSet.readString(1), record.getCity(), input);
+            }
+        }
+    }
+
+    @Test
+    void rejectsLinesWithASingleField() {
+        CustomLineMapper mapper = new CustomLineMapper();
+        ReflectionTestUtils.setField(mapper, "delimiter", ",");
+        mapper.init();
+        assertThrows(IncorrectTokenCountException.class, () -> mapper.mapLine("\"alice, Pune\"", 1));
+        assertThrows(IncorrectTokenCountException.class, () -> mapper.mapLine("", 1));
+    }
+}
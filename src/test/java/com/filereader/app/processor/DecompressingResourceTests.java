@@ -0,0 +1,61 @@
+package com.filereader.app.processor;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecompressingResourceTests {
+
+    private static final String FIRST = "alice,Pune\nbob,Oslo\n".repeat(5000);
+    private static final String SECOND = "chloé,Zürich\n".repeat(3000);
+
+    @Test
+    void decompressesMultiMemberGzipZstdAndZipWithAndWithoutReadAhead() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        gzip.writeBytes(gzip(FIRST));
+        gzip.writeBytes(gzip(SECOND));
+
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream out = new ZstdOutputStream(zstd)) {
+            out.write((FIRST + SECOND).getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("data/"));
+            out.putNextEntry(new ZipEntry("data/input.csv"));
+            out.write((FIRST + SECOND).getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] plain = (FIRST + SECOND).getBytes(StandardCharsets.UTF_8);
+        for (byte[] content : new byte[][]{gzip.toByteArray(), zstd.toByteArray(), zip.toByteArray(), plain}) {
+            assertEquals(FIRST + SECOND, read(new DecompressingResource(new ByteArrayResource(content), 4096, 0)));
+            assertEquals(FIRST + SECOND, read(new DecompressingResource(new ByteArrayResource(content), 4096, 3)));
+        }
+    }
+
+    private byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private String read(DecompressingResource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
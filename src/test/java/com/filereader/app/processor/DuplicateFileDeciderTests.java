@@ -0,0 +1,137 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.service.FileRegistry;
+import com.filereader.app.service.IArchiverService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DuplicateFileDeciderTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileRegistry fileRegistry = new FileRegistry(new JobProperties());
+    private final IArchiverService archiverService = mock(IArchiverService.class);
+    @SuppressWarnings("unchecked")
+    private final DuplicateFileDecider decider = new DuplicateFileDecider(fileRegistry, mock(ObjectProvider.class));
+    private final JobCompletionNotificationListener listener =
+            new JobCompletionNotificationListener(archiverService, fileRegistry);
+
+    @Test
+    void skipsAFileWhileAnotherJobLoadsItAndLoadsItAgainAfterThatJobFailed() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\n");
+        JobParameters parameters = new JobParametersBuilder()
+                .addString("filePath", file.toString()).addString("fileName", "input.csv").toJobParameters();
+
+        JobExecution first = execution(1L, parameters);
+        JobExecution redelivered = execution(2L, parameters);
+        assertEquals(FlowExecutionStatus.COMPLETED, decider.decide(first, null));
+        assertEquals(DuplicateFileDecider.DUPLICATE, decider.decide(redelivered, null));
+
+        // The redelivered job leaves the file to the job loading it.
+        redelivered.setStatus(BatchStatus.COMPLETED);
+        listener.afterJob(redelivered);
+        verify(archiverService, never()).moveFile(anyString(), anyString(), anyBoolean());
+        assertTrue(fileRegistry.isLoading(FileRegistry.fingerprint(file)));
+
+        first.setStatus(BatchStatus.FAILED);
+        listener.afterJob(first);
+        assertFalse(fileRegistry.isLoading(FileRegistry.fingerprint(file)));
+
+        JobExecution retried = execution(3L, parameters);
+        assertEquals(FlowExecutionStatus.COMPLETED, decider.decide(retried, null));
+    }
+
+    @Test
+    void archivesAnotherFileWithTheContentOfAFileBeingLoaded() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\n");
+        Path copy = Files.writeString(tempDir.resolve("copy.csv"), "alice,Pune\n");
+        JobExecution first = execution(1L, new JobParametersBuilder()
+                .addString("filePath", file.toString()).addString("fileName", "input.csv").toJobParameters());
+        JobExecution second = execution(2L, new JobParametersBuilder()
+                .addString("filePath", copy.toString()).addString("fileName", "copy.csv").toJobParameters());
+        assertEquals(FlowExecutionStatus.COMPLETED, decider.decide(first, null));
+        assertEquals(DuplicateFileDecider.DUPLICATE, decider.decide(second, null));
+
+        second.setStatus(BatchStatus.COMPLETED);
+        listener.afterJob(second);
+
+        verify(archiverService).moveFile(copy.toString(), "copy.csv", true);
+        assertTrue(fileRegistry.isLoading(FileRegistry.fingerprint(file)));
+        assertEquals(file.toString(), fileRegistry.loadingFile(FileRegistry.fingerprint(file)));
+    }
+
+    @Test
+    void recordsTheRowsOfThePartitionManagerStepOnly() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\nbob,Oslo\n");
+        JobParameters parameters = new JobParametersBuilder()
+                .addString("filePath", file.toString()).addString("fileName", "input.csv").toJobParameters();
+        JobExecution jobExecution = execution(1L, parameters);
+        assertEquals(FlowExecutionStatus.COMPLETED, decider.decide(jobExecution, null));
+
+        StepExecution manager = jobExecution.createStepExecution("partitionedStep");
+        manager.setWriteCount(2);
+        for (int i = 0; i < 2; i++) {
+            StepExecution worker = jobExecution.createStepExecution("worker:partition" + i);
+            worker.getExecutionContext().putString(FileRangePartitioner.PARTITION_KEY, "partition" + i);
+            worker.setWriteCount(1);
+        }
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        listener.afterJob(jobExecution);
+
+        assertEquals(2, fileRegistry.find(FileRegistry.fingerprint(file)).rows());
+        assertFalse(fileRegistry.isLoading(FileRegistry.fingerprint(file)));
+        assertEquals(DuplicateFileDecider.DUPLICATE, decider.decide(execution(2L, parameters), null));
+    }
+
+    @Test
+    void leavesOutTheFilesOfACoalescedJobWhichAnotherJobLoads() throws Exception {
+        Path a = Files.writeString(tempDir.resolve("a.csv"), "alice,Pune\n");
+        Path b = Files.writeString(tempDir.resolve("b.csv"), "bob,Oslo\n");
+        Path copy = Files.writeString(tempDir.resolve("copy.csv"), "alice,Pune\n");
+        assertTrue(fileRegistry.reserve(FileRegistry.fingerprint(a), a.toString()));
+        JobExecution jobExecution = execution(1L, new JobParametersBuilder()
+                .addString(JobCompletionNotificationListener.FILE_PATHS_KEY,
+                        String.join(MultiFileItemReader.SEPARATOR, a.toString(), b.toString(), copy.toString()))
+                .addString("fileName", "a.csv").toJobParameters());
+
+        assertEquals(FlowExecutionStatus.COMPLETED, decider.decide(jobExecution, null));
+        assertEquals(List.of(b.toString()), MultiFileItemReader.split(jobExecution.getExecutionContext()
+                .getString(JobCompletionNotificationListener.FILE_PATHS_KEY)));
+        // The same file is left to the job loading it, another file with its content is archived.
+        assertEquals(List.of(copy.toString()), MultiFileItemReader.split(jobExecution.getExecutionContext()
+                .getString(JobCompletionNotificationListener.DUPLICATE_FILES_KEY)));
+        assertTrue(fileRegistry.isLoading(FileRegistry.fingerprint(b)));
+
+        jobExecution.setStatus(BatchStatus.FAILED);
+        listener.afterJob(jobExecution);
+        assertFalse(fileRegistry.isLoading(FileRegistry.fingerprint(b)));
+        assertTrue(fileRegistry.isLoading(FileRegistry.fingerprint(a)));
+    }
+
+    private static JobExecution execution(long id, JobParameters parameters) {
+        return new JobExecution(new JobInstance(id, "fileProcessingJob"), id, parameters);
+    }
+}
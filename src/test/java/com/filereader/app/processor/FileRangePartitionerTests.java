@@ -0,0 +1,68 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileRangePartitionerTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void partitionsCoverEveryLineExactlyOnce() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add("name" + i + ",city" + (i * 7));
+        }
+        Path file = tempDir.resolve("input.csv");
+        Files.write(file, lines);
+
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file.toString()).partition(7);
+
+        List<String> read = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            ByteRangeItemReader<String> reader = new ByteRangeItemReader<>(file.toString(),
+                    context.getLong(FileRangePartitioner.START_OFFSET_KEY),
+                    context.getLong(FileRangePartitioner.END_OFFSET_KEY), (line, lineNumber) -> line);
+            reader.open(new ExecutionContext());
+            String line;
+            while ((line = reader.read()) != null) {
+                read.add(line);
+            }
+            reader.close();
+        }
+        assertEquals(7, partitions.size());
+        assertEquals(lines, read);
+    }
+
+    @Test
+    void restartedReaderSeeksToSavedOffset() throws Exception {
+        Path file = tempDir.resolve("restart.csv");
+        Files.writeString(file, "a,1\r\nb,2\r\nc,3\r\nd,4");
+
+        ByteRangeItemReader<String> reader = new ByteRangeItemReader<>(file.toString(), 0, Files.size(file),
+                (line, lineNumber) -> line);
+        ExecutionContext context = new ExecutionContext();
+        reader.open(context);
+        assertEquals("a,1", reader.read());
+        assertEquals("b,2", reader.read());
+        reader.update(context);
+        reader.close();
+
+        reader.open(context);
+        assertEquals("c,3", reader.read());
+        assertEquals("d,4", reader.read());
+        assertEquals(null, reader.read());
+        reader.close();
+    }
+}
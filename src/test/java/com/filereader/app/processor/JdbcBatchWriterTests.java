@@ -0,0 +1,85 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.entity.MyTest;
+import com.filereader.app.entity.TimeOrderedUuid;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class JdbcBatchWriterTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void insertsTheChunkInOneBatchGeneratingTheMissingIds() throws Exception {
+        MyTest first = record("alice", "Pune");
+        MyTest second = record("bob", "Oslo");
+        MyTest third = record("carol", "Lima");
+        UUID given = UUID.randomUUID();
+        second.setId(given);
+
+        new JdbcBatchWriter(jdbcTemplate, new DatabaseProperties()).write(new Chunk<>(first, second, third));
+
+        BatchPreparedStatementSetter setter = batch();
+        assertEquals(3, setter.getBatchSize());
+        assertSame(given, second.getId());
+        assertNotNull(first.getId());
+        assertTrue(first.getId().toString().compareTo(third.getId().toString()) < 0, "ids are not time-ordered");
+        assertEquals(7, first.getId().version());
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.setValues(ps, 1);
+        verify(ps).setObject(1, given.toString());
+        verify(ps).setString(2, "bob");
+        verify(ps).setString(3, "Oslo");
+        Timestamp timestamp = Timestamp.valueOf(second.getCreatedAt());
+        verify(ps).setTimestamp(4, timestamp);
+        verify(ps).setTimestamp(5, timestamp);
+        assertEquals(second.getCreatedAt(), second.getUpdatedAt());
+    }
+
+    @Test
+    void bindsTheIdsAsBytesWhenTheyAreBinary() throws Exception {
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        databaseProperties.setBinaryIds(true);
+        MyTest record = record("alice", "Pune");
+
+        new JdbcBatchWriter(jdbcTemplate, databaseProperties).write(new Chunk<>(record));
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        batch().setValues(ps, 0);
+        ArgumentCaptor<Object> id = ArgumentCaptor.forClass(Object.class);
+        verify(ps).setObject(eq(1), id.capture());
+        assertArrayEquals(TimeOrderedUuid.toBytes(record.getId()), (byte[]) id.getValue());
+    }
+
+    private BatchPreparedStatementSetter batch() {
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), setter.capture());
+        return setter.getValue();
+    }
+
+    private static MyTest record(String name, String city) {
+        MyTest record = new MyTest();
+        record.setName(name);
+        record.setCity(city);
+        return record;
+    }
+}
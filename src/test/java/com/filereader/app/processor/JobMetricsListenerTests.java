@@ -0,0 +1,54 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JobMetricsListenerTests {
+
+    @Test
+    void publishesItemCountersAndChunkTimersTaggedWithTheFile() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JobMetricsListener listener = new JobMetricsListener(registry, true);
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "fileProcessingJob"), 1L,
+                new JobParametersBuilder().addString("fileName", "input.csv").toJobParameters());
+        StepExecution stepExecution = new StepExecution("workerStep:partition0", jobExecution);
+
+        listener.beforeStep(stepExecution);
+        for (int chunk = 0; chunk < 2; chunk++) {
+            listener.beforeChunk(null);
+            MyTest first = new MyTest();
+            MyTest second = new MyTest();
+            for (MyTest item : List.of(first, second)) {
+                listener.beforeRead();
+                listener.afterRead(item);
+            }
+            listener.beforeProcess(first);
+            listener.afterProcess(first, first);
+            listener.beforeProcess(second);
+            listener.afterProcess(second, null);
+            listener.beforeWrite(new Chunk<>(first));
+            listener.afterWrite(new Chunk<>(first));
+            listener.afterChunk(null);
+        }
+        listener.onSkipInRead(new IllegalArgumentException());
+        listener.afterStep(stepExecution);
+
+        assertEquals(4, registry.get("filereader.items").tags("outcome", "read", "file", "input.csv", "step", "workerStep").counter().count());
+        assertEquals(2, registry.get("filereader.items").tags("outcome", "written").counter().count());
+        assertEquals(2, registry.get("filereader.items").tags("outcome", "filtered").counter().count());
+        assertEquals(1, registry.get("filereader.items").tags("outcome", "skipped").counter().count());
+        assertEquals(2, registry.get("filereader.chunk").timer().count());
+        assertEquals(2, registry.get("filereader.chunk.phase").tags("phase", "write").timer().count());
+        assertEquals(1, registry.get("filereader.step").timer().count());
+    }
+}
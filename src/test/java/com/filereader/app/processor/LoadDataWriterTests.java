@@ -0,0 +1,131 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.entity.MyTest;
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoadDataWriterTests {
+
+    private final Statement statement = mock(Statement.class);
+    private final JdbcStatement jdbcStatement = mock(JdbcStatement.class);
+    private final JdbcBatchWriter fallbackWriter = mock(JdbcBatchWriter.class);
+    private FakeJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.unwrap(JdbcStatement.class)).thenReturn(jdbcStatement);
+        jdbcTemplate = new FakeJdbcTemplate(connection);
+    }
+
+    @Test
+    void streamsTheChunkAsEscapedTabSeparatedRows() throws Exception {
+        when(statement.executeUpdate(anyString())).thenReturn(2);
+        LoadDataWriter writer = new LoadDataWriter(jdbcTemplate, fallbackWriter, new DatabaseProperties());
+
+        writer.write(new Chunk<>(record("alice", "Pune"), record("bob\tjr", "New\\York")));
+
+        ArgumentCaptor<InputStream> data = ArgumentCaptor.forClass(InputStream.class);
+        verify(jdbcStatement).setLocalInfileInputStream(data.capture());
+        String[] rows = new String(data.getValue().readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows.length);
+        assertTrue(rows[0].contains("\talice\tPune\t"), rows[0]);
+        assertTrue(rows[1].contains("\tbob\\tjr\tNew\\\\York\t"), rows[1]);
+        verify(fallbackWriter, never()).write(any());
+    }
+
+    @Test
+    void writesTheRejectedRowsWithTheFallbackWriter() throws Exception {
+        when(statement.executeUpdate(anyString())).thenReturn(1);
+        MyTest loaded = record("alice", "Pune");
+        MyTest rejected = record("bob", "Oslo");
+        loaded.setId(UUID.randomUUID());
+        jdbcTemplate.loadedIds = List.of(loaded.getId());
+        LoadDataWriter writer = new LoadDataWriter(jdbcTemplate, fallbackWriter, new DatabaseProperties());
+
+        writer.write(new Chunk<>(loaded, rejected));
+
+        assertEquals(List.of(rejected), writtenByFallback());
+    }
+
+    @Test
+    void fallsBackToBatchedInsertsWhenLoadDataFails() throws Exception {
+        when(statement.executeUpdate(anyString())).thenThrow(new SQLException("Loading local data is disabled"));
+        LoadDataWriter writer = new LoadDataWriter(jdbcTemplate, fallbackWriter, new DatabaseProperties());
+        MyTest alice = record("alice", "Pune");
+        MyTest bob = record("bob", "Oslo");
+
+        writer.write(new Chunk<>(alice, bob));
+
+        assertEquals(List.of(alice, bob), writtenByFallback());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MyTest> writtenByFallback() throws Exception {
+        ArgumentCaptor<Chunk<MyTest>> chunk = ArgumentCaptor.forClass(Chunk.class);
+        verify(fallbackWriter).write(chunk.capture());
+        return chunk.getValue().getItems();
+    }
+
+    private static MyTest record(String name, String city) {
+        MyTest record = new MyTest();
+        record.setName(name);
+        record.setCity(city);
+        return record;
+    }
+
+    /**
+     * FakeJdbcTemplate runs the connection callbacks on the given connection, translating their SQLException like
+     * the JdbcTemplate, and answers the query of the loaded ids.
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+
+        private final Connection connection;
+        private List<UUID> loadedIds = List.of();
+
+        FakeJdbcTemplate(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public <T> T execute(ConnectionCallback<T> action) {
+            try {
+                return action.doInConnection(connection);
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("LOAD DATA failed", e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            return (List<T>) loadedIds;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedFileItemReaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsQuotedAndTrimmedFieldsAcrossMappedWindows() throws Exception {
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, "alice, Pune\r\n\"bob, jr\",\"New \"\"York\"\"\"\nchloé,Zürich,extra\ndan,Oslo");
+
+        MappedFileItemReader reader = new MappedFileItemReader(file.toString(), ",", 8);
+        reader.open(new ExecutionContext());
+        assertRecord(reader.read(), "alice", "Pune");
+        assertRecord(reader.read(), "bob, jr", "New \"York\"");
+        assertRecord(reader.read(), "chloé", "Zürich");
+        assertRecord(reader.read(), "dan", "Oslo");
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    @Test
+    void skipsCommentLinesLikeTheFlatFileItemReader() throws Exception {
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, "# header\nalice,Pune\n#bob,Oslo\ndan,Lima\n");
+
+        MappedFileItemReader reader = new MappedFileItemReader(file.toString(), ",", 8);
+        reader.open(new ExecutionContext());
+        MyTest alice = reader.read();
+        assertRecord(alice, "alice", "Pune");
+        assertEquals(2, alice.getLineNumber());
+        MyTest dan = reader.read();
+        assertRecord(dan, "dan", "Lima");
+        assertEquals(4, dan.getLineNumber());
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    @Test
+    void onlyALeadingQuoteOpensAQuotedField() throws Exception {
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, "5\" tall,Pune\n  \"a,b\" ,Oslo\n");
+
+        MappedFileItemReader reader = new MappedFileItemReader(file.toString(), ",", 1024);
+        reader.open(new ExecutionContext());
+        assertRecord(reader.read(), "5\" tall", "Pune");
+        assertRecord(reader.read(), "a,b", "Oslo");
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    private void assertRecord(MyTest record, String name, String city) {
+        assertEquals(name, record.getName());
+        assertEquals(city, record.getCity());
+    }
+}
@@ -0,0 +1,80 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiFileItemReaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsTheFilesInOrderAndSkipsAFileWhichCannotBeOpened() throws Exception {
+        List<String> files = List.of(write("a.csv", "a1", "a2"), tempDir.resolve("missing.csv").toString(),
+                write("c.csv", "c1", "c2", "c3"));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        MultiFileItemReader<String> reader = reader(files);
+        reader.open(executionContext);
+        List<String> read = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            read.add(item);
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        assertEquals(List.of("a1", "a2", "c1", "c2", "c3"), read);
+        assertEquals(List.of(2L, -1L, 3L), MultiFileItemReader.finishedRows(executionContext));
+        assertFalse(MultiFileItemReader.isReadingFile(executionContext));
+    }
+
+    @Test
+    void restartsInTheFileBeingRead() throws Exception {
+        List<String> files = List.of(write("a.csv", "a1"), write("b.csv", "b1", "b2", "b3"));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        MultiFileItemReader<String> reader = reader(files);
+        reader.open(executionContext);
+        assertEquals("a1", reader.read());
+        assertEquals("b1", reader.read());
+        reader.update(executionContext);
+        assertEquals("b2", reader.read());
+        reader.close();
+
+        assertEquals(List.of(1L), MultiFileItemReader.finishedRows(executionContext));
+        assertTrue(MultiFileItemReader.isReadingFile(executionContext));
+
+        MultiFileItemReader<String> restarted = reader(files);
+        restarted.open(executionContext);
+        assertEquals("b2", restarted.read());
+        assertEquals("b3", restarted.read());
+        assertNull(restarted.read());
+        restarted.update(executionContext);
+        restarted.close();
+
+        assertEquals(List.of(1L, 3L), MultiFileItemReader.finishedRows(executionContext));
+    }
+
+    private String write(String name, String... lines) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.write(file, List.of(lines));
+        return file.toString();
+    }
+
+    private static MultiFileItemReader<String> reader(List<String> files) {
+        return new MultiFileItemReader<>(files,
+                file -> new ByteRangeItemReader<>(file, 0, Long.MAX_VALUE, (line, lineNumber) -> line));
+    }
+}
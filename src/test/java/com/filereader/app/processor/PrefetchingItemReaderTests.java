@@ -0,0 +1,111 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PrefetchingItemReaderTests {
+
+    @Test
+    void returnsItemsAndErrorsInOrderAndSavesTheConsumedPosition() throws Exception {
+        PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new NumberReader(10, 4), 3);
+        reader.open(new ExecutionContext());
+        assertEquals(1, reader.read());
+        assertEquals(2, reader.read());
+        assertEquals(3, reader.read());
+        assertThrows(ParseException.class, reader::read);
+
+        // Give the reader time to fill its queue, the saved position must not follow it.
+        Thread.sleep(100);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.update(executionContext);
+        assertEquals(4, executionContext.getInt("numbers.read.count"));
+
+        for (int i = 5; i <= 10; i++) {
+            assertEquals(i, reader.read());
+        }
+        assertNull(reader.read());
+        assertNull(reader.read());
+        reader.update(executionContext);
+        assertEquals(10, executionContext.getInt("numbers.read.count"));
+        reader.close();
+    }
+
+    @Test
+    void restartsAfterTheSavedPosition() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putInt("numbers.read.count", 7);
+        PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new NumberReader(10, 0), 2);
+        reader.open(executionContext);
+        assertEquals(8, reader.read());
+        reader.close();
+    }
+
+    @Test
+    void throwsAnErrorOfTheReadingThreadInsteadOfWaitingForever() throws Exception {
+        NumberReader delegate = new NumberReader(10, 0) {
+            @Override
+            protected Integer doRead() {
+                Integer item = super.doRead();
+                if (item == 3) {
+                    throw new StackOverflowError("deep line");
+                }
+                return item;
+            }
+        };
+        PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(delegate, 1);
+        reader.open(new ExecutionContext());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertEquals(1, reader.read());
+            assertEquals(2, reader.read());
+            assertEquals("deep line", assertThrows(StackOverflowError.class, reader::read).getMessage());
+            assertThrows(StackOverflowError.class, reader::read);
+        });
+        reader.close();
+    }
+
+    /**
+     * NumberReader class reads the numbers from 1 to count and fails on the given one.
+     */
+    private static class NumberReader extends AbstractItemCountingItemStreamItemReader<Integer> {
+
+        private final int failOn;
+        private int next;
+
+        NumberReader(int count, int failOn) {
+            this.failOn = failOn;
+            setName("numbers");
+            setMaxItemCount(count);
+        }
+
+        @Override
+        protected Integer doRead() {
+            next++;
+            if (next == failOn) {
+                throw new ParseException("Bad item " + next);
+            }
+            return next;
+        }
+
+        @Override
+        protected void jumpToItem(int itemIndex) {
+            next = itemIndex;
+        }
+
+        @Override
+        protected void doOpen() {
+        }
+
+        @Override
+        protected void doClose() {
+        }
+    }
+}
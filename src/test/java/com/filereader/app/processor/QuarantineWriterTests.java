@@ -0,0 +1,92 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.entity.MyTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarantineWriterTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesTheSkippedRowsSoTheyCanBeReprocessed() throws Exception {
+        QuarantineWriter writer = new QuarantineWriter(directory.toString(), ",");
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "fileProcessingJob"), 1L,
+                new JobParametersBuilder().addString("fileName", "input.csv").toJobParameters());
+        StepExecution first = new StepExecution("workerStep:partition0", jobExecution);
+        StepExecution second = new StepExecution("workerStep:partition1", jobExecution);
+
+        writer.beforeStep(first);
+        writer.onSkipInRead(new LineParseException("Parsing error", null, "broken", 3, 42));
+        MyTest item = new MyTest();
+        item.setName("Bartholomew, Jr");
+        item.setCity("Pune");
+        item.setLineNumber(7);
+        item.setByteOffset(120);
+        writer.onSkipInProcess(item, new IllegalArgumentException("Name is too long"));
+        writer.afterStep(first);
+        writer.beforeStep(second);
+        writer.onSkipInWrite(item, new FlatFileParseException("Parsing error", new IllegalStateException("bad\nrow"), "x", 1));
+        writer.afterStep(second);
+
+        Path quarantine = directory.resolve("input.csv.quarantine");
+        assertEquals(List.of(
+                "# line 3, offset 42, LineParseException: Parsing error",
+                "broken",
+                "# line 7, offset 120, IllegalArgumentException: Name is too long",
+                "\"Bartholomew, Jr\",Pune",
+                "# line 7, offset 120, IllegalStateException: bad row",
+                "\"Bartholomew, Jr\",Pune"), Files.readAllLines(quarantine));
+
+        CustomLineMapper lineMapper = new CustomLineMapper();
+        ReflectionTestUtils.setField(lineMapper, "delimiter", ",");
+        lineMapper.init();
+        FlatFileItemReader<MyTest> reader = new FlatFileItemReaderBuilder<MyTest>()
+                .name("quarantine")
+                .resource(new FileSystemResource(quarantine))
+                .lineMapper(lineMapper)
+                .build();
+        reader.open(new ExecutionContext());
+        List<String> names = new ArrayList<>();
+        assertThrows(FlatFileParseException.class, reader::read);
+        for (MyTest record = reader.read(); record != null; record = reader.read()) {
+            names.add(record.getName());
+        }
+        reader.close();
+        assertEquals(List.of("Bartholomew, Jr", "Bartholomew, Jr"), names);
+        assertTrue(QuarantineWriter.isQuarantineFile(quarantine.toString()));
+    }
+
+    @Test
+    void skipsTheSkippableExceptionsUpToTheLimit() {
+        CustomSkipPolicy policy = new CustomSkipPolicy(2, List.of(FlatFileParseException.class, IllegalArgumentException.class));
+
+        assertTrue(policy.shouldSkip(new NumberFormatException(), 0));
+        assertTrue(policy.shouldSkip(new LineParseException("", null, "", 1, 0), 1));
+        assertFalse(policy.shouldSkip(new IllegalStateException(), 0));
+        assertThrows(SkipLimitExceededException.class, () -> policy.shouldSkip(new IllegalArgumentException(), 2));
+        assertFalse(new CustomSkipPolicy(0, List.of(IllegalArgumentException.class)).shouldSkip(new IllegalArgumentException(), 0));
+    }
+}
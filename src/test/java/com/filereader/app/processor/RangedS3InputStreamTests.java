@@ -0,0 +1,118 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangedS3InputStreamTests {
+
+    @Test
+    void reassemblesConcurrentRangesInOrderAndRetriesFailedRanges() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("name").append(i).append(",city").append(i).append('\n');
+        }
+        byte[] object = content.toString().getBytes(StandardCharsets.UTF_8);
+        FakeS3Client s3Client = new FakeS3Client(object);
+
+        S3Resource resource = new S3Resource(s3Client, "bucket", "input.csv", 4099, 4, 3);
+        byte[] read;
+        try (InputStream in = resource.getInputStream()) {
+            assertInstanceOf(RangedS3InputStream.class, in);
+            read = in.readAllBytes();
+        }
+
+        assertArrayEquals(object, read);
+        assertTrue(s3Client.maxInFlight.get() <= 4, "max in flight: " + s3Client.maxInFlight.get());
+        assertTrue(s3Client.failed.size() > 0);
+    }
+
+    @Test
+    void failsInsteadOfMixingVersionsWhenTheObjectIsOverwritten() throws Exception {
+        byte[] object = new byte[40000];
+        FakeS3Client s3Client = new FakeS3Client(object);
+
+        S3Resource resource = new S3Resource(s3Client, "bucket", "input.csv", 4099, 2, 3);
+        try (InputStream in = resource.getInputStream()) {
+            in.readNBytes(4099);
+            s3Client.eTag = "\"v2\"";
+            IOException e = assertThrows(IOException.class, in::readAllBytes);
+            assertTrue(e.getCause().getMessage().contains("overwritten"), e.getCause().getMessage());
+        }
+        assertTrue(s3Client.preconditionFailures.get() > 0);
+    }
+
+    /**
+     * FakeS3Client serves byte ranges of one object and fails the first request of every tenth range.
+     */
+    private static class FakeS3Client implements S3Client {
+
+        private final byte[] object;
+        private final Set<String> failed = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger preconditionFailures = new AtomicInteger();
+        private volatile String eTag = "\"v1\"";
+
+        FakeS3Client(byte[] object) {
+            this.object = object;
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            return HeadObjectResponse.builder().contentLength((long) object.length).eTag(eTag).build();
+        }
+
+        @Override
+        public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                String[] range = request.range().substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(range[0]);
+                int end = Integer.parseInt(range[1]);
+                if (!eTag.equals(request.ifMatch())) {
+                    preconditionFailures.incrementAndGet();
+                    throw S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+                }
+                if ((start / 4099) % 10 == 3 && failed.add(request.range())) {
+                    throw S3Exception.builder().statusCode(503).message("Slow Down").build();
+                }
+                Thread.sleep(2);
+                return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(object, start, end - start + 1)));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
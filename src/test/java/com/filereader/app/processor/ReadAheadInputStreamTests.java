@@ -0,0 +1,63 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReadAheadInputStreamTests {
+
+    @Test
+    void readsTheWrappedStreamInOrder() throws Exception {
+        String data = "alice,Pune\nbob,Oslo\n".repeat(1000);
+        try (InputStream in = new ReadAheadInputStream(
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), 64, 2)) {
+            assertEquals(data, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void rethrowsARuntimeExceptionOfTheWrappedStreamInsteadOfHanging() {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() {
+                if (count++ == 100) {
+                    throw new IllegalStateException("corrupt block");
+                }
+                return 'a';
+            }
+        };
+
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            try (InputStream in = new ReadAheadInputStream(failing, 16, 2)) {
+                return assertThrows(IllegalStateException.class, in::readAllBytes);
+            }
+        });
+        assertEquals("corrupt block", e.getMessage());
+    }
+
+    @Test
+    void stillRethrowsAnIOExceptionOfTheWrappedStream() {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("disk error");
+            }
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            try (InputStream in = new ReadAheadInputStream(failing, 16, 2)) {
+                assertEquals("disk error", assertThrows(IOException.class, in::read).getMessage());
+            }
+        });
+    }
+}
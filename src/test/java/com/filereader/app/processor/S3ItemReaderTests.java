@@ -0,0 +1,127 @@
+package com.filereader.app.processor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class S3ItemReaderTests {
+
+    @Test
+    void restartsFromTheSavedOffsetWithARangedGet() throws Exception {
+        FakeS3Client s3Client = new FakeS3Client("a,1\r\nbb,2\nccc,3\ndddd,4\neeeee,5".getBytes(StandardCharsets.UTF_8));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        S3ItemReader<String> reader = reader(s3Client);
+        reader.open(executionContext);
+        assertEquals("1:a,1", reader.read());
+        assertEquals("2:bb,2", reader.read());
+        reader.update(executionContext);
+        assertEquals("3:ccc,3", reader.read());
+        reader.close();
+
+        S3ItemReader<String> restarted = reader(s3Client);
+        restarted.open(executionContext);
+        assertEquals("3:ccc,3", restarted.read());
+        assertEquals("4:dddd,4", restarted.read());
+        assertEquals("5:eeeee,5", restarted.read());
+        assertNull(restarted.read());
+        restarted.close();
+
+        assertEquals(List.of("bytes=0-29", "bytes=10-29"), s3Client.ranges);
+    }
+
+    @Test
+    void skipsCommentLinesLikeTheFlatFileItemReader() throws Exception {
+        FakeS3Client s3Client = new FakeS3Client("# header\na,1\n#note\nbb,2\n".getBytes(StandardCharsets.UTF_8));
+
+        S3ItemReader<String> reader = reader(s3Client);
+        reader.open(new ExecutionContext());
+        assertEquals("2:a,1", reader.read());
+        assertEquals("4:bb,2", reader.read());
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    @Test
+    void failsToRestartInAnotherVersionOfTheObject() throws Exception {
+        FakeS3Client s3Client = new FakeS3Client("a,1\nbb,2\nccc,3\n".getBytes(StandardCharsets.UTF_8));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        S3ItemReader<String> reader = reader(s3Client);
+        reader.open(executionContext);
+        assertEquals("1:a,1", reader.read());
+        reader.update(executionContext);
+        reader.close();
+
+        s3Client.eTag = "\"v2\"";
+        S3ItemReader<String> restarted = reader(s3Client);
+        ItemStreamException e = assertThrows(ItemStreamException.class, () -> restarted.open(executionContext));
+        assertTrue(e.getCause().getMessage().contains("overwritten"));
+        assertEquals(List.of("\"v1\"", "\"v1\""), s3Client.ifMatches);
+    }
+
+    private static S3ItemReader<String> reader(S3Client s3Client) {
+        return new S3ItemReader<>(new S3Resource(s3Client, "bucket", "input.csv"), (line, lineNumber) -> lineNumber + ":" + line);
+    }
+
+    /**
+     * FakeS3Client serves byte ranges of one object and records the requested ranges.
+     */
+    private static class FakeS3Client implements S3Client {
+
+        private final byte[] object;
+        private final List<String> ranges = new ArrayList<>();
+        private final List<String> ifMatches = new ArrayList<>();
+        private String eTag = "\"v1\"";
+
+        FakeS3Client(byte[] object) {
+            this.object = object;
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            return HeadObjectResponse.builder().contentLength((long) object.length).eTag(eTag).build();
+        }
+
+        @Override
+        public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+            ranges.add(request.range());
+            ifMatches.add(request.ifMatch());
+            if (!eTag.equals(request.ifMatch())) {
+                throw (S3Exception) S3Exception.builder().statusCode(412).message("Precondition Failed").build();
+            }
+            String[] range = request.range().substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(range[0]);
+            int end = Integer.parseInt(range[1]);
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(object, start, end - start + 1)));
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
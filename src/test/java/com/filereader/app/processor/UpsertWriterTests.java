@@ -0,0 +1,59 @@
+package com.filereader.app.processor;
+
+import com.filereader.app.config.props.DatabaseProperties;
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.entity.MyTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpsertWriterTests {
+
+    @Test
+    void keepsTheLastRecordOfEachNaturalKey() {
+        UpsertWriter writer = new UpsertWriter(null, properties(List.of("name", "city")), new DatabaseProperties());
+        MyTest first = record("alice", "Pune");
+        MyTest other = record("bob", "Pune");
+        MyTest last = record("alice", "Pune");
+
+        List<MyTest> items = writer.deduplicate(List.of(first, other, last));
+
+        assertEquals(2, items.size());
+        assertSame(last, items.get(0));
+        assertSame(other, items.get(1));
+        assertEquals("INSERT INTO mytest (id, name, city, created_at, updated_at) VALUES (?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE updated_at = VALUES(updated_at)", writer.getUpsertSql());
+    }
+
+    @Test
+    void updatesTheColumnsOutsideTheNaturalKey() {
+        UpsertWriter writer = new UpsertWriter(null, properties(List.of(" Name ")), new DatabaseProperties());
+
+        assertEquals(1, writer.deduplicate(List.of(record("alice", "Pune"), record("alice", "Oslo"))).size());
+        assertEquals("INSERT INTO mytest (id, name, city, created_at, updated_at) VALUES (?, ?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE city = VALUES(city), updated_at = VALUES(updated_at)", writer.getUpsertSql());
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        assertThrows(IllegalArgumentException.class, () -> new UpsertWriter(null, properties(List.of("id")), new DatabaseProperties()));
+        assertThrows(IllegalArgumentException.class, () -> new UpsertWriter(null, properties(List.of()), new DatabaseProperties()));
+    }
+
+    private static JobProperties properties(List<String> naturalKey) {
+        JobProperties properties = new JobProperties();
+        properties.getWriter().setNaturalKey(naturalKey);
+        return properties;
+    }
+
+    private static MyTest record(String name, String city) {
+        MyTest record = new MyTest();
+        record.setName(name);
+        record.setCity(city);
+        return record;
+    }
+}
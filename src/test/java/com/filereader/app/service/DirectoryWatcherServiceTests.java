@@ -0,0 +1,101 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.WatcherProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.JobParameters;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DirectoryWatcherServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final JobDispatcher jobDispatcher = mock(JobDispatcher.class);
+
+    @Test
+    void doneMarkerArrivingBeforeItsDataFileIsKeptUntilTheFileIsStable() throws Exception {
+        WatcherProperties properties = new WatcherProperties();
+        properties.getStability().setQuietMillis(0);
+        properties.getStability().setRequireDoneMarker(true);
+        DirectoryWatcherService watcher = watcher(properties);
+        Path marker = Files.writeString(tempDir.resolve("input.csv.done"), "");
+        Path dataFile = tempDir.resolve("input.csv");
+
+        watcher.onFileEvent(marker);
+        watcher.dispatchStable();
+        assertTrue(Files.exists(marker));
+        verify(jobDispatcher, never()).submit(anyString(), any());
+
+        Files.writeString(dataFile, "alice,Pune\n");
+        watcher.onFileEvent(dataFile);
+        watcher.dispatchStable();
+
+        assertEquals(List.of(dataFile.toString()), submittedFiles());
+        assertFalse(Files.exists(marker));
+    }
+
+    @Test
+    void fileWithoutDoneMarkerIsNotDispatchedWhenTheMarkerIsRequired() throws Exception {
+        WatcherProperties properties = new WatcherProperties();
+        properties.getStability().setQuietMillis(0);
+        properties.getStability().setRequireDoneMarker(true);
+        DirectoryWatcherService watcher = watcher(properties);
+        Path dataFile = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\n");
+
+        watcher.onFileEvent(dataFile);
+        watcher.dispatchStable();
+        verify(jobDispatcher, never()).submit(anyString(), any());
+
+        watcher.onFileEvent(Files.writeString(tempDir.resolve("input.csv.done"), ""));
+        assertEquals(List.of(dataFile.toString()), submittedFiles());
+    }
+
+    @Test
+    void reconcileScanQueuesTheMissedFilesOnce() throws Exception {
+        WatcherProperties properties = new WatcherProperties();
+        properties.getStability().setQuietMillis(0);
+        DirectoryWatcherService watcher = watcher(properties);
+        Path older = Files.writeString(tempDir.resolve("older.csv"), "alice,Pune\n");
+        Path newer = Files.writeString(tempDir.resolve("newer.csv"), "bob,Oslo\n");
+        Files.setLastModifiedTime(older, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Files.createDirectories(tempDir.resolve("archive"));
+        Files.writeString(tempDir.resolve("archive").resolve("archived.csv"), "dan,Lima\n");
+
+        watcher.reconcile(tempDir);
+        watcher.dispatchStable();
+        assertEquals(List.of(older.toString(), newer.toString()), submittedFiles());
+
+        // A second scan, or a late watch event, finds the same files still waiting in the queue.
+        watcher.reconcile(tempDir);
+        watcher.onFileEvent(newer);
+        watcher.dispatchStable();
+        assertEquals(List.of(older.toString(), newer.toString()), submittedFiles());
+    }
+
+    private List<String> submittedFiles() throws InterruptedException {
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobDispatcher, atLeast(0)).submit(anyString(), parameters.capture());
+        return parameters.getAllValues().stream().map(jobParameters -> jobParameters.getString("filePath")).toList();
+    }
+
+    private DirectoryWatcherService watcher(WatcherProperties properties) throws Exception {
+        return new DirectoryWatcherService(tempDir.toString(), tempDir.resolve("archive").toString(),
+                tempDir.resolve("error").toString(), "", jobDispatcher, properties);
+    }
+}
@@ -0,0 +1,39 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.JobProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileRegistryTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void remembersLoadedFilesByContentAcrossRestarts() throws Exception {
+        Path first = Files.writeString(tempDir.resolve("first.csv"), "alice,Pune\nbob,Oslo\n");
+        Path copy = Files.writeString(tempDir.resolve("copy.csv"), "alice,Pune\nbob,Oslo\n");
+        Path other = Files.writeString(tempDir.resolve("other.csv"), "alice,Pune\nbob,Rome\n");
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getRegistry().setStoreFile(tempDir.resolve("registry/file-registry.log").toString());
+
+        FileRegistry registry = new FileRegistry(jobProperties);
+        registry.record(FileRegistry.fingerprint(first), "first.csv", 2);
+        registry.close();
+
+        FileRegistry restarted = new FileRegistry(jobProperties);
+        assertEquals(FileRegistry.fingerprint(first), FileRegistry.fingerprint(copy));
+        assertNotEquals(FileRegistry.fingerprint(first), FileRegistry.fingerprint(other));
+        assertEquals(2, restarted.find(FileRegistry.fingerprint(copy)).rows());
+        assertEquals("first.csv", restarted.find(FileRegistry.fingerprint(copy)).fileName());
+        assertNull(restarted.find(FileRegistry.fingerprint(other)));
+        assertEquals(FileRegistry.fingerprint(10, "\"abc\""), FileRegistry.fingerprint(10, "abc"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.filereader.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileStabilityTrackerTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void fileIsReadyOnceItStaysUnchangedForTheWindow() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\n");
+        FileStabilityTracker tracker = new FileStabilityTracker(200);
+
+        assertTrue(tracker.track(file));
+        assertFalse(tracker.track(file));
+        assertEquals(List.of(), tracker.poll());
+
+        Thread.sleep(120);
+        Files.writeString(file, "alice,Pune\nbob,Oslo\n");
+        assertEquals(List.of(), tracker.poll());
+        Thread.sleep(120);
+        assertEquals(List.of(), tracker.poll(), "the window restarts when the file changes");
+
+        Thread.sleep(250);
+        assertEquals(List.of(file), tracker.poll());
+        assertEquals(List.of(), tracker.poll());
+    }
+
+    @Test
+    void fileWhichDisappearsIsDropped() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("input.csv"), "alice,Pune\n");
+        FileStabilityTracker tracker = new FileStabilityTracker(0);
+
+        tracker.track(file);
+        Files.delete(file);
+
+        assertEquals(List.of(), tracker.poll());
+        assertFalse(tracker.track(file));
+    }
+
+    @Test
+    void orphanMarkerIsKeptUntilRemoved() {
+        Path dataFile = tempDir.resolve("input.csv");
+        Path marker = tempDir.resolve("input.csv.done");
+        FileStabilityTracker tracker = new FileStabilityTracker(0);
+
+        assertTrue(tracker.addOrphanMarker(dataFile, marker));
+        assertFalse(tracker.addOrphanMarker(dataFile, marker));
+        assertTrue(tracker.hasOrphanMarker(dataFile));
+        assertEquals(marker, tracker.removeOrphanMarker(dataFile));
+        assertNull(tracker.removeOrphanMarker(dataFile));
+
+        tracker.addOrphanMarker(dataFile, marker);
+        tracker.forgetMarker(marker);
+        assertFalse(tracker.hasOrphanMarker(dataFile));
+    }
+}
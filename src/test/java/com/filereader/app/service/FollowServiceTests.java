@@ -0,0 +1,124 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.WatcherProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FollowServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> loaded = new ArrayList<>();
+    private BatchStatus status = BatchStatus.COMPLETED;
+
+    @Test
+    void loadsTheAppendedCompleteLinesAndResumesFromTheCheckpoint() throws Exception {
+        Path file = tempDir.resolve("orders.csv");
+        Files.writeString(file, "a,1\nb,2\nc,");
+        FollowService service = service(file);
+
+        service.poll();
+        append(file, "3\n");
+        service.poll();
+        service.poll();
+
+        assertEquals(List.of("orders.csv 0-8 #0", "orders.csv 8-12 #0"), loaded);
+
+        append(file, "d,4\n");
+        service(file).poll();
+        assertEquals("orders.csv 12-16 #0", loaded.get(2));
+    }
+
+    @Test
+    void retriesAFailedRangeWithTheSameParameters() throws Exception {
+        Path file = tempDir.resolve("orders.csv");
+        Files.writeString(file, "a,1\n");
+        FollowService service = service(file);
+
+        status = BatchStatus.FAILED;
+        service.poll();
+        append(file, "b,2\n");
+        status = BatchStatus.COMPLETED;
+        service.poll();
+        service.poll();
+
+        assertEquals(List.of("orders.csv 0-4 #0", "orders.csv 0-4 #0", "orders.csv 4-8 #0"), loaded);
+    }
+
+    @Test
+    void handlesTruncationAndRotation() throws Exception {
+        Path file = tempDir.resolve("orders.csv");
+        Files.writeString(file, "a,1\nb,2\n");
+        FollowService service = service(file);
+        service.poll();
+
+        Files.writeString(file, "c,3\n", StandardOpenOption.TRUNCATE_EXISTING);
+        service.poll();
+
+        append(file, "d,4");
+        Files.move(file, tempDir.resolve("orders.csv.1"));
+        Files.writeString(file, "e,5\n");
+        service.poll();
+
+        assertEquals(List.of("orders.csv 0-8 #0", "orders.csv 0-4 #1", "orders.csv.1 4-7 #1", "orders.csv 0-4 #2"),
+                loaded);
+    }
+
+    @Test
+    void detectsACopyTruncateWhichGrewPastTheOffset() throws Exception {
+        Path file = tempDir.resolve("orders.csv");
+        Files.writeString(file, "a,1\nb,2\n");
+        FollowService service = service(file);
+        service.poll();
+
+        Files.writeString(file, "c,3\nd,4\ne,5\n", StandardOpenOption.TRUNCATE_EXISTING);
+        service(file).poll();
+
+        assertEquals(List.of("orders.csv 0-8 #0", "orders.csv 0-12 #1"), loaded);
+    }
+
+    @Test
+    void rejectsCompressedAndQuarantineFiles() throws Exception {
+        Path file = tempDir.resolve("orders.csv");
+        Files.write(file, new byte[] {0x1F, (byte) 0x8B, 8, 0, '\n'});
+        FollowService service = service(file);
+
+        service.poll();
+
+        assertEquals(List.of(), loaded);
+        assertThrows(IllegalArgumentException.class, () -> service(tempDir.resolve("orders.csv.quarantine")));
+    }
+
+    private FollowService service(Path file) {
+        WatcherProperties properties = new WatcherProperties();
+        properties.getFollow().setFiles(List.of(file.toString()));
+        properties.getFollow().setCheckpointFile(tempDir.resolve("follow.checkpoint").toString());
+        return new FollowService((job, jobParameters) -> launch(jobParameters), null, properties);
+    }
+
+    private JobExecution launch(JobParameters jobParameters) {
+        loaded.add(jobParameters.getString("fileName") + " " + jobParameters.getLong("startOffset") + "-"
+                + jobParameters.getLong("endOffset") + " #" + jobParameters.getLong(FollowService.GENERATION_KEY));
+        JobExecution jobExecution = new JobExecution(1L, jobParameters);
+        jobExecution.setStatus(status);
+        return jobExecution;
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,256 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.config.props.WatcherProperties;
+import com.filereader.app.processor.JobCompletionNotificationListener;
+import com.filereader.app.processor.MultiFileItemReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobDispatcherTests {
+
+    @TempDir
+    Path tempDir;
+
+    /** The file names of the jobs, in the order they are run. **/
+    private final BlockingQueue<String> started = new LinkedBlockingQueue<>();
+
+    /** The first job waits for this latch, so the next jobs are queued behind it. **/
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** Whether a coalesced job fails after reading its first file only. **/
+    private volatile boolean failCoalesced;
+
+    /** The identifying parameters of the job instances which completed. **/
+    private final Set<JobParameters> completed = ConcurrentHashMap.newKeySet();
+
+    private final JobLauncher jobLauncher = (job, jobParameters) -> {
+        String fileName = jobParameters.getString("fileName");
+        if (!completed.add(new JobParameters(jobParameters.getIdentifyingParameters()))) {
+            throw new JobInstanceAlreadyCompleteException("Already completed: " + fileName);
+        }
+        started.add(fileName);
+        if ("a0".equals(fileName)) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        JobExecution jobExecution = new JobExecution(1L);
+        String filePaths = jobParameters.getString(JobCompletionNotificationListener.FILE_PATHS_KEY);
+        if (failCoalesced && filePaths != null) {
+            List<String> files = MultiFileItemReader.split(filePaths);
+            jobExecution.getExecutionContext().putString(JobCompletionNotificationListener.UNREAD_FILES_KEY,
+                    String.join(MultiFileItemReader.SEPARATOR, files.subList(1, files.size())));
+        }
+        return jobExecution;
+    };
+
+    private JobDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void servesTheGroupsRoundRobin() throws Exception {
+        dispatcher = dispatcher(1, 100);
+        dispatcher.submit("a", parameters("a0"));
+        assertEquals("a0", started.poll(5, TimeUnit.SECONDS));
+        for (String fileName : List.of("a1", "a2", "a3")) {
+            dispatcher.submit("a", parameters(fileName));
+        }
+        dispatcher.submit("b", parameters("b1"));
+        dispatcher.submit("b", parameters("b2"));
+
+        release.countDown();
+
+        List<String> order = List.of(take(), take(), take(), take(), take());
+        assertEquals(List.of("a1", "b1", "a2", "b2", "a3"), order);
+    }
+
+    @Test
+    void submitBlocksWhileTheQueueIsFull() throws Exception {
+        dispatcher = dispatcher(1, 2);
+        dispatcher.submit("a", parameters("a0"));
+        assertEquals("a0", started.poll(5, TimeUnit.SECONDS));
+        dispatcher.submit("a", parameters("a1"));
+        dispatcher.submit("b", parameters("b1"));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                dispatcher.submit("c", parameters("c1"));
+                submitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertFalse(submitted.await(300, TimeUnit.MILLISECONDS), "submit did not wait for a free slot");
+
+        release.countDown();
+
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a1", "b1", "c1"), List.of(take(), take(), take()));
+    }
+
+    @Test
+    void coalescesTheQueuedSmallFilesOfAGroupUpToMaxFilesServingTheGroupsRoundRobin() throws Exception {
+        JobProperties jobProperties = coalescing(3, 1000, 100);
+        dispatcher = dispatcher(1, 100, jobProperties);
+        dispatcher.submit("a", parameters("a0"));
+        assertEquals("a0", started.poll(5, TimeUnit.SECONDS));
+        for (String fileName : List.of("d1", "d2", "d3", "d4", "d5")) {
+            submitFile("d", fileName, 10);
+        }
+        submitFile("e", "e1", 10);
+
+        release.countDown();
+
+        assertEquals(List.of("d1+2", "e1", "d4+1"), List.of(take(), take(), take()));
+    }
+
+    @Test
+    void stopsCoalescingAtMaxBytesAndAtALargeFile() throws Exception {
+        JobProperties jobProperties = coalescing(10, 25, 100);
+        jobProperties.getCoalesce().setMaxFileBytes(50);
+        dispatcher = dispatcher(1, 100, jobProperties);
+        dispatcher.submit("a", parameters("a0"));
+        assertEquals("a0", started.poll(5, TimeUnit.SECONDS));
+        submitFile("d", "d1", 10);
+        submitFile("d", "d2", 10);
+        submitFile("d", "d3", 10);
+        submitFile("d", "large", 100);
+        submitFile("d", "d4", 10);
+
+        release.countDown();
+
+        assertEquals(List.of("d1+1", "d3", "large", "d4"), List.of(take(), take(), take(), take()));
+    }
+
+    @Test
+    void coalescesTheFilesArrivingWithinTheWindow() throws Exception {
+        dispatcher = dispatcher(1, 100, coalescing(10, 1000, 500));
+        submitFile("d", "d1", 10);
+        Thread.sleep(50);
+        submitFile("d", "d2", 10);
+
+        assertEquals("d1+1", take());
+
+        submitFile("d", "d3", 10);
+        long start = System.nanoTime();
+        assertEquals("d3", take());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400), "the window was not waited for");
+    }
+
+    @Test
+    void queuesTheUnreadFilesOfAFailedCoalescedJobBehindTheOtherGroups() throws Exception {
+        failCoalesced = true;
+        dispatcher = dispatcher(1, 100, coalescing(3, 1000, 100));
+        dispatcher.submit("a", parameters("a0"));
+        assertEquals("a0", started.poll(5, TimeUnit.SECONDS));
+        submitFile(tempDir.toString(), "d1", 10);
+        submitFile(tempDir.toString(), "d2", 10);
+        submitFile(tempDir.toString(), "d3", 10);
+        dispatcher.submit("b", parameters("b1"));
+
+        release.countDown();
+
+        assertEquals(List.of("d1+2", "b1", "d2", "d3"), List.of(take(), take(), take(), take()));
+    }
+
+    @Test
+    void identifiesTheJobOfAFileByItsVersionAndNotByItsLaunchTime() throws Exception {
+        Path file = Files.write(tempDir.resolve("orders.csv"), new byte[10]);
+        JobParameters first = JobDispatcher.fileJobParameters(file);
+        Thread.sleep(5);
+
+        assertEquals(first.getIdentifyingParameters(), JobDispatcher.fileJobParameters(file).getIdentifyingParameters());
+        assertFalse(first.getIdentifyingParameters().containsKey("time"));
+
+        Files.write(file, new byte[20]);
+        assertNotEquals(first.getIdentifyingParameters(), JobDispatcher.fileJobParameters(file).getIdentifyingParameters());
+    }
+
+    @Test
+    void runsANewJobInstanceForACompletedFileStillInTheDirectory() throws Exception {
+        dispatcher = dispatcher(1, 100);
+        Path file = Files.write(tempDir.resolve("orders.csv"), new byte[10]);
+        dispatcher.submit("d", JobDispatcher.fileJobParameters(file));
+        assertEquals("orders.csv", take());
+
+        dispatcher.submit("d", JobDispatcher.fileJobParameters(file));
+
+        assertEquals("orders.csv", take());
+        assertEquals(2, completed.size());
+    }
+
+    private void submitFile(String group, String fileName, int bytes) throws Exception {
+        Path file = Files.write(tempDir.resolve(fileName), new byte[bytes]);
+        dispatcher.submit(group, new JobParametersBuilder()
+                .addString("fileName", fileName)
+                .addString("filePath", file.toString())
+                .toJobParameters());
+    }
+
+    private static JobProperties coalescing(int maxFiles, long maxBytes, long windowMillis) {
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getCoalesce().setEnabled(true);
+        jobProperties.getCoalesce().setMaxFiles(maxFiles);
+        jobProperties.getCoalesce().setMaxBytes(maxBytes);
+        jobProperties.getCoalesce().setWindowMillis(windowMillis);
+        return jobProperties;
+    }
+
+    private String take() throws InterruptedException {
+        String fileName = started.poll(5, TimeUnit.SECONDS);
+        if (fileName == null) {
+            throw new AssertionError("No job was run, started so far: " + started);
+        }
+        return fileName;
+    }
+
+    private JobDispatcher dispatcher(int poolSize, int queueCapacity) {
+        return dispatcher(poolSize, queueCapacity, new JobProperties());
+    }
+
+    private JobDispatcher dispatcher(int poolSize, int queueCapacity, JobProperties jobProperties) {
+        WatcherProperties properties = new WatcherProperties();
+        properties.getDispatch().setPoolSize(poolSize);
+        properties.getDispatch().setQueueCapacity(queueCapacity);
+        JobDispatcher jobDispatcher = new JobDispatcher(jobLauncher, null, properties, jobProperties);
+        jobDispatcher.start();
+        return jobDispatcher;
+    }
+
+    private static JobParameters parameters(String fileName) {
+        return new JobParametersBuilder().addString("fileName", fileName).toJobParameters();
+    }
+}
@@ -0,0 +1,178 @@
+package com.filereader.app.service;
+
+import com.filereader.app.config.props.ArchiveProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.CopyPartResult;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class S3ArchiverServiceImplTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void copiesLargeObjectsInPartsAndRetriesFailedMoves() throws Exception {
+        byte[] object = new byte[1000];
+        Arrays.fill(object, (byte) 'x');
+        object[999] = 'y';
+        FakeS3Client s3Client = new FakeS3Client();
+        s3Client.objects.put("in/input.csv", object);
+        s3Client.failDeletes.set(1);
+
+        S3ArchiverServiceImpl archiver = new S3ArchiverServiceImpl(s3Client, properties(null));
+        archiver.start();
+        archiver.moveFile("bucket", "in/input.csv", true);
+        awaitMoved(s3Client, "in/input.csv");
+        archiver.stop();
+
+        assertArrayEquals(object, s3Client.objects.get("archive/input.csv"));
+        assertEquals(4, s3Client.partCopies.get());
+        assertFalse(s3Client.objects.containsKey("in/input.csv"));
+        assertEquals("text/csv", s3Client.createUpload.contentType());
+        assertEquals(Map.of("source", "upload"), s3Client.createUpload.metadata());
+    }
+
+    @Test
+    void resumesTheMovesLeftInTheQueueFile() throws Exception {
+        String queueFile = tempDir.resolve("archive-queue.log").toString();
+        ArchiveQueue archiveQueue = new ArchiveQueue(queueFile);
+        archiveQueue.add(new ArchiveQueue.ArchiveTask("1", "bucket", "input.csv", "error/input.csv"));
+        archiveQueue.close();
+        FakeS3Client s3Client = new FakeS3Client();
+        s3Client.objects.put("input.csv", new byte[10]);
+
+        S3ArchiverServiceImpl archiver = new S3ArchiverServiceImpl(s3Client, properties(queueFile));
+        archiver.start();
+        awaitMoved(s3Client, "input.csv");
+        archiver.stop();
+
+        assertTrue(s3Client.objects.containsKey("error/input.csv"));
+        assertEquals(0, Files.size(Path.of(queueFile)));
+    }
+
+    private ArchiveProperties properties(String queueFile) {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setQueueFile(queueFile);
+        properties.setMultipartThreshold(100);
+        properties.setPartSize(300);
+        properties.setRetryDelayMillis(10);
+        return properties;
+    }
+
+    private void awaitMoved(FakeS3Client s3Client, String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (s3Client.objects.containsKey(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(50);
+    }
+
+    /**
+     * FakeS3Client keeps the objects of a single bucket in memory.
+     */
+    private static class FakeS3Client implements S3Client {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final AtomicInteger partCopies = new AtomicInteger();
+        private final AtomicInteger failDeletes = new AtomicInteger();
+        private volatile CreateMultipartUploadRequest createUpload;
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            byte[] object = objects.get(request.key());
+            if (object == null) {
+                throw S3Exception.builder().statusCode(404).message("Not Found").build();
+            }
+            return HeadObjectResponse.builder()
+                    .contentLength((long) object.length)
+                    .contentType("text/csv")
+                    .metadata(Map.of("source", "upload"))
+                    .build();
+        }
+
+        @Override
+        public CopyObjectResponse copyObject(CopyObjectRequest request) {
+            objects.put(request.destinationKey(), objects.get(request.sourceKey()).clone());
+            return CopyObjectResponse.builder().build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            createUpload = request;
+            String uploadId = "upload-" + uploads.size();
+            uploads.put(uploadId, new ConcurrentHashMap<>());
+            return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+        }
+
+        @Override
+        public UploadPartCopyResponse uploadPartCopy(UploadPartCopyRequest request) {
+            partCopies.incrementAndGet();
+            String[] range = request.copySourceRange().substring("bytes=".length()).split("-");
+            byte[] part = Arrays.copyOfRange(objects.get(request.sourceKey()), Integer.parseInt(range[0]),
+                    Integer.parseInt(range[1]) + 1);
+            uploads.get(request.uploadId()).put(request.partNumber(), part);
+            return UploadPartCopyResponse.builder()
+                    .copyPartResult(CopyPartResult.builder().eTag("etag-" + request.partNumber()).build())
+                    .build();
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> parts = uploads.remove(request.uploadId());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            request.multipartUpload().parts().stream()
+                    .sorted(Comparator.comparing(CompletedPart::partNumber))
+                    .forEach(part -> out.writeBytes(parts.get(part.partNumber())));
+            objects.put(request.key(), out.toByteArray());
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+            if (failDeletes.getAndDecrement() > 0) {
+                throw S3Exception.builder().statusCode(500).message("Internal Error").build();
+            }
+            objects.remove(request.key());
+            return DeleteObjectResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
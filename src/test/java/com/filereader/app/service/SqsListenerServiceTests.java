@@ -0,0 +1,240 @@
+package com.filereader.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filereader.app.config.props.JobProperties;
+import com.filereader.app.config.props.SqsProperties;
+import com.filereader.app.processor.JobCompletionNotificationListener;
+import com.filereader.app.processor.MultiFileItemReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqsListenerServiceTests {
+
+    @Test
+    void runsReceivedMessagesConcurrentlyAndDeletesThemInBatches() throws Exception {
+        FakeSqsClient sqsClient = new FakeSqsClient(25);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(100);
+            running.decrementAndGet();
+            return null;
+        };
+        SqsProperties properties = new SqsProperties();
+        properties.setPoolSize(4);
+        properties.setDeleteIntervalMillis(50);
+
+        SqsListenerService service = new SqsListenerService(sqsClient, jobLauncher, null, new ObjectMapper(), properties,
+                new JobProperties());
+        service.listen();
+        awaitDeleted(sqsClient, 25);
+        service.stop();
+
+        assertEquals(25, sqsClient.deleted.size());
+        assertTrue(maxRunning.get() > 1 && maxRunning.get() <= 4, "max running jobs: " + maxRunning.get());
+        assertTrue(sqsClient.receiveSizes.stream().allMatch(size -> size <= 4), "receive sizes: " + sqsClient.receiveSizes);
+        assertTrue(sqsClient.deleteBatches.get() < 25, "delete batches: " + sqsClient.deleteBatches.get());
+    }
+
+    @Test
+    void extendsTheVisibilityWhileTheJobRuns() throws Exception {
+        FakeSqsClient sqsClient = new FakeSqsClient(1);
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            sleep(1500);
+            return null;
+        };
+        SqsProperties properties = new SqsProperties();
+        properties.setHeartbeatSeconds(1);
+        properties.setDeleteIntervalMillis(50);
+
+        SqsListenerService service = new SqsListenerService(sqsClient, jobLauncher, null, new ObjectMapper(), properties,
+                new JobProperties());
+        service.listen();
+        awaitDeleted(sqsClient, 1);
+        service.stop();
+
+        assertTrue(sqsClient.extended.contains("receipt-0"));
+    }
+
+    @Test
+    void startsWhileTheQueueIsUnreachableAndResolvesItLater() throws Exception {
+        FakeSqsClient sqsClient = new FakeSqsClient(3);
+        sqsClient.failedQueueUrlRequests.set(2);
+        SqsProperties properties = new SqsProperties();
+        properties.setQueueUrlRetryMillis(50);
+        properties.setDeleteIntervalMillis(50);
+
+        SqsListenerService service = new SqsListenerService(sqsClient, (job, jobParameters) -> null, null,
+                new ObjectMapper(), properties, new JobProperties());
+        service.listen();
+        awaitDeleted(sqsClient, 3);
+        service.stop();
+
+        assertEquals(3, sqsClient.deleted.size());
+        assertEquals(-1, sqsClient.failedQueueUrlRequests.get());
+    }
+
+    @Test
+    void coalescesTheSmallObjectsOfAPollAndLoadsTheUnreadOnesOneJobEach() throws Exception {
+        FakeSqsClient sqsClient = new FakeSqsClient(List.of(10L, 10L, 10L, 10L, 10L, 10L, 2000L, 10L));
+        Queue<String> jobs = new ConcurrentLinkedQueue<>();
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            jobs.add(jobParameters.getString("fileName"));
+            JobExecution jobExecution = new JobExecution(1L);
+            String filePaths = jobParameters.getString(JobCompletionNotificationListener.FILE_PATHS_KEY);
+            if ("file-3.csv+2".equals(jobParameters.getString("fileName"))) {
+                List<String> keys = MultiFileItemReader.split(filePaths);
+                jobExecution.getExecutionContext().putString(JobCompletionNotificationListener.UNREAD_FILES_KEY,
+                        String.join(MultiFileItemReader.SEPARATOR, keys.subList(1, keys.size())));
+            }
+            return jobExecution;
+        };
+        SqsProperties properties = new SqsProperties();
+        properties.setPoolSize(10);
+        properties.setDeleteIntervalMillis(50);
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getCoalesce().setEnabled(true);
+        jobProperties.getCoalesce().setMaxFiles(3);
+        jobProperties.getCoalesce().setMaxBytes(1000);
+        jobProperties.getCoalesce().setMaxFileBytes(1000);
+
+        SqsListenerService service = new SqsListenerService(sqsClient, jobLauncher, null, new ObjectMapper(), properties,
+                jobProperties);
+        service.listen();
+        awaitDeleted(sqsClient, 8);
+        service.stop();
+
+        assertEquals(8, sqsClient.deleted.size());
+        assertEquals(Set.of("file-0.csv+2", "file-3.csv+2", "file-4.csv", "file-5.csv", "file-6.csv", "file-7.csv"),
+                Set.copyOf(jobs));
+        assertEquals(6, jobs.size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitDeleted(FakeSqsClient sqsClient, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (sqsClient.deleted.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * FakeSqsClient is an in-process queue holding S3 event notifications.
+     */
+    private static class FakeSqsClient implements SqsClient {
+
+        private final Queue<Message> queue = new ConcurrentLinkedQueue<>();
+        private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+        private final Set<String> extended = ConcurrentHashMap.newKeySet();
+        private final Queue<Integer> receiveSizes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger deleteBatches = new AtomicInteger();
+
+        /** The number of queue URL requests which fail before the queue can be reached. **/
+        private final AtomicInteger failedQueueUrlRequests = new AtomicInteger();
+
+        FakeSqsClient(int messages) {
+            for (int i = 0; i < messages; i++) {
+                queue.add(message(i, "{\"key\":\"file-" + i + ".csv\"}"));
+            }
+        }
+
+        /**
+         * The FakeSqsClient constructor is used to queue the notifications of objects of the given sizes.
+         * @param sizes a {@link List} of {@link Long} values.
+         */
+        FakeSqsClient(List<Long> sizes) {
+            for (int i = 0; i < sizes.size(); i++) {
+                queue.add(message(i, "{\"key\":\"file-" + i + ".csv\",\"size\":" + sizes.get(i) + "}"));
+            }
+        }
+
+        private static Message message(int i, String object) {
+            return Message.builder()
+                    .messageId("message-" + i)
+                    .receiptHandle("receipt-" + i)
+                    .body("{\"Records\":[{\"s3\":{\"bucket\":{\"name\":\"bucket\"},\"object\":" + object + "}}]}")
+                    .build();
+        }
+
+        @Override
+        public GetQueueUrlResponse getQueueUrl(GetQueueUrlRequest request) {
+            if (failedQueueUrlRequests.getAndDecrement() > 0) {
+                throw SdkClientException.create("Unable to execute HTTP request: Connect timed out");
+            }
+            return GetQueueUrlResponse.builder().queueUrl("queue").build();
+        }
+
+        @Override
+        public ReceiveMessageResponse receiveMessage(ReceiveMessageRequest request) {
+            receiveSizes.add(request.maxNumberOfMessages());
+            List<Message> messages = new ArrayList<>();
+            Message message;
+            while (messages.size() < request.maxNumberOfMessages() && (message = queue.poll()) != null) {
+                messages.add(message);
+            }
+            if (messages.isEmpty()) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ReceiveMessageResponse.builder().messages(messages).build();
+        }
+
+        @Override
+        public DeleteMessageBatchResponse deleteMessageBatch(DeleteMessageBatchRequest request) {
+            deleteBatches.incrementAndGet();
+            request.entries().stream().map(DeleteMessageBatchRequestEntry::receiptHandle).forEach(deleted::add);
+            return DeleteMessageBatchResponse.builder().build();
+        }
+
+        @Override
+        public ChangeMessageVisibilityBatchResponse changeMessageVisibilityBatch(ChangeMessageVisibilityBatchRequest request) {
+            request.entries().stream().map(ChangeMessageVisibilityBatchRequestEntry::receiptHandle).forEach(extended::add);
+            return ChangeMessageVisibilityBatchResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "sqs";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}